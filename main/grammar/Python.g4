@@ -71,6 +71,9 @@ tokens { INDENT, DEDENT }
   // The most recently produced token.
   private Token lastToken = null;
 
+  // Whether no token has been produced yet from the input.
+  private boolean atStartOfInput = true;
+
   @Override
   public void emit(Token t) {
     super.setToken(t);
@@ -103,6 +106,11 @@ tokens { INDENT, DEDENT }
       this.emit(commonToken(PythonParser.EOF, "<EOF>"));
     }
 
+    if (this.atStartOfInput) {
+      this.atStartOfInput = false;
+      this.indentStartOfInput();
+    }
+
     Token next = super.nextToken();
 
     if (next.getChannel() == Token.DEFAULT_CHANNEL) {
@@ -113,6 +121,25 @@ tokens { INDENT, DEDENT }
     return tokens.isEmpty() ? next : tokens.poll();
   }
 
+  // Indentation before the first statement is an error, like in Python: it yields a NEWLINE and an INDENT, as
+  // indentation after a line break does. The spaces themselves are then skipped.
+  private void indentStartOfInput() {
+    int length = 0;
+    while (_input.LA(length + 1) == ' ' || _input.LA(length + 1) == '\t') {
+      length++;
+    }
+
+    int next = _input.LA(length + 1);
+    if (length == 0 || next == '\r' || next == '\n' || next == '#') {
+      return;
+    }
+
+    String spaces = _input.getText(org.antlr.v4.runtime.misc.Interval.of(0, length - 1));
+    this.emit(new CommonToken(this._tokenFactorySourcePair, NEWLINE, DEFAULT_TOKEN_CHANNEL, length - 1, length - 1));
+    this.indents.push(getIndentationCount(spaces));
+    this.emit(new CommonToken(this._tokenFactorySourcePair, PythonParser.INDENT, DEFAULT_TOKEN_CHANNEL, 0, length - 1));
+  }
+
   private Token createDedent() {
     CommonToken dedent = commonToken(PythonParser.DEDENT, "");
     dedent.setLine(this.lastToken.getLine());
@@ -151,8 +178,15 @@ tokens { INDENT, DEDENT }
     return count;
   }
 
-  boolean atStartOfInput() {
-    return super.getCharPositionInLine() == 0 && super.getLine() == 1;
+  // Also called by setInputStream, clears the indentation state so a lexer instance can be reused for another file.
+  @Override
+  public void reset() {
+    super.reset();
+    this.tokens.clear();
+    this.indents.clear();
+    this.opened = 0;
+    this.lastToken = null;
+    this.atStartOfInput = true;
   }
 }
 
@@ -218,9 +252,10 @@ funcdef
 
 /// parameters: '(' [typedargslist] ')'
 // 2.6: parameters: '(' [varargslist] ')'
+// The 2.6 tuple parameters are part of tfpdef, so a single list rule covers both versions. Alternatives for
+// typedargslist and varargslist would be ambiguous for every plain parameter list.
 parameters
- : '(' typedargslist ')'
- | '(' varargslist? ')'
+ : '(' typedargslist? ')'
  ;
 
 /// typedargslist: (tfpdef ['=' test] (',' tfpdef ['=' test])* [','
@@ -246,8 +281,10 @@ typedargslist returns [List<TfpdefContext> regular, List<TestContext> regVals]
  ;
 
 /// tfpdef: NAME [':' test]
+// 2.6: fpdef: NAME | '(' fplist ')'
 tfpdef
  : name ( ':' test )?
+ | '(' vfplist ')'
  ;
 
 /// varargslist: (vfpdef ['=' test] (',' vfpdef ['=' test])* [','
@@ -324,8 +361,10 @@ expr_stmt returns [List<ParserRuleContext> chainedAssign]
  ;
 
 /// testlist_star_expr: (test|star_expr) (',' (test|star_expr))* [',']
+// test already derives star_expr (through comparison), a separate star_expr alternative is ambiguous with it for
+// every expression and forces the prediction to look ahead to the end of the expression.
 testlist_star_expr
- : ( test | star_expr ) ( ',' ( test |  star_expr ) )* ','?
+ : test ( ',' test )* ','?
  ;
 
 /// augassign: ('+=' | '-=' | '*=' | '/=' | '%=' | '&=' | '|=' | '^=' |
@@ -715,13 +754,14 @@ atom
 
 /// testlist_comp: test ( comp_for | (',' test)* [','] )
 // 3.5: testlist_comp: (test|star_expr) ( comp_for | (',' (test|star_expr))* [','] )
+// star_expr is covered by test, see testlist_star_expr
 testlist_comp returns [List<ParserRuleContext> vals]
 @init{
     $vals = new ArrayList<>();
 }
- : (v=test { $vals.add($v.ctx); } | s=star_expr { $vals.add($s.ctx); })
+ : v=test { $vals.add($v.ctx); }
    ( comp_for
-   | ( ',' (v=test { $vals.add($v.ctx); } | s=star_expr { $vals.add($s.ctx); } ) )* ','?
+   | ( ',' v=test { $vals.add($v.ctx); } )* ','?
    )
  ;
 
@@ -739,10 +779,11 @@ subscriptlist
 
 /// subscript: test | [test] ':' [test] [sliceop]
 // 2.6: subscript: '.' '.' '.' | test | [test] ':' [test] [sliceop]
+// Left-factored, so an index and the lower bound of a slice don't have to be told apart by prediction.
 subscript
  : '.' '.' '.'
- | index=test
- | lowerBound=test? ':' upperBound=test? stride=sliceop?
+ | lowerBound=test ( colon=':' upperBound=test? stride=sliceop? )?
+ | colon=':' upperBound=test? stride=sliceop?
  ;
 
 /// sliceop: ':' [test]
@@ -794,9 +835,9 @@ arglist
 // 3.5:                 test '=' test |
 // 3.5:                 '**' test |
 // 3.5:                 '*' test )
+// Left-factored, so the '=' of a keyword argument is matched after the first test instead of being predicted.
 argument
- : value=test condition=comp_for?
- | argName=test '=' value=test
+ : first=test ( condition=comp_for | '=' value=test )?
  | '**' kwarg=test
  | '*' arg=test
  ;
@@ -892,10 +933,10 @@ PASS : 'pass';
 CONTINUE : 'continue';
 BREAK : 'break';
 
+// No semantic predicate may be reachable from the start of a token: the lexer then cannot cache its start state and
+// computes it again for every token. Indentation at the very start of the input is handled in nextToken().
 NEWLINE
- : ( {atStartOfInput()}?   SPACES
-   | ( '\r'? '\n' | '\r' ) SPACES?
-   )
+ : ( '\r'? '\n' | '\r' ) SPACES?
    {
      String newLine = getText().replaceAll("[^\r\n]+", "");
      String spaces = getText().replaceAll("[\r\n]+", "");
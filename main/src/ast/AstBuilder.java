@@ -2,14 +2,18 @@ package ast;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RuleContext;
 import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.RuleNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
@@ -96,6 +100,7 @@ import ast.statement.simple.Print;
 import ast.statement.simple.SuperStmt;
 import gen.PythonParser;
 import gen.PythonVisitor;
+import util.SourceFile;
 import util.StringHelper;
 
 /**
@@ -103,30 +108,135 @@ import util.StringHelper;
  */
 public class AstBuilder {
 
+	/**
+	 * Version of the produced trees, part of the AST cache key. Increase when the tree for the same source changes.
+	 */
+	public static final int VERSION = 3;
+
 	private final AstBuilderVisitor visitor;
 	private final ParserRuleContext context;
+	/**
+	 * Statements built by the parse listener whose parse trees are dropped, until the visitor picks them up
+	 */
+	private final Map<ParserRuleContext, AstNode> builtStatements = new IdentityHashMap<>();
+
+	public AstBuilder(ParserRuleContext context, SourceFile source) {
+		this(context, source, new LocCounter(source));
+	}
 
-	public AstBuilder(ParserRuleContext context, String filePath) {
-		this.visitor = new AstBuilderVisitor(filePath);
+	/**
+	 * Builder for a module that is still to be parsed, with the listener of {@link #getParseListener()}.
+	 */
+	public AstBuilder(SourceFile source) {
+		this(null, source);
+	}
+
+	/**
+	 * @param locCounter counter of the source, can be shared by the builders of the chunks of one module
+	 */
+	public AstBuilder(ParserRuleContext context, SourceFile source, LocCounter locCounter) {
+		this.visitor = new AstBuilderVisitor(source, locCounter);
 		this.context = context;
 	}
 
-	public static Module buildErrorModule(String filePath) {
-		return new Module(filePath, new LocCounter(filePath).count());
+	public static Module buildErrorModule(SourceFile source) {
+		return new Module(source.getPath(), new LocCounter(source).getCodeLines());
 	}
 
 	public Module build() {
-		return (Module) this.context.accept(this.visitor);
+		return this.build(this.context);
+	}
+
+	/**
+	 * @param context parse tree of the module, as left by the parse listener when it was used
+	 */
+	public Module build(ParserRuleContext context) {
+		return (Module) context.accept(this.visitor);
+	}
+
+	/**
+	 * @return listener for the parser that builds every statement as soon as it has been parsed and drops its parse
+	 * tree, so only the statement being parsed has a full parse tree. The remaining tree is built into the module by
+	 * {@link #build(ParserRuleContext)}.
+	 */
+	public ParseTreeListener getParseListener() {
+		return new StatementListener();
+	}
+
+	private class StatementListener implements ParseTreeListener {
+
+		@Override
+		public void enterEveryRule(ParserRuleContext ctx) {
+			if (ctx instanceof PythonParser.File_inputContext) {
+				//the statements of a failed attempt, e.g. in SLL mode, are not part of the new parse tree
+				AstBuilder.this.builtStatements.clear();
+				AstBuilder.this.visitor.resetDecisions();
+			}
+		}
+
+		@Override
+		public void exitEveryRule(ParserRuleContext ctx) {
+			if (!(ctx instanceof PythonParser.StmtContext) || ctx.exception != null) {
+				return;
+			}
+			AstNode statement;
+			try {
+				//nested statements have already been built, the visitor takes them from builtStatements
+				statement = AstBuilder.this.visitor.visitStmt((PythonParser.StmtContext) ctx);
+			}
+			catch (RuntimeException e) {
+				//the rules are also exited while the parser bails out (or times out) in the middle of the statement,
+				//a complete statement that cannot be built fails again in build()
+				return;
+			}
+			AstBuilder.this.builtStatements.put(ctx, statement);
+			ctx.children = null;
+		}
+
+		@Override
+		public void visitTerminal(TerminalNode node) {
+		}
+
+		@Override
+		public void visitErrorNode(ErrorNode node) {
+		}
 	}
 
 	private class AstBuilderVisitor implements PythonVisitor<AstNode> {
 
 		private final String filePath;
 		private final LocCounter locCounter;
+		/**
+		 * Decision points of the cyclomatic complexity by the line of their statement, see {@link #complexity}
+		 */
+		private final int[] decisions;
+
+		public AstBuilderVisitor(SourceFile source, LocCounter locCounter) {
+			this.filePath = source.getPath();
+			this.locCounter = locCounter;
+			this.decisions = new int[source.getLineCount() + 2];
+		}
 
-		public AstBuilderVisitor(String filePath) {
-			this.filePath = filePath;
-			this.locCounter = new LocCounter(this.filePath);
+		private void addDecisions(LineSpan lines, int amount) {
+			this.decisions[Math.min(lines.getStartLine(), this.decisions.length - 1)] += amount;
+		}
+
+		/**
+		 * The statements of a function, including those of nested functions and classes, are the statements that
+		 * start on its lines. They are all built before the function itself, also when they are built while parsing.
+		 * @return the cyclomatic complexity of the function
+		 */
+		private int complexity(LineSpan lines) {
+			int complexity = 1;
+			int end = Math.min(lines.getEndLine(), this.decisions.length - 1);
+			for (int line = lines.getStartLine(); line <= end; line++) {
+				complexity += this.decisions[line];
+			}
+			return complexity;
+		}
+
+		private void resetDecisions() {
+			Arrays.fill(this.decisions, 0);
 		}
 
 		@Override
@@ -151,7 +261,7 @@ public class AstBuilder {
 			if (ctx.stmt() != null) {
 				ctx.stmt().forEach(e -> children.addAll(((CollectionWrapper<ast.statement.Statement>) e.accept(this)).items));
 			}
-			return new Module(this.filePath, this.locCounter.count(), children);
+			return new Module(this.filePath, this.locCounter.getCodeLines(), children);
 		}
 
 		@Override
@@ -165,7 +275,7 @@ public class AstBuilder {
 			//      '@' dotted_name ( '(' arglist? ')' )? NEWLINE
 			DottedPath id = (DottedPath) ctx.dotted_name().accept(this);
 			ArgList argList = ctx.arglist() == null ? null : (ArgList) ctx.arglist().accept(this);
-			return new Decorator(this.getLocInfo(ctx), id, argList);
+			return new Decorator(this.getLines(ctx), id, argList);
 		}
 
 		@Override
@@ -176,9 +286,9 @@ public class AstBuilder {
 						.stream().map(e -> (Decorator) e.accept(this))
 						.collect(Collectors.toList());
 
-				return new CollectionWrapper<>(this.getLocInfo(ctx), decorators);
+				return new CollectionWrapper<>(this.getLines(ctx), decorators);
 			}
-			return new CollectionWrapper<>(this.getLocInfo(ctx), Collections.emptyList());
+			return new CollectionWrapper<>(this.getLines(ctx), Collections.emptyList());
 		}
 
 		@Override
@@ -208,7 +318,7 @@ public class AstBuilder {
 
 		@Override
 		public AstNode visitName(PythonParser.NameContext ctx) {
-			return new Identifier(this.getLocInfo(ctx), ctx.getText());
+			return new Identifier(this.getLines(ctx), ctx.getText());
 		}
 
 		@Override
@@ -225,19 +335,17 @@ public class AstBuilder {
 			Expr returnType = ctx.test() == null ? null : (Expr) ctx.test().accept(this);
 			Suite suite = this.process(ctx.suite());
 			Identifier identifier = (Identifier) ctx.name().accept(this);
-			return new Function(this.getLocInfo(ctx), identifier, returnType, suite, params);
+			LineSpan lines = this.getLines(ctx);
+			return new Function(lines, identifier, returnType, suite, params, this.complexity(lines));
 		}
 
 		@Override
 		public AstNode visitParameters(PythonParser.ParametersContext ctx) {
-			//      '(' typedargslist ')' | '(' varargslist? ')'
+			//      '(' typedargslist? ')'
 			if (ctx.typedargslist() != null) {
 				return ctx.typedargslist().accept(this);
 			}
-			if (ctx.varargslist() != null) {
-				return ctx.varargslist().accept(this);
-			}
-			return new Params(this.getLocInfo(ctx));
+			return new Params(this.getLines(ctx));
 		}
 
 		@Override
@@ -260,18 +368,21 @@ public class AstBuilder {
 
 			Param positional = ctx.positional != null ? (Param) ctx.positional.accept(this) : null;
 			Param keyword = ctx.keyword != null ? (Param) ctx.keyword.accept(this) : null;
-			return new Params(this.getLocInfo(ctx), regular, positional, keyword);
+			return new Params(this.getLines(ctx), regular, positional, keyword);
 		}
 
 		@Override
 		public AstNode visitTfpdef(PythonParser.TfpdefContext ctx) {
-			//      name ( ':' test )?
+			//      name ( ':' test )? | '(' vfplist ')'
+			if (ctx.vfplist() != null) {
+				return ctx.vfplist().accept(this);
+			}
 			Identifier id = (Identifier) ctx.name().accept(this);
 			if (ctx.test() != null) {
 				Expr returnType = (Expr) ctx.test().accept(this);
-				return new TypedParam(this.getLocInfo(ctx), id, returnType);
+				return new TypedParam(this.getLines(ctx), id, returnType);
 			}
-			return new UntypedParam(this.getLocInfo(ctx), id);
+			return new UntypedParam(this.getLines(ctx), id);
 		}
 
 		@Override
@@ -294,7 +405,7 @@ public class AstBuilder {
 
 			Param positional = ctx.positional != null ? (Param) ctx.positional.accept(this) : null;
 			Param keyword = ctx.keyword != null ? (Param) ctx.keyword.accept(this) : null;
-			return new Params(this.getLocInfo(ctx), regular, positional, keyword);
+			return new Params(this.getLines(ctx), regular, positional, keyword);
 		}
 
 		@Override
@@ -302,7 +413,7 @@ public class AstBuilder {
 			//      name | '(' vfplist ')'
 			if (ctx.name() != null) {
 				Identifier id = (Identifier) ctx.name().accept(this);
-				return new UntypedParam(this.getLocInfo(ctx), id);
+				return new UntypedParam(this.getLines(ctx), id);
 			}
 			if (ctx.vfplist() != null) {
 				return ctx.vfplist().accept(this);
@@ -316,19 +427,23 @@ public class AstBuilder {
 			List<Param> params = ctx.vfpdef().stream()
 					.map(v -> (Param) v.accept(this))
 					.collect(Collectors.toList());
-			return new ListParam(this.getLocInfo(ctx), params);
+			return new ListParam(this.getLines(ctx), params);
 		}
 
 		@Override
 		public AstNode visitStmt(PythonParser.StmtContext ctx) {
 			//      simple_stmt | compound_stmt
+			AstNode built = AstBuilder.this.builtStatements.remove(ctx);
+			if (built != null) {
+				return built;
+			}
 			if (ctx.simple_stmt() != null) {
 				return ctx.simple_stmt().accept(this); //returns a Wrapper
 			}
 			if (ctx.compound_stmt() != null) {
 				//wrap this for consistency
 				ast.statement.Statement s = (ast.statement.Statement) ctx.compound_stmt().accept(this);
-				return new CollectionWrapper<>(this.getLocInfo(ctx), s);
+				return new CollectionWrapper<>(this.getLines(ctx), s);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -339,7 +454,7 @@ public class AstBuilder {
 			List<ast.statement.Statement> statements = ctx.small_stmt().stream()
 					.map(e -> (ast.statement.Statement) e.accept(this))
 					.collect(Collectors.toList());
-			return new CollectionWrapper<>(this.getLocInfo(ctx), statements);
+			return new CollectionWrapper<>(this.getLines(ctx), statements);
 		}
 
 		@Override
@@ -396,13 +511,13 @@ public class AstBuilder {
 				List<ExprList> exprElements = new ArrayList<>();
 				exprElements.add((ExprList) ctx.target.accept(this));
 
-				return new Assign(this.getLocInfo(ctx), operator, exprElements, yieldElements);
+				return new Assign(this.getLines(ctx), operator, exprElements, yieldElements);
 			}
 			if (ctx.assignTest != null) {
 				List<ExprList> exprElements = new ArrayList<>();
 				exprElements.add((ExprList) ctx.target.accept(this));
 				exprElements.add((ExprList) ctx.assignTest.accept(this));
-				return new Assign(this.getLocInfo(ctx), operator, exprElements, Collections.emptyList());
+				return new Assign(this.getLines(ctx), operator, exprElements, Collections.emptyList());
 			}
 
 			//no assign
@@ -417,31 +532,23 @@ public class AstBuilder {
 			List<Yield> yieldElements = ctx.yield_expr().stream()
 					.map(a -> (Yield) a.accept(this))
 					.collect(Collectors.toList());
-			return new Assign(this.getLocInfo(ctx), operator, exprElements, yieldElements);
+			return new Assign(this.getLines(ctx), operator, exprElements, yieldElements);
 		}
 
 
 		@Override
 		public AstNode visitTestlist_star_expr(PythonParser.Testlist_star_exprContext ctx) {
-			//      ( test | star_expr ) ( ',' ( test |  star_expr ) )* ','?
-			List<Expr> children = new ArrayList<>();
-			if (ctx.test() != null) {
-				children.addAll(ctx.test().stream()
-						.map(e -> (Expr) e.accept(this))
-						.collect(Collectors.toList()));
-			}
-			if (ctx.star_expr() != null) {
-				children.addAll(ctx.star_expr().stream()
-						.map(e -> (Expr) e.accept(this))
-						.collect(Collectors.toList()));
-			}
-			return new ExprList(this.getLocInfo(ctx), children);
+			//      test ( ',' test )* ','?
+			List<Expr> children = ctx.test().stream()
+					.map(e -> (Expr) e.accept(this))
+					.collect(Collectors.toList());
+			return new ExprList(this.getLines(ctx), children);
 		}
 
 		@Override
 		public AstNode visitAugassign(PythonParser.AugassignContext ctx) {
 			//      '+=' | '-=' | '*=' | '@=' | '/=' | '%=' | '&=' | '|=' | '^=' | '<<=' | '>>=' | '**=' | '//='
-			return new Wrapper<>(this.getLocInfo(ctx), ctx.op.getText());
+			return new Wrapper<>(this.getLines(ctx), ctx.op.getText());
 		}
 
 		@Override
@@ -450,20 +557,20 @@ public class AstBuilder {
 			List<Expr> expressions = ctx.test().stream()
 					.map(e -> (Expr) e.accept(this))
 					.collect(Collectors.toList());
-			return new Print(this.getLocInfo(ctx), expressions);
+			return new Print(this.getLines(ctx), expressions);
 		}
 
 		@Override
 		public AstNode visitDel_stmt(PythonParser.Del_stmtContext ctx) {
 			//      DEL exprlist
 			ExprList expressions = (ExprList) ctx.exprlist().accept(this);
-			return new Delete(this.getLocInfo(ctx), expressions);
+			return new Delete(this.getLines(ctx), expressions);
 		}
 
 		@Override
 		public AstNode visitPass_stmt(PythonParser.Pass_stmtContext ctx) {
 			//PASS
-			return new Pass(this.getLocInfo(ctx));
+			return new Pass(this.getLines(ctx));
 		}
 
 		@Override
@@ -490,13 +597,13 @@ public class AstBuilder {
 		@Override
 		public AstNode visitBreak_stmt(PythonParser.Break_stmtContext ctx) {
 			//      BREAK
-			return new Break(this.getLocInfo(ctx));
+			return new Break(this.getLines(ctx));
 		}
 
 		@Override
 		public AstNode visitContinue_stmt(PythonParser.Continue_stmtContext ctx) {
 			//      CONTINUE
-			return new Continue(this.getLocInfo(ctx));
+			return new Continue(this.getLines(ctx));
 		}
 
 		@Override
@@ -504,16 +611,16 @@ public class AstBuilder {
 			//      RETURN testlist?
 			if (ctx.testlist() != null) {
 				ExprList expressions = (ExprList) ctx.testlist().accept(this);
-				return new Return(this.getLocInfo(ctx), expressions);
+				return new Return(this.getLines(ctx), expressions);
 			}
-			return new Return(this.getLocInfo(ctx));
+			return new Return(this.getLines(ctx));
 		}
 
 		@Override
 		public AstNode visitYield_stmt(PythonParser.Yield_stmtContext ctx) {
 			//      yield_expr
 			Yield yield = (Yield) ctx.yield_expr().accept(this);
-			return new ast.statement.flow.Yield(this.getLocInfo(ctx), yield);
+			return new ast.statement.flow.Yield(this.getLines(ctx), yield);
 		}
 
 		@Override
@@ -522,13 +629,13 @@ public class AstBuilder {
 			Expr type = ctx.type == null ? null : (Expr) ctx.type.accept(this);
 			if (ctx.source != null) {
 				Expr source = (Expr) ctx.source.accept(this);
-				return new RaiseFrom(this.getLocInfo(ctx), type, source);
+				return new RaiseFrom(this.getLines(ctx), type, source);
 			}
 
 			Expr value = ctx.value == null ? null : (Expr) ctx.value.accept(this);
 			Expr trace = ctx.trace == null ? null : (Expr) ctx.trace.accept(this);
 
-			return new RaiseEx(this.getLocInfo(ctx), type, value, trace);
+			return new RaiseEx(this.getLines(ctx), type, value, trace);
 		}
 
 		@Override
@@ -547,7 +654,7 @@ public class AstBuilder {
 		public AstNode visitImport_name(PythonParser.Import_nameContext ctx) {
 			//      IMPORT dotted_as_names
 			CollectionWrapper<Path> wrap = (CollectionWrapper<Path>) ctx.dotted_as_names().accept(this);
-			return new ImportPaths(this.getLocInfo(ctx), wrap.getItems());
+			return new ImportPaths(this.getLines(ctx), wrap.getItems());
 		}
 
 		@Override
@@ -559,7 +666,7 @@ public class AstBuilder {
 			//			   | '(' import_as_names ')'
 			//			   | import_as_names
 			//		       )
-			DottedPath module = ctx.dotted_name() == null ? new DottedPath(this.getLocInfo(ctx), new ArrayList<>()) : (DottedPath) ctx.dotted_name().accept(this);
+			DottedPath module = ctx.dotted_name() == null ? new DottedPath(this.getLines(ctx), new ArrayList<>()) : (DottedPath) ctx.dotted_name().accept(this);
 			if (ctx.prefixes != null) {
 				module.addPrefixes(ctx.prefixes);
 			}
@@ -567,15 +674,15 @@ public class AstBuilder {
 			List<Path> items = new ArrayList<>();
 
 			if (ctx.star != null) {
-				Path all = new SimplePath(this.getLocInfo(ctx), ctx.star.getText());
+				Path all = new SimplePath(this.getLines(ctx), ctx.star.getText());
 				items.add(all);
-				return new ImportFrom(this.getLocInfo(ctx), items, module);
+				return new ImportFrom(this.getLines(ctx), items, module);
 			}
 
 			if (ctx.import_as_names() != null) {
 				CollectionWrapper<Path> wrap = (CollectionWrapper<Path>) ctx.import_as_names().accept(this);
 				items.addAll(wrap.getItems());
-				return new ImportFrom(this.getLocInfo(ctx), items, module);
+				return new ImportFrom(this.getLines(ctx), items, module);
 			}
 
 			throw new IllegalArgumentException("Unknown context");
@@ -584,7 +691,7 @@ public class AstBuilder {
 		@Override
 		public AstNode visitImport_as_name(PythonParser.Import_as_nameContext ctx) {
 			//      name ( AS name )?
-			SimplePath simplePath = new SimplePath(this.getLocInfo(ctx), ctx.name().get(0).getText());
+			SimplePath simplePath = new SimplePath(this.getLines(ctx), ctx.name().get(0).getText());
 			if (ctx.name().size() == 2) {
 				Identifier alias = (Identifier) ctx.name().get(1).accept(this);
 				simplePath.setAlias(alias);
@@ -609,7 +716,7 @@ public class AstBuilder {
 			List<SimplePath> ids = ctx.import_as_name().stream()
 					.map(e -> (SimplePath) e.accept(this))
 					.collect(Collectors.toList());
-			return new CollectionWrapper<>(this.getLocInfo(ctx), ids);
+			return new CollectionWrapper<>(this.getLines(ctx), ids);
 		}
 
 		@Override
@@ -618,31 +725,31 @@ public class AstBuilder {
 			List<DottedPath> dottedPaths = ctx.dotted_as_name().stream()
 					.map(e -> (DottedPath) e.accept(this))
 					.collect(Collectors.toList());
-			return new CollectionWrapper<>(this.getLocInfo(ctx), dottedPaths);
+			return new CollectionWrapper<>(this.getLines(ctx), dottedPaths);
 		}
 
 		@Override
 		public AstNode visitDotted_name(PythonParser.Dotted_nameContext ctx) {
 			//      NAME ( '.' NAME )*
-			return new DottedPath(this.getLocInfo(ctx), ctx.names);
+			return new DottedPath(this.getLines(ctx), ctx.names);
 		}
 
 		@Override
 		public AstNode visitGlobal_stmt(PythonParser.Global_stmtContext ctx) {
 			//      GLOBAL NAME ( ',' NAME )*
 			List<Identifier> ids = ctx.names.stream()
-					.map(e -> new Identifier(this.getLocInfo(ctx), e))
+					.map(e -> new Identifier(this.getLines(ctx), e))
 					.collect(Collectors.toList());
-			return new Global(this.getLocInfo(ctx), ids);
+			return new Global(this.getLines(ctx), ids);
 		}
 
 		@Override
 		public AstNode visitNonlocal_stmt(PythonParser.Nonlocal_stmtContext ctx) {
 			//      NONLOCAL NAME ( ',' NAME )*
 			List<Identifier> ids = ctx.names.stream()
-					.map(e -> new Identifier(this.getLocInfo(ctx), e))
+					.map(e -> new Identifier(this.getLines(ctx), e))
 					.collect(Collectors.toList());
-			return new Nonlocal(this.getLocInfo(ctx), ids);
+			return new Nonlocal(this.getLines(ctx), ids);
 		}
 
 		@Override
@@ -651,7 +758,7 @@ public class AstBuilder {
 			Expr target = (Expr) ctx.expr().accept(this);
 			Expr vars = ctx.vars == null ? null : (Expr) ctx.vars.accept(this);
 			Expr localVars = ctx.localVars == null ? null : (Expr) ctx.localVars.accept(this);
-			return new Exec(this.getLocInfo(ctx), target, vars, localVars);
+			return new Exec(this.getLines(ctx), target, vars, localVars);
 		}
 
 		@Override
@@ -660,9 +767,9 @@ public class AstBuilder {
 			Expr assertion = (Expr) ctx.assertion.accept(this);
 			if (ctx.assertionError != null) {
 				Expr error = (Expr) ctx.assertionError.accept(this);
-				return new Assert(this.getLocInfo(ctx), assertion, error);
+				return new Assert(this.getLines(ctx), assertion, error);
 			}
-			return new Assert(this.getLocInfo(ctx), assertion);
+			return new Assert(this.getLines(ctx), assertion);
 		}
 
 		@Override
@@ -731,7 +838,10 @@ public class AstBuilder {
 				bodies.add(body);
 			}
 			Suite elseBody = this.processOptional(ctx.elseSuite);
-			return new If(this.getLocInfo(ctx), conditions, bodies, elseBody);
+			LineSpan lines = this.getLines(ctx);
+			//every branch with a condition
+			this.addDecisions(lines, bodies.size());
+			return new If(lines, conditions, bodies, elseBody);
 		}
 
 		@Override
@@ -741,7 +851,9 @@ public class AstBuilder {
 			Suite body = this.process(ctx.body);
 			Suite elseBody = this.processOptional(ctx.elseBody);
 
-			return new While(this.getLocInfo(ctx), condition, body, elseBody);
+			LineSpan lines = this.getLines(ctx);
+			this.addDecisions(lines, 1);
+			return new While(lines, condition, body, elseBody);
 		}
 
 		@Override
@@ -752,7 +864,9 @@ public class AstBuilder {
 			Suite body = this.process(ctx.body);
 			Suite elseBody = this.processOptional(ctx.elseBody);
 
-			return new For(this.getLocInfo(ctx), iterator, source, body, elseBody);
+			LineSpan lines = this.getLines(ctx);
+			this.addDecisions(lines, 1);
+			return new For(lines, iterator, source, body, elseBody);
 		}
 
 		@Override
@@ -775,7 +889,9 @@ public class AstBuilder {
 				exceptBodies.add(exceptBody);
 			}
 
-			return new Try(this.getLocInfo(ctx), tryBlock, exceptions, exceptBodies, elseBlock, finallyBlock);
+			LineSpan lines = this.getLines(ctx);
+			this.addDecisions(lines, exceptBodies.size() + 1);
+			return new Try(lines, tryBlock, exceptions, exceptBodies, elseBlock, finallyBlock);
 		}
 
 		@Override
@@ -785,7 +901,7 @@ public class AstBuilder {
 					.map(e -> (WithItem) e.accept(this))
 					.collect(Collectors.toList());
 			Suite stmts = this.process(ctx.suite());
-			return new With(this.getLocInfo(ctx), items, stmts);
+			return new With(this.getLines(ctx), items, stmts);
 		}
 
 		@Override
@@ -793,7 +909,7 @@ public class AstBuilder {
 			//      test ( AS expr )?
 			Expr item = (Expr) ctx.test().accept(this);
 			Expr alias = ctx.expr() == null ? null : (Expr) ctx.expr().accept(this);
-			return new WithItem(this.getLocInfo(ctx), item, alias);
+			return new WithItem(this.getLines(ctx), item, alias);
 		}
 
 		@Override
@@ -801,7 +917,7 @@ public class AstBuilder {
 			//      EXCEPT ( test ( ( AS | ',' ) test )? )?
 			Expr exception = ctx.type == null ? null : (Expr) ctx.type.accept(this);
 			Expr alias = ctx.exName == null ? null : (Expr) ctx.exName.accept(this);
-			return new Except(this.getLocInfo(ctx), exception, alias);
+			return new Except(this.getLines(ctx), exception, alias);
 		}
 
 		@Override
@@ -809,7 +925,7 @@ public class AstBuilder {
 			//      simple_stmt | NEWLINE INDENT stmt+ DEDENT
 			if (ctx.simple_stmt() != null) {
 				CollectionWrapper<ast.statement.Statement> wrap = (CollectionWrapper<ast.statement.Statement>) ctx.simple_stmt().accept(this);
-				return new Suite(this.getLocInfo(ctx), wrap.getItems());
+				return new Suite(this.getLines(ctx), wrap.getItems());
 			}
 			else if (ctx.stmt() != null) {
 				List<CollectionWrapper<ast.statement.Statement>> collectionWrappers = ctx.stmt().stream()
@@ -817,7 +933,7 @@ public class AstBuilder {
 						.collect(Collectors.toList());
 				List<ast.statement.Statement> statements = new ArrayList<>();
 				collectionWrappers.forEach(e -> statements.addAll(e.getItems()));
-				return new Suite(this.getLocInfo(ctx), statements);
+				return new Suite(this.getLines(ctx), statements);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -836,7 +952,7 @@ public class AstBuilder {
 
 			Expr conditionFalseValue = (Expr) ctx.test().accept(this);
 			Expr condition = (Expr) ctx.condition.accept(this);
-			return new Conditional(this.getLocInfo(ctx), value, condition, conditionFalseValue);
+			return new Conditional(this.getLines(ctx), value, condition, conditionFalseValue);
 		}
 
 		@Override
@@ -856,7 +972,7 @@ public class AstBuilder {
 			//      LAMBDA varargslist? ':' test
 			Params parameters = ctx.varargslist() == null ? null : (Params) ctx.varargslist().accept(this);
 			Expr expr = (Expr) ctx.test().accept(this);
-			return new Lambda(this.getLocInfo(ctx), expr, parameters);
+			return new Lambda(this.getLines(ctx), expr, parameters);
 		}
 
 		@Override
@@ -864,7 +980,7 @@ public class AstBuilder {
 			//      LAMBDA varargslist? ':' test_nocond
 			Params parameters = ctx.varargslist() == null ? null : (Params) ctx.varargslist().accept(this);
 			NonConditional expr = (NonConditional) ctx.test_nocond().accept(this);
-			return new LambdaNoCond(this.getLocInfo(ctx), expr, parameters);
+			return new LambdaNoCond(this.getLines(ctx), expr, parameters);
 		}
 
 		@Override
@@ -877,7 +993,7 @@ public class AstBuilder {
 			if (children.size() == 1) {
 				return children.get(0);
 			}
-			return new Binary(this.getLocInfo(ctx), children, "or");
+			return new Binary(this.getLines(ctx), children, "or");
 		}
 
 		@Override
@@ -890,7 +1006,7 @@ public class AstBuilder {
 			if (children.size() == 1) {
 				return children.get(0);
 			}
-			return new Binary(this.getLocInfo(ctx), children, "and");
+			return new Binary(this.getLines(ctx), children, "and");
 		}
 
 		@Override
@@ -898,7 +1014,7 @@ public class AstBuilder {
 			//      NOT not_test | comparison
 			if (ctx.not_test() != null) {
 				Expr expr = (Expr) ctx.not_test().accept(this);
-				return new Not(this.getLocInfo(ctx), expr);
+				return new Not(this.getLines(ctx), expr);
 			}
 			if (ctx.comparison() != null) {
 				return ctx.comparison().accept(this);
@@ -921,7 +1037,7 @@ public class AstBuilder {
 				List<String> operators = ctx.comp_op().stream()
 						.map(c -> ((Wrapper<String>) c.accept(this)).getItem())
 						.collect(Collectors.toList());
-				return new Comparison(this.getLocInfo(ctx), operands, operators);
+				return new Comparison(this.getLines(ctx), operands, operators);
 			}
 
 			throw new IllegalArgumentException("Unknown context");
@@ -930,7 +1046,7 @@ public class AstBuilder {
 		@Override
 		public AstNode visitComp_op(PythonParser.Comp_opContext ctx) {
 			//      '<' | '>' | '==' | '>=' | '<=' | '<>' | '!=' | IN | NOT IN | IS | IS NOT
-			return new Wrapper<>(this.getLocInfo(ctx), ctx.operator);
+			return new Wrapper<>(this.getLines(ctx), ctx.operator);
 		}
 
 		@Override
@@ -947,7 +1063,7 @@ public class AstBuilder {
 			if (operands.size() == 1) {
 				return operands.get(0);
 			}
-			return new ast.expression.nocond.bitwise.Or(this.getLocInfo(ctx), operands);
+			return new ast.expression.nocond.bitwise.Or(this.getLines(ctx), operands);
 		}
 
 		@Override
@@ -959,7 +1075,7 @@ public class AstBuilder {
 			if (operands.size() == 1) {
 				return operands.get(0);
 			}
-			return new Xor(this.getLocInfo(ctx), operands);
+			return new Xor(this.getLines(ctx), operands);
 		}
 
 		@Override
@@ -971,7 +1087,7 @@ public class AstBuilder {
 			if (operands.size() == 1) {
 				return operands.get(0);
 			}
-			return new ast.expression.nocond.bitwise.And(this.getLocInfo(ctx), operands);
+			return new ast.expression.nocond.bitwise.And(this.getLines(ctx), operands);
 		}
 
 		@Override
@@ -983,7 +1099,7 @@ public class AstBuilder {
 			if (children.size() == 1) {
 				return children.get(0);
 			}
-			return new Shift(this.getLocInfo(ctx), children, ctx.operators);
+			return new Shift(this.getLines(ctx), children, ctx.operators);
 		}
 
 		@Override
@@ -995,7 +1111,7 @@ public class AstBuilder {
 			if (operands.size() == 1) {
 				return operands.get(0);
 			}
-			return new Nnary(this.getLocInfo(ctx), operands, ctx.operators);
+			return new Nnary(this.getLines(ctx), operands, ctx.operators);
 		}
 
 		@Override
@@ -1008,7 +1124,7 @@ public class AstBuilder {
 			if (operands.size() == 1) {
 				return operands.get(0);
 			}
-			return new Nnary(this.getLocInfo(ctx), operands, ctx.operators);
+			return new Nnary(this.getLines(ctx), operands, ctx.operators);
 		}
 
 		@Override
@@ -1016,7 +1132,7 @@ public class AstBuilder {
 			//      '+' factor | '-' factor | '~' factor | power
 			if (ctx.factor() != null) {
 				Expr value = (Expr) ctx.factor().accept(this);
-				return new Unary(this.getLocInfo(ctx), value, ctx.op.getText());
+				return new Unary(this.getLines(ctx), value, ctx.op.getText());
 			}
 			if (ctx.power() != null) {
 				return ctx.power().accept(this);
@@ -1033,14 +1149,14 @@ public class AstBuilder {
 							.map(e -> (Trailer) e.accept(this))
 							.collect(Collectors.toList());
 
-			Atom transformedBase = TrailedAtomBuilder.attachTrailers(this.getLocInfo(ctx), base, trailers);
+			Atom transformedBase = TrailedAtomBuilder.attachTrailers(this.getLines(ctx), base, trailers);
 
 			if (ctx.factor() == null) {
 				return transformedBase;
 			}
 
 			Expr exponent = (Expr) ctx.factor().accept(this);
-			return new Power(this.getLocInfo(ctx), transformedBase, exponent);
+			return new Power(this.getLines(ctx), transformedBase, exponent);
 		}
 
 		@Override
@@ -1062,7 +1178,7 @@ public class AstBuilder {
 			}
 			if (ctx.testlist() != null) {
 				ExprList exprList = (ExprList) ctx.testlist().accept(this);
-				return new StrConversion(this.getLocInfo(ctx), exprList);
+				return new StrConversion(this.getLines(ctx), exprList);
 			}
 			if (ctx.name() != null) {
 				return ctx.name().accept(this);
@@ -1077,16 +1193,16 @@ public class AstBuilder {
 				return this.getStr(ctx.getStart().getLine(), StringHelper.implode(strings, ""));
 			}
 			if (ctx.ellipsis != null) {
-				return new Ellipsis(this.getLocInfo(ctx));
+				return new Ellipsis(this.getLines(ctx));
 			}
 			if (ctx.NONE() != null) {
-				return new None(this.getLocInfo(ctx));
+				return new None(this.getLines(ctx));
 			}
 			if (ctx.TRUE() != null) {
-				return new Bool(this.getLocInfo(ctx), true);
+				return new Bool(this.getLines(ctx), true);
 			}
 			if (ctx.FALSE() != null) {
-				return new Bool(this.getLocInfo(ctx), false);
+				return new Bool(this.getLines(ctx), false);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -1094,24 +1210,23 @@ public class AstBuilder {
 		private AstNode getStr(Integer startLine, String str) {
 			//this hacky method is here because end line of ctx is not correct so it's necessary to calculate it manually
 			Integer endLine = startLine + StringHelper.explode(str, "\n").size() - 1;
-			Integer locInfo = this.locCounter.count(startLine, endLine);
-			return new Str(locInfo, str);
+			return new Str(new LineSpan(startLine, endLine), str);
 		}
 
 		@Override
 		public AstNode visitTestlist_comp(PythonParser.Testlist_compContext ctx) {
-			//      (test | star_expr) ( comp_for | ( ',' (test | star_expr) )* ','? )
+			//      test ( comp_for | ( ',' test )* ','? )
 
 			if (ctx.vals.size() > 0) {
 				if (ctx.comp_for() != null) {
 					Expr expression = (Expr) ctx.vals.get(0).accept(this);
 					CompFor compFor = (CompFor) ctx.comp_for().accept(this);
-					return new CondComprehension(this.getLocInfo(ctx), expression, compFor);
+					return new CondComprehension(this.getLines(ctx), expression, compFor);
 				}
 				List<Expr> vals = ctx.vals.stream()
 						.map(v -> (Expr) v.accept(this))
 						.collect(Collectors.toList());
-				return new EnumComprehension(this.getLocInfo(ctx), vals);
+				return new EnumComprehension(this.getLines(ctx), vals);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -1123,7 +1238,7 @@ public class AstBuilder {
 				if (ctx.arglist() != null) {
 					return ctx.arglist().accept(this);
 				}
-				return new ArgList(this.getLocInfo(ctx), Collections.emptyList());
+				return new ArgList(this.getLines(ctx), Collections.emptyList());
 			}
 			if (ctx.subscriptlist() != null) {
 				return ctx.subscriptlist().accept(this); //SubscriptSliceList
@@ -1140,21 +1255,21 @@ public class AstBuilder {
 			List<SubscriptSliceListElem> values = ctx.subscript().stream()
 					.map(e -> (SubscriptSliceListElem) e.accept(this))
 					.collect(Collectors.toList());
-			return new SubscriptSliceList(this.getLocInfo(ctx), values);
+			return new SubscriptSliceList(this.getLines(ctx), values);
 		}
 
 		@Override
 		public AstNode visitSubscript(PythonParser.SubscriptContext ctx) {
-			//      index=test | lowerBound=test? ':' upperBound=test? stride=sliceop?
-			if (ctx.index != null) {
-				Expr index = (Expr) ctx.index.accept(this);
-				return new SubscriptIndex(this.getLocInfo(ctx), index);
+			//      '.' '.' '.' | test ( ':' test? sliceop? )? | ':' test? sliceop?
+			if (ctx.colon == null && ctx.lowerBound != null) {
+				Expr index = (Expr) ctx.lowerBound.accept(this);
+				return new SubscriptIndex(this.getLines(ctx), index);
 			}
 
 			Expr lowerBound = ctx.lowerBound == null ? null : (Expr) ctx.lowerBound.accept(this);
 			Expr upperBound = ctx.upperBound == null ? null : (Expr) ctx.upperBound.accept(this);
 			Expr stride = ctx.stride == null ? null : (Expr) ctx.stride.accept(this);
-			return new SliceBound(this.getLocInfo(ctx), lowerBound, upperBound, stride);
+			return new SliceBound(this.getLines(ctx), lowerBound, upperBound, stride);
 		}
 
 		@Override
@@ -1169,7 +1284,7 @@ public class AstBuilder {
 			List<Expr> expressions = ctx.star_expr().stream()
 					.map(e -> (Expr) e.accept(this))
 					.collect(Collectors.toList());
-			return new ExprList(this.getLocInfo(ctx), expressions);
+			return new ExprList(this.getLines(ctx), expressions);
 		}
 
 		@Override
@@ -1178,7 +1293,7 @@ public class AstBuilder {
 			List<Expr> expressions = ctx.test().stream()
 					.map(e -> (Expr) e.accept(this))
 					.collect(Collectors.toList());
-			return new ExprList(this.getLocInfo(ctx), expressions);
+			return new ExprList(this.getLines(ctx), expressions);
 		}
 
 		@Override
@@ -1187,12 +1302,12 @@ public class AstBuilder {
 			//		| setVar=test ( comp_for | ( ',' setVal=test )* ','? )
 			if (ctx.setVar != null) {
 				if (ctx.comp_for() != null) {
-					return new SetMaker(this.getLocInfo(ctx), (CompFor) ctx.comp_for().accept(this));
+					return new SetMaker(this.getLines(ctx), (CompFor) ctx.comp_for().accept(this));
 				}
 				List<Expr> values = ctx.setValues.stream()
 						.map(e -> (Expr) e.accept(this))
 						.collect(Collectors.toList());
-				return new SetMaker(this.getLocInfo(ctx), values);
+				return new SetMaker(this.getLines(ctx), values);
 			}
 
 			List<Expr> keys = new ArrayList<>();
@@ -1206,7 +1321,7 @@ public class AstBuilder {
 				}
 			}
 			CompFor compFor = ctx.comp_for() == null ? null : (CompFor) ctx.comp_for().accept(this);
-			return new DictMaker(this.getLocInfo(ctx), compFor, keys, values);
+			return new DictMaker(this.getLines(ctx), compFor, keys, values);
 		}
 
 		@Override
@@ -1216,9 +1331,9 @@ public class AstBuilder {
 			Suite suite = (Suite) ctx.suite().accept(this);
 			if (ctx.arglist() != null) {
 				ArgList argList = (ArgList) ctx.arglist().accept(this);
-				return new ClassDef(this.getLocInfo(ctx), id, suite, argList.getArguments());
+				return new ClassDef(this.getLines(ctx), id, suite, argList.getArguments());
 			}
-			return new ClassDef(this.getLocInfo(ctx), id, suite, Collections.emptyList());
+			return new ClassDef(this.getLines(ctx), id, suite, Collections.emptyList());
 		}
 
 		@Override
@@ -1227,32 +1342,32 @@ public class AstBuilder {
 			List<Argument> arguments = ctx.argument().stream()
 					.map(e -> (Argument) e.accept(this))
 					.collect(Collectors.toList());
-			return new ArgList(this.getLocInfo(ctx), arguments);
+			return new ArgList(this.getLines(ctx), arguments);
 		}
 
 		@Override
 		public AstNode visitArgument(PythonParser.ArgumentContext ctx) {
-			//      test comp_for? | test '=' test | '**' test | '*' test
-			if (ctx.argName != null) {
-				Expr value = (Expr) ctx.value.accept(this);
-				Identifier id = (Identifier) ctx.argName.accept(this);
-				return new DefValArgument(this.getLocInfo(ctx), value, id);
-			}
+			//      test ( comp_for | '=' test )? | '**' test | '*' test
 			if (ctx.value != null) {
 				Expr value = (Expr) ctx.value.accept(this);
+				Identifier id = (Identifier) ctx.first.accept(this);
+				return new DefValArgument(this.getLines(ctx), value, id);
+			}
+			if (ctx.first != null) {
+				Expr value = (Expr) ctx.first.accept(this);
 				if (ctx.condition != null) {
 					CompFor condition = (CompFor) ctx.condition.accept(this);
-					return new CondArgument(this.getLocInfo(ctx), value, condition);
+					return new CondArgument(this.getLines(ctx), value, condition);
 				}
-				return new SimpleArgument(this.getLocInfo(ctx), value);
+				return new SimpleArgument(this.getLines(ctx), value);
 			}
 			if (ctx.arg != null) {
 				Expr value = (Expr) ctx.arg.accept(this);
-				return new Arg(this.getLocInfo(ctx), value);
+				return new Arg(this.getLines(ctx), value);
 			}
 			if (ctx.kwarg != null) {
 				Expr value = (Expr) ctx.kwarg.accept(this);
-				return new Kwarg(this.getLocInfo(ctx), value);
+				return new Kwarg(this.getLines(ctx), value);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -1278,7 +1393,7 @@ public class AstBuilder {
 			List<Expr> source = ctx.test_nocond().stream()
 					.map(s -> (Expr) s.accept(this))
 					.collect(Collectors.toList());
-			return new CompFor(this.getLocInfo(ctx), iter, targets, source);
+			return new CompFor(this.getLines(ctx), iter, targets, source);
 		}
 
 		@Override
@@ -1288,7 +1403,7 @@ public class AstBuilder {
 
 			if (ctx.test_nocond() != null) {
 				Expr expr = (Expr) ctx.test_nocond().accept(this);
-				return new CompIf(this.getLocInfo(ctx), iter, expr);
+				return new CompIf(this.getLines(ctx), iter, expr);
 			}
 
 			throw new IllegalArgumentException("Unknown context");
@@ -1300,7 +1415,7 @@ public class AstBuilder {
 			if (ctx.yield_arg() != null) {
 				return ctx.yield_arg().accept(this);
 			}
-			return new YieldValues(this.getLocInfo(ctx));
+			return new YieldValues(this.getLines(ctx));
 		}
 
 		@Override
@@ -1308,11 +1423,11 @@ public class AstBuilder {
 			//      FROM test | testlist
 			if (ctx.test() != null) {
 				Expr from = (Expr) ctx.test().accept(this);
-				return new YieldFrom(this.getLocInfo(ctx), from);
+				return new YieldFrom(this.getLines(ctx), from);
 			}
 			if (ctx.testlist() != null) {
 				ExprList list = (ExprList) ctx.testlist().accept(this);
-				return new YieldValues(this.getLocInfo(ctx), list);
+				return new YieldValues(this.getLines(ctx), list);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -1337,16 +1452,16 @@ public class AstBuilder {
 			}
 			if (ctx.FLOAT_NUMBER() != null) {
 				Double nr = Double.parseDouble(ctx.FLOAT_NUMBER().getText());
-				return new Float(this.getLocInfo(ctx), nr);
+				return new Float(this.getLines(ctx), nr);
 			}
 			if (ctx.IMAG_NUMBER() != null) {
 				String s = ctx.IMAG_NUMBER().getText();
 				s = s.substring(0, s.length() - 1);
-				return new Imaginary(this.getLocInfo(ctx), Double.parseDouble(s));
+				return new Imaginary(this.getLines(ctx), Double.parseDouble(s));
 			}
 			if (ctx.LONG() != null) {
 				String value = ctx.LONG().getText();
-				return new Long(this.getLocInfo(ctx), value);
+				return new Long(this.getLines(ctx), value);
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -1356,25 +1471,25 @@ public class AstBuilder {
 			//      DECIMAL_INTEGER | OCT_INTEGER | HEX_INTEGER | BIN_INTEGER
 			if (ctx.DECIMAL_INTEGER() != null) {
 				BigInteger bi = new BigInteger(ctx.DECIMAL_INTEGER().getText());
-				return new Int(this.getLocInfo(ctx), bi);
+				return new Int(this.getLines(ctx), bi);
 			}
 			else if (ctx.OCT_INTEGER() != null) {
 				//strip out the "0O" prefix
 				String s = ctx.OCT_INTEGER().getText();
 				s = s.substring(2);
-				return new Int(this.getLocInfo(ctx), new BigInteger(s, 8));
+				return new Int(this.getLines(ctx), new BigInteger(s, 8));
 			}
 			else if (ctx.HEX_INTEGER() != null) {
 				//strip out the "0X" prefix
 				String s = ctx.HEX_INTEGER().getText();
 				s = s.substring(2);
-				return new Int(this.getLocInfo(ctx), new BigInteger(s, 16));
+				return new Int(this.getLines(ctx), new BigInteger(s, 16));
 			}
 			else if (ctx.BIN_INTEGER() != null) {
 				//strip out the "0B" prefix
 				String s = ctx.BIN_INTEGER().getText();
 				s = s.substring(2);
-				return new Int(this.getLocInfo(ctx), new BigInteger(s, 2));
+				return new Int(this.getLines(ctx), new BigInteger(s, 2));
 			}
 			throw new IllegalArgumentException("Unknown context");
 		}
@@ -1399,15 +1514,15 @@ public class AstBuilder {
 			return null;
 		}
 
-		private Integer getLocInfo(TerminalNode node) {
-			Integer lineNr = node.getSymbol().getLine();
-			return this.locCounter.count(lineNr, lineNr);
+		private LineSpan getLines(TerminalNode node) {
+			int lineNr = node.getSymbol().getLine();
+			return new LineSpan(lineNr, lineNr);
 		}
 
-		private Integer getLocInfo(ParserRuleContext ctx) {
-			Integer startLine = ctx.getStart().getLine(); 
-			Integer stopLine = ctx.getStop() == null ? startLine : ctx.getStop().getLine();
-			return this.locCounter.count(startLine, stopLine);
+		private LineSpan getLines(ParserRuleContext ctx) {
+			int startLine = ctx.getStart().getLine();
+			int stopLine = ctx.getStop() == null ? startLine : ctx.getStop().getLine();
+			return new LineSpan(startLine, stopLine);
 		}
 
 		private void setParamDefaultValue(Param simpleParam, Expr defaultVal) {
@@ -1430,8 +1545,8 @@ public class AstBuilder {
 		private class Wrapper<T> extends AstNode {
 			private final T item;
 
-			public Wrapper(Integer locInfo, T item) {
-				super(locInfo);
+			public Wrapper(LineSpan lines, T item) {
+				super(lines);
 				this.item = item;
 			}
 
@@ -1448,13 +1563,13 @@ public class AstBuilder {
 		private class CollectionWrapper<T> extends AstNode {
 			private final List<T> items;
 
-			public CollectionWrapper(Integer locInfo, List<T> items) {
-				super(locInfo);
+			public CollectionWrapper(LineSpan lines, List<T> items) {
+				super(lines);
 				this.items = items;
 			}
 
-			public CollectionWrapper(Integer locInfo, T item) {
-				super(locInfo);
+			public CollectionWrapper(LineSpan lines, T item) {
+				super(lines);
 				this.items = new ArrayList<>();
 				this.items.add(item);
 			}
@@ -5,19 +5,31 @@ package ast;
  */
 public abstract class AstNode {
 
-    protected final Integer locInfo;
+	private final int startLine;
+	private final int endLine;
 
-    public AstNode( Integer locInfo) {
-        this.locInfo = locInfo;
-    }
+	public AstNode(LineSpan lines) {
+		this.startLine = lines.getStartLine();
+		this.endLine = lines.getEndLine();
+	}
 
-	public Integer getLocInfo() {
-		return this.locInfo;
+	/**
+	 * @return one based number of the first line of the node
+	 */
+	public int getStartLine() {
+		return this.startLine;
 	}
 
-	public abstract <T> T accept(Visitor<T> visitor);
+	/**
+	 * @return one based number of the last line of the node
+	 */
+	public int getEndLine() {
+		return this.endLine;
+	}
 
-    public Integer getLocSpan() {
-        return this.locInfo;
-    }
+	public LineSpan getLineSpan() {
+		return new LineSpan(this.startLine, this.endLine);
+	}
+
+	public abstract <T> T accept(Visitor<T> visitor);
 }
@@ -11,8 +11,8 @@ public class Decorator extends AstNode {
 	private final DottedPath name;
 	private final ArgList argList;
 
-	public Decorator( Integer locInfo,  DottedPath name, ArgList argList) {
-		super(locInfo);
+	public Decorator( LineSpan lines,  DottedPath name, ArgList argList) {
+		super(lines);
 		this.name = name;
 		this.argList = argList;
 	}
@@ -0,0 +1,1172 @@
+package ast;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.argument.Arg;
+import ast.argument.CondArgument;
+import ast.argument.DefValArgument;
+import ast.argument.Kwarg;
+import ast.argument.SimpleArgument;
+import ast.expression.Conditional;
+import ast.expression.ExprList;
+import ast.expression.Lambda;
+import ast.expression.compiter.CompFor;
+import ast.expression.compiter.CompIf;
+import ast.expression.nocond.LambdaNoCond;
+import ast.expression.nocond.arithmetic.Nnary;
+import ast.expression.nocond.arithmetic.Power;
+import ast.expression.nocond.arithmetic.Unary;
+import ast.expression.nocond.atom.Atom;
+import ast.expression.nocond.atom.Bool;
+import ast.expression.nocond.atom.Ellipsis;
+import ast.expression.nocond.atom.Identifier;
+import ast.expression.nocond.atom.None;
+import ast.expression.nocond.atom.Str;
+import ast.expression.nocond.atom.StrConversion;
+import ast.expression.nocond.atom.comprehension.CondComprehension;
+import ast.expression.nocond.atom.comprehension.EnumComprehension;
+import ast.expression.nocond.atom.maker.DictMaker;
+import ast.expression.nocond.atom.maker.SetMaker;
+import ast.expression.nocond.atom.numeric.Float;
+import ast.expression.nocond.atom.numeric.Imaginary;
+import ast.expression.nocond.atom.numeric.Int;
+import ast.expression.nocond.atom.numeric.Long;
+import ast.expression.nocond.atom.trailed.AttributeRef;
+import ast.expression.nocond.atom.trailed.Call;
+import ast.expression.nocond.atom.trailed.ObjectMethodCall;
+import ast.expression.nocond.atom.trailed.Slice;
+import ast.expression.nocond.atom.yield.YieldFrom;
+import ast.expression.nocond.atom.yield.YieldValues;
+import ast.expression.nocond.bitwise.And;
+import ast.expression.nocond.bitwise.Or;
+import ast.expression.nocond.bitwise.Shift;
+import ast.expression.nocond.bitwise.Xor;
+import ast.expression.nocond.logical.Binary;
+import ast.expression.nocond.logical.Comparison;
+import ast.expression.nocond.logical.Not;
+import ast.expression.nocond.trailer.ArgList;
+import ast.expression.nocond.trailer.FieldAccess;
+import ast.expression.nocond.trailer.FieldAccessList;
+import ast.expression.nocond.trailer.SliceBound;
+import ast.expression.nocond.trailer.SubscriptIndex;
+import ast.expression.nocond.trailer.SubscriptSliceList;
+import ast.param.ListParam;
+import ast.param.Param;
+import ast.param.Params;
+import ast.param.TypedParam;
+import ast.param.UntypedParam;
+import ast.path.DottedPath;
+import ast.path.Path;
+import ast.path.SimplePath;
+import ast.statement.MethodCallStmt;
+import ast.statement.Statement;
+import ast.statement.compound.ClassDef;
+import ast.statement.compound.Except;
+import ast.statement.compound.For;
+import ast.statement.compound.Function;
+import ast.statement.compound.If;
+import ast.statement.compound.Try;
+import ast.statement.compound.While;
+import ast.statement.compound.With;
+import ast.statement.compound.WithItem;
+import ast.statement.flow.Break;
+import ast.statement.flow.Continue;
+import ast.statement.flow.RaiseEx;
+import ast.statement.flow.RaiseFrom;
+import ast.statement.flow.Return;
+import ast.statement.flow.Yield;
+import ast.statement.simple.Assert;
+import ast.statement.simple.Assign;
+import ast.statement.simple.Delete;
+import ast.statement.simple.Exec;
+import ast.statement.simple.Global;
+import ast.statement.simple.ImportFrom;
+import ast.statement.simple.ImportPaths;
+import ast.statement.simple.Nonlocal;
+import ast.statement.simple.Pass;
+import ast.statement.simple.Print;
+import ast.statement.simple.SuperStmt;
+
+/**
+ * Compact encoding of the AST of a module. The nodes are written in pre-order to an int array, each as its kind, its
+ * line span and its fields: child nodes, list lengths, numbers, and indices into a table of the distinct identifiers
+ * and literals of the module. A module that is kept for later takes a fraction of the memory of its nodes.
+ *
+ * Every node kind has its own encoding (see {@link Encoder}) and decoding (see {@link Decoder#decode(Kind, LineSpan)}),
+ * which goes through the constructors of the node classes. The flat module stands in for the module it encodes: a
+ * visit inflates the whole module once, so its nodes are only alive during the visit and stay the same objects
+ * throughout it.
+ *
+ * The encoding can be written to and read from a stream (see {@link #write(DataOutput)}), which is how the AST cache
+ * stores modules.
+ */
+public class FlatModule extends Module {
+
+	/**
+	 * Version of the stream format, increase when the encoding of a node kind or the order of the kinds changes.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	private static final int NULL = -1;
+	/**
+	 * Marks a node that is the child of more than one node, followed by the number of its first occurrence
+	 */
+	private static final int SHARED = -2;
+
+	private static final Kind[] KINDS = Kind.values();
+
+	private final int[] data;
+	private final String[] strings;
+	/**
+	 * Amount of encoded nodes, which are numbered in pre-order
+	 */
+	private final int nodeCount;
+	private final boolean shared;
+
+	private FlatModule(Module module, int[] data, String[] strings, int nodeCount, boolean shared) {
+		this(module.getFilePath(), module.getCodeLines(), module.getErrors(), data, strings, nodeCount, shared);
+	}
+
+	private FlatModule(String filePath, int[] codeLines, List<String> errors, int[] data, String[] strings, int nodeCount,
+			boolean shared) {
+		super(filePath, codeLines, Collections.emptyList(), errors);
+		this.data = data;
+		this.strings = strings;
+		this.nodeCount = nodeCount;
+		this.shared = shared;
+	}
+
+	/**
+	 * @param module the module
+	 * @return the encoding of the module
+	 * @throws IllegalArgumentException when the module has a node of a kind the AST builder doesn't produce
+	 */
+	public static FlatModule encode(Module module) {
+		Encoder encoder = new Encoder();
+		encoder.nodes(module.getBody());
+		return new FlatModule(module, encoder.data.toArray(), encoder.strings.toArray(new String[0]),
+				encoder.numbers.size(), encoder.shared);
+	}
+
+	/**
+	 * Writes the format version, the line counts and the encoding. The errors of the module are not written.
+	 * @param out the stream
+	 * @throws IOException when writing fails
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(FORMAT_VERSION);
+		FlatModule.writeInts(out, this.getCodeLines());
+		out.writeInt(this.nodeCount);
+		out.writeBoolean(this.shared);
+		out.writeInt(this.strings.length);
+		for (String string : this.strings) {
+			out.writeInt(string.length());
+			out.writeChars(string);
+		}
+		FlatModule.writeInts(out, this.data);
+	}
+
+	/**
+	 * @param in a stream written by {@link #write(DataOutput)}
+	 * @param filePath path of the module
+	 * @return the flat module, without errors
+	 * @throws IOException when reading fails or the stream has another format version
+	 */
+	public static FlatModule read(DataInput in, String filePath) throws IOException {
+		int version = in.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported format version " + version);
+		}
+		int[] codeLines = FlatModule.readInts(in);
+		int nodeCount = in.readInt();
+		boolean shared = in.readBoolean();
+		String[] strings = new String[in.readInt()];
+		for (int i = 0; i < strings.length; i++) {
+			char[] chars = new char[in.readInt()];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = in.readChar();
+			}
+			strings[i] = new String(chars);
+		}
+		return new FlatModule(filePath, codeLines, Collections.emptyList(), FlatModule.readInts(in), strings, nodeCount,
+				shared);
+	}
+
+	private static void writeInts(DataOutput out, int[] ints) throws IOException {
+		out.writeInt(ints.length);
+		for (int i : ints) {
+			out.writeInt(i);
+		}
+	}
+
+	private static int[] readInts(DataInput in) throws IOException {
+		int[] ints = new int[in.readInt()];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = in.readInt();
+		}
+		return ints;
+	}
+
+	/**
+	 * @return the module with all its nodes, created anew on every call
+	 */
+	public Module inflate() {
+		List<Statement> body = new Decoder().nodes();
+		return new Module(this.getFilePath(), this.getCodeLines(), body, this.getErrors());
+	}
+
+	/**
+	 * @return the statements of a newly inflated module, see {@link #inflate()}
+	 */
+	@Override
+	public List<Statement> getBody() {
+		return this.inflate().getBody();
+	}
+
+	/**
+	 * Lets the visitor visit a newly inflated module, see {@link #inflate()}.
+	 */
+	@Override
+	public <T> T accept(Visitor<T> visitor) {
+		return this.inflate().accept(visitor);
+	}
+
+	/**
+	 * @return amount of encoded nodes, the module itself excluded
+	 */
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+
+	/**
+	 * The node kinds, their order is part of the encoding.
+	 */
+	private enum Kind {
+		DECORATOR, SUITE,
+		ARG, COND_ARGUMENT, DEF_VAL_ARGUMENT, KWARG, SIMPLE_ARGUMENT,
+		LIST_PARAM, PARAMS, TYPED_PARAM, UNTYPED_PARAM,
+		DOTTED_PATH, SIMPLE_PATH,
+		ASSERT, ASSIGN, DELETE, EXEC, GLOBAL, IMPORT_FROM, IMPORT_PATHS, NONLOCAL, PASS, PRINT,
+		BREAK, CONTINUE, RAISE_EX, RAISE_FROM, RETURN, YIELD,
+		CLASS_DEF, EXCEPT, FOR, FUNCTION, IF, TRY, WHILE, WITH, WITH_ITEM,
+		CONDITIONAL, EXPR_LIST, LAMBDA, COMP_FOR, COMP_IF, LAMBDA_NO_COND,
+		NNARY, UNARY, POWER,
+		BOOL, ELLIPSIS, IDENTIFIER, NONE, STR, STR_CONVERSION,
+		COND_COMPREHENSION, ENUM_COMPREHENSION, DICT_MAKER, SET_MAKER,
+		FLOAT, IMAGINARY, INT, LONG,
+		ATTRIBUTE_REF, CALL, OBJECT_METHOD_CALL, SLICE,
+		YIELD_VALUES, YIELD_FROM,
+		AND, OR, SHIFT, XOR,
+		BINARY, COMPARISON, NOT,
+		ARG_LIST, SLICE_BOUND, SUBSCRIPT_INDEX, SUBSCRIPT_SLICE_LIST
+	}
+
+	/**
+	 * Reads the nodes back in the order in which the {@link Encoder} wrote them.
+	 */
+	private class Decoder {
+
+		private final AstNode[] nodes = FlatModule.this.shared ? new AstNode[FlatModule.this.nodeCount] : null;
+		private int position;
+		private int count;
+
+		private int next() {
+			return FlatModule.this.data[this.position++];
+		}
+
+		@SuppressWarnings("unchecked")
+		private <N extends AstNode> N node() {
+			int kind = this.next();
+			if (kind == NULL) {
+				return null;
+			}
+			if (kind == SHARED) {
+				return (N) this.nodes[this.next()];
+			}
+			int number = this.count++;
+			int startLine = this.next();
+			AstNode n = this.decode(KINDS[kind], new LineSpan(startLine, this.next()));
+			if (this.nodes != null) {
+				this.nodes[number] = n;
+			}
+			return (N) n;
+		}
+
+		private <N extends AstNode> List<N> nodes() {
+			int size = this.next();
+			if (size == NULL) {
+				return null;
+			}
+			List<N> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(this.node());
+			}
+			return list;
+		}
+
+		private String string() {
+			int index = this.next();
+			return index == NULL ? null : FlatModule.this.strings[index];
+		}
+
+		private List<String> strings() {
+			int size = this.next();
+			if (size == NULL) {
+				return null;
+			}
+			List<String> list = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(this.string());
+			}
+			return list;
+		}
+
+		private Boolean bool() {
+			int value = this.next();
+			return value == NULL ? null : value == 1;
+		}
+
+		private Double number() {
+			String value = this.string();
+			return value == null ? null : Double.valueOf(value);
+		}
+
+		private <P extends Param> P param(P param) {
+			param.setDefaultVal(this.node());
+			return param;
+		}
+
+		private <P extends Path> P path(P path) {
+			path.setAlias(this.node());
+			return path;
+		}
+
+		private AstNode decode(Kind kind, LineSpan lines) {
+			switch (kind) {
+				case DECORATOR:
+					return new Decorator(lines, this.node(), this.node());
+				case SUITE:
+					return new Suite(lines, this.nodes());
+
+				case ARG:
+					return new Arg(lines, this.node());
+				case COND_ARGUMENT:
+					return new CondArgument(lines, this.node(), this.node());
+				case DEF_VAL_ARGUMENT:
+					return new DefValArgument(lines, this.node(), this.node());
+				case KWARG:
+					return new Kwarg(lines, this.node());
+				case SIMPLE_ARGUMENT:
+					return new SimpleArgument(lines, this.node());
+
+				case LIST_PARAM:
+					return this.param(new ListParam(lines, this.nodes()));
+				case PARAMS:
+					return new Params(lines, this.nodes(), this.node(), this.node());
+				case TYPED_PARAM:
+					return this.param(new TypedParam(lines, this.node(), this.node()));
+				case UNTYPED_PARAM:
+					return this.param(new UntypedParam(lines, this.node()));
+
+				case DOTTED_PATH:
+					return this.path(new DottedPath(lines, this.strings()));
+				case SIMPLE_PATH:
+					return this.path(new SimplePath(lines, this.string()));
+
+				case ASSERT:
+					return new Assert(lines, this.node(), this.node());
+				case ASSIGN:
+					return new Assign(lines, this.string(), this.nodes(), this.nodes());
+				case DELETE:
+					return new Delete(lines, this.node());
+				case EXEC:
+					return new Exec(lines, this.node(), this.node(), this.node());
+				case GLOBAL:
+					return new Global(lines, this.nodes());
+				case IMPORT_FROM:
+					return new ImportFrom(lines, this.nodes(), this.node());
+				case IMPORT_PATHS:
+					return new ImportPaths(lines, this.nodes());
+				case NONLOCAL:
+					return new Nonlocal(lines, this.nodes());
+				case PASS:
+					return new Pass(lines);
+				case PRINT:
+					return new Print(lines, this.nodes());
+
+				case BREAK:
+					return new Break(lines);
+				case CONTINUE:
+					return new Continue(lines);
+				case RAISE_EX:
+					return new RaiseEx(lines, this.node(), this.node(), this.node());
+				case RAISE_FROM:
+					return new RaiseFrom(lines, this.node(), this.node());
+				case RETURN:
+					return new Return(lines, this.node());
+				case YIELD:
+					return new Yield(lines, this.node());
+
+				case CLASS_DEF:
+					ClassDef classDef = new ClassDef(lines, this.node(), this.node(), this.nodes());
+					classDef.setDecorators(this.nodes());
+					return classDef;
+				case EXCEPT:
+					return new Except(lines, this.node(), this.node());
+				case FOR:
+					For forStmt = new For(lines, this.node(), this.node(), this.node(), this.node());
+					if (this.bool()) {
+						forStmt.markAsAsync();
+					}
+					return forStmt;
+				case FUNCTION:
+					Function function = new Function(lines, this.node(), this.node(), this.node(), this.node(), this.next());
+					function.setDecorators(this.nodes());
+					if (this.bool()) {
+						function.markAsAsync();
+					}
+					return function;
+				case IF:
+					return new If(lines, this.nodes(), this.nodes(), this.node());
+				case TRY:
+					return new Try(lines, this.node(), this.nodes(), this.nodes(), this.node(), this.node());
+				case WHILE:
+					return new While(lines, this.node(), this.node(), this.node());
+				case WITH:
+					With with = new With(lines, this.nodes(), this.node());
+					if (this.bool()) {
+						with.markAsAsync();
+					}
+					return with;
+				case WITH_ITEM:
+					return new WithItem(lines, this.node(), this.node());
+
+				case CONDITIONAL:
+					return new Conditional(lines, this.node(), this.node(), this.node());
+				case EXPR_LIST:
+					return new ExprList(lines, this.nodes());
+				case LAMBDA:
+					return new Lambda(lines, this.node(), this.node());
+				case COMP_FOR:
+					return new CompFor(lines, this.node(), this.node(), this.nodes());
+				case COMP_IF:
+					return new CompIf(lines, this.node(), this.node());
+				case LAMBDA_NO_COND:
+					return new LambdaNoCond(lines, this.node(), this.node());
+
+				case NNARY:
+					return new Nnary(lines, this.nodes(), this.strings());
+				case UNARY:
+					return new Unary(lines, this.node(), this.string());
+				case POWER:
+					return new Power(lines, this.node(), this.node());
+
+				case BOOL:
+					return new Bool(lines, this.bool());
+				case ELLIPSIS:
+					return new Ellipsis(lines);
+				case IDENTIFIER:
+					return new Identifier(lines, this.string());
+				case NONE:
+					return new None(lines);
+				case STR:
+					return new Str(lines, this.string());
+				case STR_CONVERSION:
+					return new StrConversion(lines, this.node());
+
+				case COND_COMPREHENSION:
+					return new CondComprehension(lines, this.node(), this.node());
+				case ENUM_COMPREHENSION:
+					return new EnumComprehension(lines, this.nodes());
+				case DICT_MAKER:
+					return new DictMaker(lines, this.node(), this.nodes(), this.nodes());
+				case SET_MAKER:
+					CompFor comprehension = this.node();
+					return comprehension != null ? new SetMaker(lines, comprehension) : new SetMaker(lines, this.nodes());
+
+				case FLOAT:
+					return new Float(lines, this.number());
+				case IMAGINARY:
+					return new Imaginary(lines, this.number());
+				case INT:
+					String value = this.string();
+					return new Int(lines, value == null ? null : new BigInteger(value));
+				case LONG:
+					return new Long(lines, this.string());
+
+				case ATTRIBUTE_REF:
+					//the atom overload, an attribute ref as base is not merged into this one
+					Atom base = this.node();
+					List<Identifier> attributes = this.nodes();
+					AttributeRef attributeRef = new AttributeRef(lines, base, attributes.get(0));
+					attributeRef.getAttributes().addAll(attributes.subList(1, attributes.size()));
+					return attributeRef;
+				case CALL:
+					return new Call(lines, this.node(), this.node());
+				case OBJECT_METHOD_CALL:
+					return new ObjectMethodCall(lines, this.node(), this.node());
+				case SLICE:
+					return new Slice(lines, this.node(), this.node());
+
+				case YIELD_VALUES:
+					return new YieldValues(lines, this.node());
+				case YIELD_FROM:
+					return new YieldFrom(lines, this.node());
+
+				case AND:
+					return new And(lines, this.nodes());
+				case OR:
+					return new Or(lines, this.nodes());
+				case SHIFT:
+					return new Shift(lines, this.nodes(), this.strings());
+				case XOR:
+					return new Xor(lines, this.nodes());
+
+				case BINARY:
+					return new Binary(lines, this.nodes(), this.string());
+				case COMPARISON:
+					return new Comparison(lines, this.nodes(), this.strings());
+				case NOT:
+					return new Not(lines, this.node());
+
+				case ARG_LIST:
+					return new ArgList(lines, this.nodes());
+				case SLICE_BOUND:
+					return new SliceBound(lines, this.node(), this.node(), this.node());
+				case SUBSCRIPT_INDEX:
+					return new SubscriptIndex(lines, this.node());
+				case SUBSCRIPT_SLICE_LIST:
+					return new SubscriptSliceList(lines, this.nodes());
+
+				default:
+					throw new IllegalStateException("Cannot decode " + kind + " in " + FlatModule.this.getFilePath());
+			}
+		}
+	}
+
+	/**
+	 * Writes every node as its kind, its lines and its fields in the order of the constructor arguments, followed by
+	 * the values that are set after construction.
+	 */
+	private static class Encoder implements Visitor<Void> {
+
+		private final Ints data = new Ints();
+		private final List<String> strings = new ArrayList<>();
+		private final Map<String, Integer> stringIndices = new HashMap<>();
+		private final Map<AstNode, Integer> numbers = new IdentityHashMap<>();
+		private boolean shared;
+
+		private void node(AstNode n) {
+			if (n == null) {
+				this.data.add(NULL);
+				return;
+			}
+			Integer number = this.numbers.get(n);
+			if (number != null) {
+				this.shared = true;
+				this.data.add(SHARED);
+				this.data.add(number);
+				return;
+			}
+			this.numbers.put(n, this.numbers.size());
+			n.accept(this);
+		}
+
+		private void nodes(List<? extends AstNode> list) {
+			if (list == null) {
+				this.data.add(NULL);
+				return;
+			}
+			this.data.add(list.size());
+			list.forEach(this::node);
+		}
+
+		private void string(Object value) {
+			if (value == null) {
+				this.data.add(NULL);
+				return;
+			}
+			this.data.add(this.stringIndices.computeIfAbsent(value.toString(), s -> {
+				this.strings.add(s);
+				return this.strings.size() - 1;
+			}));
+		}
+
+		private void strings(List<String> list) {
+			if (list == null) {
+				this.data.add(NULL);
+				return;
+			}
+			this.data.add(list.size());
+			list.forEach(this::string);
+		}
+
+		private void bool(Boolean value) {
+			this.data.add(value == null ? NULL : value ? 1 : 0);
+		}
+
+		private Void start(Kind kind, AstNode n, AstNode... children) {
+			this.data.add(kind.ordinal());
+			this.data.add(n.getStartLine());
+			this.data.add(n.getEndLine());
+			for (AstNode child : children) {
+				this.node(child);
+			}
+			return null;
+		}
+
+		private Void notEncoded(AstNode n) {
+			throw new IllegalArgumentException("Cannot encode " + n.getClass().getName());
+		}
+
+		@Override
+		public Void visit(Decorator n) {
+			return this.start(Kind.DECORATOR, n, n.getName(), n.getArgList());
+		}
+
+		@Override
+		public Void visit(Module n) {
+			return this.notEncoded(n);
+		}
+
+		@Override
+		public Void visit(Suite n) {
+			this.start(Kind.SUITE, n);
+			this.nodes(n.getStatements());
+			return null;
+		}
+
+		@Override
+		public Void visit(Arg n) {
+			return this.start(Kind.ARG, n, n.getValue());
+		}
+
+		@Override
+		public Void visit(CondArgument n) {
+			return this.start(Kind.COND_ARGUMENT, n, n.getValue(), n.getCondition());
+		}
+
+		@Override
+		public Void visit(DefValArgument n) {
+			return this.start(Kind.DEF_VAL_ARGUMENT, n, n.getValue(), n.getName());
+		}
+
+		@Override
+		public Void visit(Kwarg n) {
+			return this.start(Kind.KWARG, n, n.getValue());
+		}
+
+		@Override
+		public Void visit(SimpleArgument n) {
+			return this.start(Kind.SIMPLE_ARGUMENT, n, n.getValue());
+		}
+
+		@Override
+		public Void visit(ListParam n) {
+			this.start(Kind.LIST_PARAM, n);
+			this.nodes(n.getParams());
+			this.node(n.getDefaultVal());
+			return null;
+		}
+
+		@Override
+		public Void visit(Params n) {
+			this.start(Kind.PARAMS, n);
+			this.nodes(n.getRegular());
+			this.node(n.getPositional());
+			this.node(n.getKeyword());
+			return null;
+		}
+
+		@Override
+		public Void visit(TypedParam n) {
+			return this.start(Kind.TYPED_PARAM, n, n.getId(), n.getReturnVal(), n.getDefaultVal());
+		}
+
+		@Override
+		public Void visit(UntypedParam n) {
+			return this.start(Kind.UNTYPED_PARAM, n, n.getId(), n.getDefaultVal());
+		}
+
+		@Override
+		public Void visit(DottedPath n) {
+			this.start(Kind.DOTTED_PATH, n);
+			this.strings(n.getNames());
+			this.node(n.getAlias());
+			return null;
+		}
+
+		@Override
+		public Void visit(SimplePath n) {
+			this.start(Kind.SIMPLE_PATH, n);
+			this.string(n.getPath());
+			this.node(n.getAlias());
+			return null;
+		}
+
+		@Override
+		public Void visit(MethodCallStmt n) {
+			return this.notEncoded(n);
+		}
+
+		@Override
+		public Void visit(Assert n) {
+			return this.start(Kind.ASSERT, n, n.getAssertion(), n.getAssertionError());
+		}
+
+		@Override
+		public Void visit(Assign n) {
+			this.start(Kind.ASSIGN, n);
+			this.string(n.getOperator());
+			this.nodes(n.getExprElements());
+			this.nodes(n.getYieldElements());
+			return null;
+		}
+
+		@Override
+		public Void visit(Delete n) {
+			return this.start(Kind.DELETE, n, n.getItems());
+		}
+
+		@Override
+		public Void visit(Exec n) {
+			return this.start(Kind.EXEC, n, n.getTarget(), n.getVars(), n.getLocalVars());
+		}
+
+		@Override
+		public Void visit(Global n) {
+			this.start(Kind.GLOBAL, n);
+			this.nodes(n.getIdentifiers());
+			return null;
+		}
+
+		@Override
+		public Void visit(ImportFrom n) {
+			this.start(Kind.IMPORT_FROM, n);
+			this.nodes(n.getPaths());
+			this.node(n.getModule());
+			return null;
+		}
+
+		@Override
+		public Void visit(ImportPaths n) {
+			this.start(Kind.IMPORT_PATHS, n);
+			this.nodes(n.getPaths());
+			return null;
+		}
+
+		@Override
+		public Void visit(Nonlocal n) {
+			this.start(Kind.NONLOCAL, n);
+			this.nodes(n.getIdentifiers());
+			return null;
+		}
+
+		@Override
+		public Void visit(Pass n) {
+			return this.start(Kind.PASS, n);
+		}
+
+		@Override
+		public Void visit(Print n) {
+			this.start(Kind.PRINT, n);
+			this.nodes(n.getExpressions());
+			return null;
+		}
+
+		@Override
+		public Void visit(SuperStmt n) {
+			return this.notEncoded(n);
+		}
+
+		@Override
+		public Void visit(Break n) {
+			return this.start(Kind.BREAK, n);
+		}
+
+		@Override
+		public Void visit(Continue n) {
+			return this.start(Kind.CONTINUE, n);
+		}
+
+		@Override
+		public Void visit(RaiseEx n) {
+			return this.start(Kind.RAISE_EX, n, n.getType(), n.getValue(), n.getTrace());
+		}
+
+		@Override
+		public Void visit(RaiseFrom n) {
+			return this.start(Kind.RAISE_FROM, n, n.getType(), n.getSource());
+		}
+
+		@Override
+		public Void visit(Return n) {
+			return this.start(Kind.RETURN, n, n.getValues());
+		}
+
+		@Override
+		public Void visit(Yield n) {
+			return this.start(Kind.YIELD, n, n.getYield());
+		}
+
+		@Override
+		public Void visit(ClassDef n) {
+			this.start(Kind.CLASS_DEF, n, n.getName(), n.getBody());
+			this.nodes(n.getInheritance());
+			this.nodes(n.getDecorators());
+			return null;
+		}
+
+		@Override
+		public Void visit(Except n) {
+			return this.start(Kind.EXCEPT, n, n.getException(), n.getAlias());
+		}
+
+		@Override
+		public Void visit(For n) {
+			this.start(Kind.FOR, n, n.getIterator(), n.getSource(), n.getBody(), n.getElseBody());
+			this.bool(n.isAsync());
+			return null;
+		}
+
+		@Override
+		public Void visit(Function n) {
+			this.start(Kind.FUNCTION, n, n.getName(), n.getReturnType(), n.getBody(), n.getParams());
+			this.data.add(n.getComplexity());
+			this.nodes(n.getDecorators());
+			this.bool(n.isAsync());
+			return null;
+		}
+
+		@Override
+		public Void visit(If n) {
+			this.start(Kind.IF, n);
+			this.nodes(n.getConditions());
+			this.nodes(n.getBodies());
+			this.node(n.getElseBody());
+			return null;
+		}
+
+		@Override
+		public Void visit(Try n) {
+			this.start(Kind.TRY, n, n.getTryBlock());
+			this.nodes(n.getExceptions());
+			this.nodes(n.getExceptBodies());
+			this.node(n.getElseBlock());
+			this.node(n.getFinallyBlock());
+			return null;
+		}
+
+		@Override
+		public Void visit(While n) {
+			return this.start(Kind.WHILE, n, n.getCondition(), n.getBody(), n.getElseBody());
+		}
+
+		@Override
+		public Void visit(With n) {
+			this.start(Kind.WITH, n);
+			this.nodes(n.getItems());
+			this.node(n.getBody());
+			this.bool(n.isAsync());
+			return null;
+		}
+
+		@Override
+		public Void visit(WithItem n) {
+			return this.start(Kind.WITH_ITEM, n, n.getItem(), n.getAlias());
+		}
+
+		@Override
+		public Void visit(Conditional n) {
+			return this.start(Kind.CONDITIONAL, n, n.getValue(), n.getCondition(), n.getFalseValue());
+		}
+
+		@Override
+		public Void visit(ExprList n) {
+			this.start(Kind.EXPR_LIST, n);
+			this.nodes(n.getValues());
+			return null;
+		}
+
+		@Override
+		public Void visit(Lambda n) {
+			return this.start(Kind.LAMBDA, n, n.getExpression(), n.getParameters());
+		}
+
+		@Override
+		public Void visit(CompFor n) {
+			this.start(Kind.COMP_FOR, n, n.getNextLink(), n.getTargets());
+			this.nodes(n.getSource());
+			return null;
+		}
+
+		@Override
+		public Void visit(CompIf n) {
+			return this.start(Kind.COMP_IF, n, n.getNextLink(), n.getExpression());
+		}
+
+		@Override
+		public Void visit(LambdaNoCond n) {
+			return this.start(Kind.LAMBDA_NO_COND, n, n.getExpression(), n.getParameters());
+		}
+
+		@Override
+		public Void visit(Nnary n) {
+			this.start(Kind.NNARY, n);
+			this.nodes(n.getOperands());
+			this.strings(n.getOperators());
+			return null;
+		}
+
+		@Override
+		public Void visit(Unary n) {
+			this.start(Kind.UNARY, n, n.getValue());
+			this.string(n.getOperator());
+			return null;
+		}
+
+		@Override
+		public Void visit(Power n) {
+			return this.start(Kind.POWER, n, n.getBase(), n.getExponent());
+		}
+
+		@Override
+		public Void visit(Bool n) {
+			this.start(Kind.BOOL, n);
+			this.bool(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(Ellipsis n) {
+			return this.start(Kind.ELLIPSIS, n);
+		}
+
+		@Override
+		public Void visit(Identifier n) {
+			this.start(Kind.IDENTIFIER, n);
+			this.string(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(None n) {
+			return this.start(Kind.NONE, n);
+		}
+
+		@Override
+		public Void visit(Str n) {
+			this.start(Kind.STR, n);
+			this.string(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(StrConversion n) {
+			return this.start(Kind.STR_CONVERSION, n, n.getExprList());
+		}
+
+		@Override
+		public Void visit(CondComprehension n) {
+			return this.start(Kind.COND_COMPREHENSION, n, n.getExpression(), n.getCompFor());
+		}
+
+		@Override
+		public Void visit(EnumComprehension n) {
+			this.start(Kind.ENUM_COMPREHENSION, n);
+			this.nodes(n.getValues());
+			return null;
+		}
+
+		@Override
+		public Void visit(DictMaker n) {
+			this.start(Kind.DICT_MAKER, n, n.getComprehension());
+			this.nodes(n.getKeys());
+			this.nodes(n.getValues());
+			return null;
+		}
+
+		@Override
+		public Void visit(SetMaker n) {
+			this.start(Kind.SET_MAKER, n, n.getComprehension());
+			if (!n.hasComprehension()) {
+				this.nodes(n.getValues());
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(Float n) {
+			this.start(Kind.FLOAT, n);
+			this.string(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(Imaginary n) {
+			this.start(Kind.IMAGINARY, n);
+			this.string(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(Int n) {
+			this.start(Kind.INT, n);
+			this.string(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(Long n) {
+			this.start(Kind.LONG, n);
+			this.string(n.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visit(AttributeRef n) {
+			if (n.getAttributes().isEmpty()) {
+				return this.notEncoded(n);
+			}
+			this.start(Kind.ATTRIBUTE_REF, n, n.getBase());
+			this.nodes(n.getAttributes());
+			return null;
+		}
+
+		@Override
+		public Void visit(Call n) {
+			return this.start(Kind.CALL, n, n.getBase(), n.getArgs());
+		}
+
+		@Override
+		public Void visit(ObjectMethodCall n) {
+			return this.start(Kind.OBJECT_METHOD_CALL, n, n.getBase(), n.getCall());
+		}
+
+		@Override
+		public Void visit(Slice n) {
+			return this.start(Kind.SLICE, n, n.getBase(), n.getBounds());
+		}
+
+		@Override
+		public Void visit(YieldValues n) {
+			return this.start(Kind.YIELD_VALUES, n, n.getValues());
+		}
+
+		@Override
+		public Void visit(YieldFrom n) {
+			return this.start(Kind.YIELD_FROM, n, n.getFrom());
+		}
+
+		@Override
+		public Void visit(And n) {
+			this.start(Kind.AND, n);
+			this.nodes(n.getOperands());
+			return null;
+		}
+
+		@Override
+		public Void visit(Or n) {
+			this.start(Kind.OR, n);
+			this.nodes(n.getOperands());
+			return null;
+		}
+
+		@Override
+		public Void visit(Shift n) {
+			this.start(Kind.SHIFT, n);
+			this.nodes(n.getOperands());
+			this.strings(n.getOperators());
+			return null;
+		}
+
+		@Override
+		public Void visit(Xor n) {
+			this.start(Kind.XOR, n);
+			this.nodes(n.getOperands());
+			return null;
+		}
+
+		@Override
+		public Void visit(Binary n) {
+			this.start(Kind.BINARY, n);
+			this.nodes(n.getOperands());
+			this.string(n.getOperator());
+			return null;
+		}
+
+		@Override
+		public Void visit(Comparison n) {
+			this.start(Kind.COMPARISON, n);
+			this.nodes(n.getOperands());
+			this.strings(n.getOperators());
+			return null;
+		}
+
+		@Override
+		public Void visit(Not n) {
+			return this.start(Kind.NOT, n, n.getExpression());
+		}
+
+		@Override
+		public Void visit(ArgList n) {
+			this.start(Kind.ARG_LIST, n);
+			this.nodes(n.getArguments());
+			return null;
+		}
+
+		@Override
+		public Void visit(SliceBound n) {
+			return this.start(Kind.SLICE_BOUND, n, n.getLowerBound(), n.getUpperBound(), n.getStride());
+		}
+
+		@Override
+		public Void visit(SubscriptIndex n) {
+			return this.start(Kind.SUBSCRIPT_INDEX, n, n.getIndex());
+		}
+
+		@Override
+		public Void visit(SubscriptSliceList n) {
+			this.start(Kind.SUBSCRIPT_SLICE_LIST, n);
+			this.nodes(n.getIndexes());
+			return null;
+		}
+
+		@Override
+		public Void visit(FieldAccess n) {
+			return this.notEncoded(n);
+		}
+
+		@Override
+		public Void visit(FieldAccessList n) {
+			return this.notEncoded(n);
+		}
+	}
+
+	private static class Ints {
+
+		private int[] items = new int[256];
+		private int size;
+
+		private void add(int item) {
+			if (this.size == this.items.length) {
+				this.items = Arrays.copyOf(this.items, this.size * 2);
+			}
+			this.items[this.size++] = item;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(this.items, this.size);
+		}
+	}
+}
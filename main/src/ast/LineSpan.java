@@ -0,0 +1,28 @@
+package ast;
+
+/**
+ * Lines of the source a node stems from, as passed to the constructors of the nodes. The nodes keep the two line
+ * numbers, their LOC is computed on request by {@link Module#getLoc(AstNode)}.
+ */
+public final class LineSpan {
+
+	private final int startLine;
+	private final int endLine;
+
+	/**
+	 * @param startLine one based number of the first line
+	 * @param endLine one based number of the last line
+	 */
+	public LineSpan(int startLine, int endLine) {
+		this.startLine = startLine;
+		this.endLine = endLine;
+	}
+
+	public int getStartLine() {
+		return this.startLine;
+	}
+
+	public int getEndLine() {
+		return this.endLine;
+	}
+}
@@ -1,58 +1,150 @@
 package ast;
 
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.IOException;
 
-import util.FileOpener;
+import util.SourceFile;
 
 /**
  * Created by Nik on 23-07-2015
+ *
+ * Counts the lines of code, which are the lines that are neither blank nor comment only. The lines of a module are
+ * classified once into a cumulative count, so the LOC of any range of lines is a single subtraction. Lines inside a
+ * string that spans lines (e.g. a docstring) are code unless blank, also when they start with '#'.
  */
 public class LocCounter {
 
-	private static final String EMPTY_OR_COMMENT_REGEX = "([ \t]*|[ \t]*#.*)";
-
-	private final FileOpener fileOpener;
+	private final String module;
+	private SourceFile source;
+	/**
+	 * Amount of lines of code before each line index, the last element is the total
+	 */
+	private volatile int[] codeLines;
 
 	public LocCounter(String module) {
-		this.fileOpener = new FileOpener(module);
+		this.module = module;
+	}
+
+	public LocCounter(SourceFile source) {
+		this.module = source.getPath();
+		this.source = source;
 	}
 
 	public Integer count() {
-		try {
-			List<String> lines = this.fileOpener.getLines();
-			return this.count(lines);
-		}
-		catch (FileOpener.FileSizeLimitExceededException e) {
-			e.printStackTrace();
-		}
-		return 0;
+		int[] codeLines = this.getCodeLines();
+		return codeLines[codeLines.length - 1];
 	}
 
 	public Integer count(Integer startLine, Integer endLine) {
-		try {
-			List<String> lines = this.fileOpener.getLines(startLine - 1, endLine);
-			return this.count(lines);
+		int[] codeLines = this.getCodeLines();
+		int from = Math.max(startLine - 1, 0);
+		//in case last line is empty, when it is not part of the line index
+		int to = Math.min(endLine, codeLines.length - 1);
+		return to > from ? codeLines[to] - codeLines[from] : 0;
+	}
+
+	/**
+	 * @return whether the line counts as line of code on its own, i.e. when it is not part of a string spanning lines
+	 */
+	public boolean countsTowardsLoc(CharSequence line) {
+		int first = LocCounter.skipIndentation(line);
+		return first < line.length() && line.charAt(first) != '#';
+	}
+
+	/**
+	 * @return amount of lines of code before each zero based line index, followed by the total. Kept by the
+	 * {@link Module} to compute the LOC of its nodes.
+	 */
+	public int[] getCodeLines() {
+		int[] codeLines = this.codeLines;
+		if (codeLines == null) {
+			//computing it twice when threads race is harmless
+			SourceFile source = this.getSource();
+			codeLines = source == null ? new int[] { 0 } : LocCounter.classify(source);
+			this.codeLines = codeLines;
 		}
-		catch (FileOpener.FileSizeLimitExceededException e) {
-			e.printStackTrace();
+		return codeLines;
+	}
+
+	/**
+	 * Follows the strings from line to line, so lines inside a string spanning lines are taken for code.
+	 */
+	private static int[] classify(SourceFile source) {
+		int lineCount = source.getLineCount();
+		int[] codeLines = new int[lineCount + 1];
+		StringState state = new StringState();
+		for (int i = 0; i < lineCount; i++) {
+			CharSequence line = source.getLine(i);
+			int first = LocCounter.skipIndentation(line);
+			boolean code = first < line.length() && (state.quote != 0 || line.charAt(first) != '#');
+			codeLines[i + 1] = codeLines[i] + (code ? 1 : 0);
+			state.scan(line, first);
 		}
-		return 0;
+		return codeLines;
 	}
 
-	private Integer count(List<String> lines) {
-		Long nr = lines.stream().filter(this::countsTowardsLoc).count();
-		return nr.intValue();
+	private static int skipIndentation(CharSequence line) {
+		int i = 0;
+		while (i < line.length() && (line.charAt(i) == ' ' || line.charAt(i) == '\t')) {
+			i++;
+		}
+		return i;
 	}
 
-	public boolean countsTowardsLoc(String line) {
-		return !this.isEmptyOrComment(line);
+	/**
+	 * The string the scanned lines end in, if any.
+	 */
+	private static class StringState {
+
+		/**
+		 * Quote character of the open string, 0 when outside a string
+		 */
+		private char quote;
+		private boolean triple;
+
+		private void scan(CharSequence line, int from) {
+			int length = line.length();
+			boolean escapedEnd = false;
+			for (int i = from; i < length; i++) {
+				char c = line.charAt(i);
+				if (this.quote != 0) {
+					if (c == '\\') {
+						escapedEnd = ++i >= length;
+					}
+					else if (c == this.quote && (!this.triple || StringState.tripleAt(line, i, c))) {
+						i += this.triple ? 2 : 0;
+						this.quote = 0;
+					}
+				}
+				else if (c == '#') {
+					//the rest of the line is a comment
+					break;
+				}
+				else if (c == '\'' || c == '"') {
+					this.quote = c;
+					this.triple = StringState.tripleAt(line, i, c);
+					i += this.triple ? 2 : 0;
+				}
+			}
+			if (this.quote != 0 && !this.triple && !escapedEnd) {
+				//a single quoted string only continues after a backslash, otherwise it is unterminated
+				this.quote = 0;
+			}
+		}
+
+		private static boolean tripleAt(CharSequence line, int i, char quote) {
+			return i + 2 < line.length() && line.charAt(i + 1) == quote && line.charAt(i + 2) == quote;
+		}
 	}
 
-	private boolean isEmptyOrComment(String line) {
-		Pattern emptyOrComment = Pattern.compile(EMPTY_OR_COMMENT_REGEX);
-		Matcher matcher = emptyOrComment.matcher(line);
-		return matcher.matches();
+	private SourceFile getSource() {
+		if (this.source == null) {
+			try {
+				this.source = SourceFile.read(this.module);
+			}
+			catch (IOException | SourceFile.FileSizeLimitExceededException e) {
+				e.printStackTrace();
+			}
+		}
+		return this.source;
 	}
 }
@@ -13,21 +13,30 @@ import util.StringHelper;
 public class Module extends AstNode {
 
 	private final String filePath;
+    private final int[] codeLines;
     private final List<Statement> body;
     private final List<String> errors;
 
-    public Module( String filePath,  Integer locInfo,  List<Statement> body) {
-        super(locInfo);
-	    this.filePath = filePath;
-        this.body = body;
-        this.errors = Collections.emptyList();
+    /**
+     * @param codeLines cumulative count of the lines of code, see {@link LocCounter#getCodeLines()}
+     */
+    public Module( String filePath,  int[] codeLines,  List<Statement> body) {
+        this(filePath, codeLines, body, Collections.emptyList());
     }
 
-    public Module( String filePath,  Integer locInfo) {
-        super(locInfo);
+    /**
+     * Module of a file that only parsed partially, the errors describe the parts that are missing from the body.
+     */
+    public Module( String filePath,  int[] codeLines,  List<Statement> body,  List<String> errors) {
+        super(new LineSpan(1, codeLines.length - 1));
         this.filePath = filePath;
-        this.body = Collections.emptyList();
-        this.errors = new ArrayList<>();
+        this.codeLines = codeLines;
+        this.body = body;
+        this.errors = errors;
+    }
+
+    public Module( String filePath,  int[] codeLines) {
+        this(filePath, codeLines, Collections.emptyList(), new ArrayList<>());
     }
 
     public void addError(String error) {
@@ -43,11 +52,39 @@ public class Module extends AstNode {
     }
 
 	public String getName() {
-		List<String> filePathParts = StringHelper.explode(this.filePath, "\\");
+		return Module.getName(this.filePath);
+	}
+
+	/**
+	 * @return name of the module in the file, i.e. the file name without ".py"
+	 */
+	public static String getName(String filePath) {
+		List<String> filePathParts = StringHelper.explode(filePath, "\\");
 		String s = filePathParts.get(filePathParts.size() - 1);
 		return s.substring(0, s.length() - 3);
 	}
 
+    public int[] getCodeLines() {
+        return this.codeLines;
+    }
+
+    /**
+     * @return lines of code of the module
+     */
+    public Integer getLoc() {
+        return this.codeLines[this.codeLines.length - 1];
+    }
+
+    /**
+     * @param node a node of this module
+     * @return lines of code of the node
+     */
+    public Integer getLoc(AstNode node) {
+        int from = Math.max(node.getStartLine() - 1, 0);
+        int to = Math.min(node.getEndLine(), this.codeLines.length - 1);
+        return to > from ? this.codeLines[to] - this.codeLines[from] : 0;
+    }
+
     public List<String> getErrors() {
         return this.errors;
     }
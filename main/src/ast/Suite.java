@@ -12,8 +12,8 @@ public class Suite extends AstNode {
 
 	private final List<Statement> statements;
 
-	public Suite( Integer locInfo,  List<Statement> statements) {
-		super(locInfo);
+	public Suite( LineSpan lines,  List<Statement> statements) {
+		super(lines);
 		this.statements = statements;
 	}
 
@@ -1,5 +1,6 @@
 package ast.argument;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -8,8 +9,8 @@ import ast.expression.Expr;
  */
 public class Arg extends Argument {
 
-	public Arg(Integer locInfo,  Expr value) {
-		super(locInfo, value);
+	public Arg(LineSpan lines,  Expr value) {
+		super(lines, value);
 	}
 
 	@Override
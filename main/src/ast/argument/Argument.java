@@ -1,6 +1,7 @@
 package ast.argument;
 
 import ast.AstNode;
+import ast.LineSpan;
 import ast.expression.Expr;
 
 /**
@@ -10,8 +11,8 @@ public abstract class Argument extends AstNode {
 
 	private final Expr value;
 
-	public Argument(Integer locInfo,  Expr value) {
-		super(locInfo);
+	public Argument(LineSpan lines,  Expr value) {
+		super(lines);
 		this.value = value;
 	}
 
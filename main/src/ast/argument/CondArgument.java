@@ -1,5 +1,6 @@
 package ast.argument;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.compiter.CompFor;
@@ -11,8 +12,8 @@ public class CondArgument extends Argument {
 
 	private final CompFor condition;
 
-	public CondArgument(Integer locInfo, Expr value, CompFor condition) {
-		super(locInfo, value);
+	public CondArgument(LineSpan lines, Expr value, CompFor condition) {
+		super(lines, value);
 		this.condition = condition;
 	}
 
@@ -1,5 +1,6 @@
 package ast.argument;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.nocond.atom.Identifier;
@@ -11,8 +12,8 @@ public class DefValArgument extends Argument {
 
 	private final Identifier name;
 
-	public DefValArgument( Integer locInfo,  Expr value,  Identifier name) {
-		super(locInfo, value);
+	public DefValArgument( LineSpan lines,  Expr value,  Identifier name) {
+		super(lines, value);
 		this.name = name;
 	}
 
@@ -1,5 +1,6 @@
 package ast.argument;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -8,8 +9,8 @@ import ast.expression.Expr;
  */
 public class SimpleArgument extends Argument {
 
-	public SimpleArgument(Integer locInfo, Expr value) {
-		super(locInfo, value);
+	public SimpleArgument(LineSpan lines, Expr value) {
+		super(lines, value);
 	}
 
 	@Override
@@ -1,5 +1,6 @@
 package ast.expression;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -11,9 +12,9 @@ public class Conditional extends Expr {
 	private final Expr condition;
 	private final Expr falseValue;
 
-	public Conditional( Integer locInfo,  Expr value,  Expr condition,
+	public Conditional( LineSpan lines,  Expr value,  Expr condition,
 	                    Expr falseValue) {
-		super(locInfo);
+		super(lines);
 		this.value = value;
 		this.condition = condition;
 		this.falseValue = falseValue;
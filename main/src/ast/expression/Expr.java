@@ -1,12 +1,13 @@
 package ast.expression;
 
 import ast.AstNode;
+import ast.LineSpan;
 
 /**
  * Created by Nik on 25-05-15
  */
 public abstract class Expr extends AstNode {
-	public Expr( Integer locInfo) {
-		super(locInfo);
+	public Expr( LineSpan lines) {
+		super(lines);
 	}
 }
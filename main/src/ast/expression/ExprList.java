@@ -2,6 +2,7 @@ package ast.expression;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -11,8 +12,8 @@ public class ExprList extends ast.expression.Expr {
 
 	private final List<Expr> values;
 
-	public ExprList( Integer locInfo,  List<Expr> values) {
-		super(locInfo);
+	public ExprList( LineSpan lines,  List<Expr> values) {
+		super(lines);
 		this.values = values;
 	}
 
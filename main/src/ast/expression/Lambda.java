@@ -1,5 +1,6 @@
 package ast.expression;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.param.Params;
 
@@ -11,8 +12,8 @@ public class Lambda extends Expr {
 	private final Params parameters;
 	private final Expr expression;
 
-	public Lambda( Integer locInfo,  Expr expression, Params parameters) {
-		super(locInfo);
+	public Lambda( LineSpan lines,  Expr expression, Params parameters) {
+		super(lines);
 		this.expression = expression;
 		this.parameters = parameters;
 	}
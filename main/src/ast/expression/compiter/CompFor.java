@@ -2,6 +2,7 @@ package ast.expression.compiter;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.ExprList;
@@ -14,8 +15,8 @@ public class CompFor extends CompIter {
 	private final ExprList targets;
 	private final List<Expr> source;
 
-	public CompFor( Integer locInfo, CompIter nextLink,  ExprList targets,  List<Expr> source) {
-		super(locInfo, nextLink);
+	public CompFor( LineSpan lines, CompIter nextLink,  ExprList targets,  List<Expr> source) {
+		super(lines, nextLink);
 		this.targets = targets;
 		this.source = source;
 	}
@@ -1,5 +1,6 @@
 package ast.expression.compiter;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -10,8 +11,8 @@ public class CompIf extends CompIter {
 
 	private final Expr expression;
 
-	public CompIf( Integer locInfo, CompIter nextLink,  Expr expression) {
-		super(locInfo, nextLink);
+	public CompIf( LineSpan lines, CompIter nextLink,  Expr expression) {
+		super(lines, nextLink);
 		this.expression = expression;
 	}
 
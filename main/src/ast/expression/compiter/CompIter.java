@@ -1,5 +1,6 @@
 package ast.expression.compiter;
 
+import ast.LineSpan;
 import ast.expression.Expr;
 
 /**
@@ -9,8 +10,8 @@ public abstract class CompIter extends Expr {
 
 	private final CompIter nextLink;
 
-	public CompIter( Integer locInfo, CompIter nextLink) {
-		super(locInfo);
+	public CompIter( LineSpan lines, CompIter nextLink) {
+		super(lines);
 		this.nextLink = nextLink;
 	}
 
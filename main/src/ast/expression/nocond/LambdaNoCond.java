@@ -1,5 +1,6 @@
 package ast.expression.nocond;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.param.Params;
 
@@ -11,8 +12,8 @@ public class LambdaNoCond extends NonConditional {
 	private final Params parameters;
 	private final NonConditional expression;
 
-	public LambdaNoCond( Integer locInfo,  NonConditional expression, Params parameters) {
-		super(locInfo);
+	public LambdaNoCond( LineSpan lines,  NonConditional expression, Params parameters) {
+		super(lines);
 		this.expression = expression;
 		this.parameters = parameters;
 	}
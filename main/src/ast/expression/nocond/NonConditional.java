@@ -1,12 +1,13 @@
 package ast.expression.nocond;
 
+import ast.LineSpan;
 import ast.expression.Expr;
 
 /**
  * Created by Nik on 23-06-2015
  */
 public abstract class NonConditional extends Expr {
-	public NonConditional( Integer locInfo) {
-		super(locInfo);
+	public NonConditional( LineSpan lines) {
+		super(lines);
 	}
 }
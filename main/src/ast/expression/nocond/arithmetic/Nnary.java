@@ -2,6 +2,7 @@ package ast.expression.nocond.arithmetic;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.nocond.NonConditional;
@@ -14,8 +15,8 @@ public class Nnary extends NonConditional {
 	private final List<Expr> operands;
 	private final List<String> operators;
 
-	public Nnary( Integer locInfo,  List<Expr> operands,  List<String> operators) {
-		super(locInfo);
+	public Nnary( LineSpan lines,  List<Expr> operands,  List<String> operators) {
+		super(lines);
 
 		this.operands = operands;
 		this.operators = operators;
@@ -1,5 +1,6 @@
 package ast.expression.nocond.arithmetic;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.nocond.NonConditional;
@@ -13,8 +14,8 @@ public class Power extends NonConditional {
 	private final Atom base;
 	private final Expr exponent;
 
-	public Power(Integer locInfo,  Atom base,  Expr exponent) {
-		super(locInfo);
+	public Power(LineSpan lines,  Atom base,  Expr exponent) {
+		super(lines);
 		this.base = base;
 		this.exponent = exponent;
 	}
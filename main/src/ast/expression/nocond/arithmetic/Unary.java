@@ -1,5 +1,6 @@
 package ast.expression.nocond.arithmetic;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.nocond.NonConditional;
@@ -12,8 +13,8 @@ public class Unary extends NonConditional {
 	private final Expr value;
 	private final String operator;
 
-	public Unary( Integer locInfo,  Expr value,  String operator) {
-		super(locInfo);
+	public Unary( LineSpan lines,  Expr value,  String operator) {
+		super(lines);
 		this.value = value;
 		this.operator = operator;
 	}
@@ -22,6 +23,10 @@ public class Unary extends NonConditional {
 		return this.value;
 	}
 
+	public String getOperator() {
+		return this.operator;
+	}
+
 	@Override
 	public <T> T accept(Visitor<T> visitor) {
 		return visitor.visit(this);
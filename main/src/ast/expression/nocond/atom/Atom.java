@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.expression.nocond.NonConditional;
 
 /**
@@ -7,7 +8,7 @@ import ast.expression.nocond.NonConditional;
  */
 public abstract class Atom extends NonConditional {
 
-	public Atom( Integer locInfo) {
-		super(locInfo);
+	public Atom( LineSpan lines) {
+		super(lines);
 	}
 }
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -9,8 +10,8 @@ public class Bool extends Atom {
 
 	private final Boolean value;
 
-	public Bool(Integer locInfo, Boolean value) {
-		super(locInfo);
+	public Bool(LineSpan lines, Boolean value) {
+		super(lines);
 		this.value = value;
 	}
 
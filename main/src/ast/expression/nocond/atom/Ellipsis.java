@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -7,8 +8,8 @@ import ast.Visitor;
  */
 public class Ellipsis extends Atom {
 
-	public Ellipsis( Integer locInfo) {
-		super(locInfo);
+	public Ellipsis( LineSpan lines) {
+		super(lines);
 	}
 
 	@Override
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.trailer.Trailer;
 import ast.expression.nocond.trailer.TrailerVisitor;
@@ -11,8 +12,8 @@ public class Identifier extends Atom implements Trailer {
 
 	private final String value;
 
-	public Identifier(Integer locInfo,  String value) {
-		super(locInfo);
+	public Identifier(LineSpan lines,  String value) {
+		super(lines);
 		this.value = value;
 	}
 
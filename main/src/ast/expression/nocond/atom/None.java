@@ -1,13 +1,14 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
  * Created by Nik on 15-06-2015
  */
 public class None extends Atom {
-	public None( Integer locInfo) {
-		super(locInfo);
+	public None( LineSpan lines) {
+		super(lines);
 	}
 
 	@Override
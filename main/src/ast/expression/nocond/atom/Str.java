@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -9,8 +10,8 @@ public class Str extends Atom {
 
 	private final String value;
 
-	public Str( Integer locInfo,  String value) {
-		super(locInfo);
+	public Str( LineSpan lines,  String value) {
+		super(lines);
 		this.value = value;
 	}
 
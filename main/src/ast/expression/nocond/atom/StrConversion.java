@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.ExprList;
 
@@ -10,8 +11,8 @@ public class StrConversion extends Atom {
 
 	private final ExprList exprList;
 
-	public StrConversion( Integer locInfo,  ExprList exprList) {
-		super(locInfo);
+	public StrConversion( LineSpan lines,  ExprList exprList) {
+		super(lines);
 		this.exprList = exprList;
 	}
 
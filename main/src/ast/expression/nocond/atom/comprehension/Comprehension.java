@@ -1,13 +1,14 @@
 package ast.expression.nocond.atom.comprehension;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Atom;
 
 /**
  * Created by Nik on 17-06-2015
  */
 public abstract class Comprehension extends Atom {
-	public Comprehension( Integer locInfo) {
-		super(locInfo);
+	public Comprehension( LineSpan lines) {
+		super(lines);
 		
 	}
 }
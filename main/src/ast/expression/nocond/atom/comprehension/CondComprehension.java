@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.comprehension;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.compiter.CompFor;
@@ -12,8 +13,8 @@ public class CondComprehension extends Comprehension {
 	private final Expr expression;
 	private final CompFor compFor;
 
-	public CondComprehension( Integer locInfo,  Expr expression,  CompFor compFor) {
-		super(locInfo);
+	public CondComprehension( LineSpan lines,  Expr expression,  CompFor compFor) {
+		super(lines);
 		this.expression = expression;
 		this.compFor = compFor;
 	}
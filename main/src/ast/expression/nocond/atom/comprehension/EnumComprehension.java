@@ -2,6 +2,7 @@ package ast.expression.nocond.atom.comprehension;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -12,8 +13,8 @@ public class EnumComprehension extends Comprehension {
 
 	private final List<Expr> values;
 
-	public EnumComprehension( Integer locInfo,  List<Expr> values) {
-		super(locInfo);
+	public EnumComprehension( LineSpan lines,  List<Expr> values) {
+		super(lines);
 		this.values = values;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.atom.maker;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.compiter.CompFor;
@@ -15,8 +16,8 @@ public class DictMaker extends Maker {
 	private final List<Expr> keys;
 	private final List<Expr> values;
 
-	public DictMaker( Integer locInfo, CompFor comprehension,  List<Expr> keys,  List<Expr> values) {
-		super(locInfo);
+	public DictMaker( LineSpan lines, CompFor comprehension,  List<Expr> keys,  List<Expr> values) {
+		super(lines);
 
 		this.comprehension = comprehension;
 		this.keys = keys;
@@ -1,12 +1,13 @@
 package ast.expression.nocond.atom.maker;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Atom;
 
 /**
  * Created by Nik on 15-06-2015
  */
 public abstract class Maker extends Atom {
-	public Maker( Integer locInfo) {
-		super(locInfo);
+	public Maker( LineSpan lines) {
+		super(lines);
 	}
 }
@@ -3,6 +3,7 @@ package ast.expression.nocond.atom.maker;
 import java.util.Collections;
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.compiter.CompFor;
@@ -15,15 +16,15 @@ public class SetMaker extends Maker {
 	private final CompFor comprehension;
 	private final List<Expr> values;
 
-	public SetMaker( Integer locInfo,  CompFor comprehension) {
-		super(locInfo);
+	public SetMaker( LineSpan lines,  CompFor comprehension) {
+		super(lines);
 
 		this.comprehension = comprehension;
 		this.values = Collections.emptyList();
 	}
 
-	public SetMaker( Integer locInfo,  List<Expr> values) {
-		super(locInfo);
+	public SetMaker( LineSpan lines,  List<Expr> values) {
+		super(lines);
 
 		this.values = values;
 		this.comprehension = null;
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.numeric;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -9,8 +10,8 @@ public class Imaginary extends Numeric {
 
 	private final Double value;
 
-	public Imaginary( Integer locInfo,  Double value) {
-		super(locInfo);
+	public Imaginary( LineSpan lines,  Double value) {
+		super(lines);
 		this.value = value;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.atom.numeric;
 
 import java.math.BigInteger;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -11,8 +12,8 @@ public class Int extends Numeric {
 
 	private final BigInteger value;
 
-	public Int( Integer locInfo,  BigInteger value) {
-		super(locInfo);
+	public Int( LineSpan lines,  BigInteger value) {
+		super(lines);
 		this.value = value;
 	}
 
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.numeric;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -9,11 +10,15 @@ public class Long extends Numeric {
 
 	private final String value;
 
-	public Long( Integer locInfo,  String value) {
-		super(locInfo);
+	public Long( LineSpan lines,  String value) {
+		super(lines);
 		this.value = value;
 	}
 
+	public String getValue() {
+		return this.value;
+	}
+
 	@Override
 	public <T> T accept(Visitor<T> visitor) {
 		return visitor.visit(this);
@@ -1,12 +1,13 @@
 package ast.expression.nocond.atom.numeric;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Atom;
 
 /**
  * Created by Nik on 09-10-2015
  */
 public abstract class Numeric extends Atom {
-	public Numeric( Integer locInfo) {
-		super(locInfo);
+	public Numeric( LineSpan lines) {
+		super(lines);
 	}
 }
@@ -3,6 +3,7 @@ package ast.expression.nocond.atom.trailed;
 import java.util.ArrayList;
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.atom.Atom;
 import ast.expression.nocond.atom.Identifier;
@@ -14,14 +15,14 @@ public class AttributeRef extends TrailedAtom {
 
 	private final List<Identifier> attributes;
 
-	public AttributeRef( Integer locInfo,  AttributeRef base,  Identifier attribute) {
-		super(locInfo, base.getBase());
+	public AttributeRef( LineSpan lines,  AttributeRef base,  Identifier attribute) {
+		super(lines, base.getBase());
 		this.attributes = base.getAttributes();
 		this.attributes.add(attribute);
 	}
 
-	public AttributeRef( Integer locInfo,  Atom base,  Identifier attribute) {
-		super(locInfo, base);
+	public AttributeRef( LineSpan lines,  Atom base,  Identifier attribute) {
+		super(lines, base);
 		this.attributes = new ArrayList<>();
 		this.attributes.add(attribute);
 	}
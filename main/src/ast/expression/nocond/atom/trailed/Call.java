@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.trailed;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.atom.Atom;
 import ast.expression.nocond.trailer.ArgList;
@@ -11,8 +12,8 @@ public class Call extends TrailedAtom {
 
 	private final ArgList args;
 
-	public Call(Integer locInfo, Atom base, ArgList args) {
-		super(locInfo, base);
+	public Call(LineSpan lines, Atom base, ArgList args) {
+		super(lines, base);
 		this.args = args;
 	}
 
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.trailed;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.atom.Atom;
 
@@ -10,8 +11,8 @@ public class ObjectMethodCall extends TrailedAtom {
 
 	private final Call call;
 
-	public ObjectMethodCall( Integer locInfo,  Atom base,  Call call) {
-		super(locInfo, base);
+	public ObjectMethodCall( LineSpan lines,  Atom base,  Call call) {
+		super(lines, base);
 		this.call = call;
 	}
 
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.trailed;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.atom.Atom;
 import ast.expression.nocond.trailer.SubscriptSliceList;
@@ -11,8 +12,8 @@ public class Slice extends TrailedAtom {
 
 	private final SubscriptSliceList bound;
 
-	public Slice( Integer locInfo,  Atom base,  SubscriptSliceList bound) {
-		super(locInfo, base);
+	public Slice( LineSpan lines,  Atom base,  SubscriptSliceList bound) {
+		super(lines, base);
 		this.bound = bound;
 	}
 
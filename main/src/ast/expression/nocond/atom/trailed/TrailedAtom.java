@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.trailed;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Atom;
 
 /**
@@ -9,8 +10,8 @@ public abstract class TrailedAtom extends Atom {
 
 	private Atom base;
 
-	public TrailedAtom( Integer locInfo,  Atom base) {
-		super(locInfo);
+	public TrailedAtom( LineSpan lines,  Atom base) {
+		super(lines);
 		this.base = base;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.atom.trailed;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Atom;
 import ast.expression.nocond.atom.Identifier;
 import ast.expression.nocond.trailer.ArgList;
@@ -16,25 +17,25 @@ public class TrailedAtomBuilder {
 
 	private TrailedAtom result;
 
-	private TrailedAtomBuilder(Integer locInfo, Atom base, List<Trailer> trailers) {
+	private TrailedAtomBuilder(LineSpan lines, Atom base, List<Trailer> trailers) {
 		for (Trailer trailer : trailers) {
-			base = this.attachTrailer(locInfo, base, trailer);
+			base = this.attachTrailer(lines, base, trailer);
 		}
 		this.result = this.transformRecursively((TrailedAtom) base);
 	}
 
-	public static Atom attachTrailers(Integer locInfo, Atom base, List<Trailer> trailers) {
+	public static Atom attachTrailers(LineSpan lines, Atom base, List<Trailer> trailers) {
 		if (trailers.size() == 0) {
 			return base;
 		}
 
-		TrailedAtomBuilder tab = new TrailedAtomBuilder(locInfo, base, trailers);
+		TrailedAtomBuilder tab = new TrailedAtomBuilder(lines, base, trailers);
 		return tab.getResult();
 	}
 
 
-	private TrailedAtom attachTrailer(Integer locInfo, Atom base, Trailer trailer) {
-		TABVisitor tabVisitor = new TABVisitor(locInfo, base);
+	private TrailedAtom attachTrailer(LineSpan lines, Atom base, Trailer trailer) {
+		TABVisitor tabVisitor = new TABVisitor(lines, base);
 		return trailer.accept(tabVisitor);
 	}
 
@@ -67,10 +68,10 @@ public class TrailedAtomBuilder {
 
 			List<Identifier> attributes = attrRef.getAttributes();
 			Identifier lastId = attributes.remove(attributes.size() - 1);
-			Call newCall = new Call(target.getLocInfo(), lastId, target.getArgs());
+			Call newCall = new Call(target.getLineSpan(), lastId, target.getArgs());
 
 			Atom base = attributes.size() == 0 ? attrRef.getBase() : attrRef;
-			return new ObjectMethodCall(target.getLocInfo(), base, newCall);
+			return new ObjectMethodCall(target.getLineSpan(), base, newCall);
 		}
 		return target;
 	}
@@ -78,30 +79,30 @@ public class TrailedAtomBuilder {
 
 	private class TABVisitor implements TrailerVisitor<TrailedAtom> {
 
-		private final Integer locInfo;
+		private final LineSpan lines;
 		private final Atom base;
 
-		public TABVisitor(Integer locInfo, Atom base) {
-			this.locInfo = locInfo;
+		public TABVisitor(LineSpan lines, Atom base) {
+			this.lines = lines;
 			this.base = base;
 		}
 
 		@Override
 		public TrailedAtom visit(Identifier n) {
 			if (this.base instanceof AttributeRef) {
-				return new AttributeRef(this.locInfo, (AttributeRef) this.base, n);
+				return new AttributeRef(this.lines, (AttributeRef) this.base, n);
 			}
-			return new AttributeRef(this.locInfo, this.base, n);
+			return new AttributeRef(this.lines, this.base, n);
 		}
 
 		@Override
 		public TrailedAtom visit(ArgList n) {
-			return new Call(this.locInfo, this.base, n);
+			return new Call(this.lines, this.base, n);
 		}
 
 		@Override
 		public TrailedAtom visit(SubscriptSliceList n) {
-			return new Slice(this.locInfo, this.base, n);
+			return new Slice(this.lines, this.base, n);
 		}
 	}
 
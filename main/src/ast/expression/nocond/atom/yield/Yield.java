@@ -1,12 +1,13 @@
 package ast.expression.nocond.atom.yield;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Atom;
 
 /**
  * Created by Nik on 24-06-2015
  */
 public abstract class Yield extends Atom {
-	public Yield( Integer locInfo) {
-		super(locInfo);
+	public Yield( LineSpan lines) {
+		super(lines);
 	}
 }
@@ -1,5 +1,6 @@
 package ast.expression.nocond.atom.yield;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -10,8 +11,8 @@ public class YieldFrom extends Yield {
 
 	private final Expr from;
 
-	public YieldFrom( Integer locInfo,  Expr from) {
-		super(locInfo);
+	public YieldFrom( LineSpan lines,  Expr from) {
+		super(lines);
 		this.from = from;
 	}
 
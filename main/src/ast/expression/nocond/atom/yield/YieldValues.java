@@ -1,6 +1,7 @@
 package ast.expression.nocond.atom.yield;
 
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.ExprList;
 
@@ -11,12 +12,12 @@ public class YieldValues extends Yield {
 
 	private final ExprList values;
 
-	public YieldValues( Integer locInfo) {
-		this(locInfo, null);
+	public YieldValues( LineSpan lines) {
+		this(lines, null);
 	}
 
-	public YieldValues( Integer locInfo, ExprList values) {
-		super(locInfo);
+	public YieldValues( LineSpan lines, ExprList values) {
+		super(lines);
 		this.values = values;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.bitwise;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.expression.Expr;
 import ast.expression.nocond.NonConditional;
 
@@ -12,8 +13,8 @@ public abstract class Bitwise extends NonConditional {
 
 	protected final List<Expr> operands;
 
-	public Bitwise(Integer locInfo, List<Expr> operands) {
-		super(locInfo);
+	public Bitwise(LineSpan lines, List<Expr> operands) {
+		super(lines);
 		this.operands = operands;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.bitwise;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -9,8 +10,8 @@ import ast.expression.Expr;
  * Created by Nik on 10-06-2015
  */
 public class Or extends Bitwise {
-	public Or( Integer locInfo,  List<Expr> operands) {
-		super(locInfo, operands);
+	public Or( LineSpan lines,  List<Expr> operands) {
+		super(lines, operands);
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package ast.expression.nocond.bitwise;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -12,8 +13,8 @@ public class Shift extends Bitwise {
 
 	private final List<String> operators;
 
-	public Shift( Integer locInfo,  List<Expr> operands,  List<String> operators) {
-		super(locInfo, operands);
+	public Shift( LineSpan lines,  List<Expr> operands,  List<String> operators) {
+		super(lines, operands);
 		this.operators = operators;
 	}
 
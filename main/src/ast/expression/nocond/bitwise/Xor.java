@@ -2,6 +2,7 @@ package ast.expression.nocond.bitwise;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -10,8 +11,8 @@ import ast.expression.Expr;
  */
 public class Xor extends Bitwise {
 
-	public Xor( Integer locInfo,  List<Expr> operands) {
-		super(locInfo, operands);
+	public Xor( LineSpan lines,  List<Expr> operands) {
+		super(lines, operands);
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package ast.expression.nocond.logical;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -13,8 +14,8 @@ public class Binary extends Logical {
 	private final List<Expr> operands;
 	private final String operator;
 
-	public Binary( Integer locInfo,  List<Expr> operands,  String operator) {
-		super(locInfo);
+	public Binary( LineSpan lines,  List<Expr> operands,  String operator) {
+		super(lines);
 		this.operands = operands;
 		this.operator = operator;
 	}
@@ -23,6 +24,10 @@ public class Binary extends Logical {
 		return this.operands;
 	}
 
+	public String getOperator() {
+		return this.operator;
+	}
+
 	@Override
 	public <T> T accept(Visitor<T> visitor) {
 		return visitor.visit(this);
@@ -2,6 +2,7 @@ package ast.expression.nocond.logical;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -13,8 +14,8 @@ public class Comparison extends Logical {
 	private final List<Expr> operands;
 	private final List<String> operators;
 
-	public Comparison( Integer locInfo,  List<Expr> operands,  List<String> operators) {
-		super(locInfo);
+	public Comparison( LineSpan lines,  List<Expr> operands,  List<String> operators) {
+		super(lines);
 
 		assert operands.size() - 1 == operators.size();
 
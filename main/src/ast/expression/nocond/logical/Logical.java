@@ -1,12 +1,13 @@
 package ast.expression.nocond.logical;
 
+import ast.LineSpan;
 import ast.expression.nocond.NonConditional;
 
 /**
  * Created by Nik on 10-06-2015
  */
 public abstract class Logical extends NonConditional {
-	public Logical( Integer locInfo) {
-		super(locInfo);
+	public Logical( LineSpan lines) {
+		super(lines);
 	}
 }
@@ -1,5 +1,6 @@
 package ast.expression.nocond.logical;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -10,8 +11,8 @@ public class Not extends Logical {
 
 	private final Expr expression;
 
-	public Not( Integer locInfo,  Expr expression) {
-		super(locInfo);
+	public Not( LineSpan lines,  Expr expression) {
+		super(lines);
 		this.expression = expression;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.trailer;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.argument.Argument;
 import ast.expression.nocond.NonConditional;
@@ -13,8 +14,8 @@ public class ArgList extends NonConditional implements Trailer {
 	
 	private final List<Argument> arguments;
 
-	public ArgList( Integer locInfo,  List<Argument> arguments) {
-		super(locInfo);
+	public ArgList( LineSpan lines,  List<Argument> arguments) {
+		super(lines);
 		this.arguments = arguments;
 	}
 
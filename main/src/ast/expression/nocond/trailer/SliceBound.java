@@ -1,5 +1,6 @@
 package ast.expression.nocond.trailer;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -12,8 +13,8 @@ public class SliceBound extends SubscriptSliceListElem {
 	private final Expr upperBound;
 	private final Expr stride;
 
-	public SliceBound( Integer locInfo, Expr lowerBound, Expr upperBound, Expr stride) {
-		super(locInfo);
+	public SliceBound( LineSpan lines, Expr lowerBound, Expr upperBound, Expr stride) {
+		super(lines);
 		this.lowerBound = lowerBound;
 		this.upperBound = upperBound;
 		this.stride = stride;
@@ -1,5 +1,6 @@
 package ast.expression.nocond.trailer;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -10,8 +11,8 @@ public class SubscriptIndex extends SubscriptSliceListElem {
 
 	private final Expr index;
 
-	public SubscriptIndex( Integer locInfo,  Expr index) {
-		super(locInfo);
+	public SubscriptIndex( LineSpan lines,  Expr index) {
+		super(lines);
 		this.index = index;
 	}
 
@@ -2,6 +2,7 @@ package ast.expression.nocond.trailer;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.NonConditional;
 
@@ -12,8 +13,8 @@ public class SubscriptSliceList extends NonConditional implements Trailer {
 
 	private final List<SubscriptSliceListElem> indexes;
 
-	public SubscriptSliceList( Integer locInfo, List<SubscriptSliceListElem> indexes) {
-		super(locInfo);
+	public SubscriptSliceList( LineSpan lines, List<SubscriptSliceListElem> indexes) {
+		super(lines);
 		this.indexes = indexes;
 	}
 
@@ -1,12 +1,13 @@
 package ast.expression.nocond.trailer;
 
+import ast.LineSpan;
 import ast.expression.nocond.NonConditional;
 
 /**
  * Created by Nik on 08-07-2015
  */
 public abstract class SubscriptSliceListElem extends NonConditional {
-	public SubscriptSliceListElem( Integer locInfo) {
-		super(locInfo);
+	public SubscriptSliceListElem( LineSpan lines) {
+		super(lines);
 	}
 }
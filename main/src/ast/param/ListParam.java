@@ -3,6 +3,7 @@ package ast.param;
 import java.util.ArrayList;
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -12,8 +13,8 @@ public class ListParam extends Param {
 
 	private final List<Param> params;
 
-	public ListParam( Integer locInfo,  List<Param> params) {
-		super(locInfo);
+	public ListParam( LineSpan lines,  List<Param> params) {
+		super(lines);
 		this.params = params;
 	}
 
@@ -3,6 +3,7 @@ package ast.param;
 import java.util.List;
 
 import ast.AstNode;
+import ast.LineSpan;
 import ast.expression.Expr;
 
 /**
@@ -12,8 +13,8 @@ public abstract class Param extends AstNode {
 
 	private Expr defaultVal;
 
-	public Param( Integer locInfo) {
-		super(locInfo);
+	public Param( LineSpan lines) {
+		super(lines);
 	}
 
 	public Expr getDefaultVal() {
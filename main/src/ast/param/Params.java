@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.List;
 
 import ast.AstNode;
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -16,12 +17,12 @@ public class Params extends AstNode {
 	private final Param positional;
 	private final Param keyword;
 
-	public Params( Integer locInfo) {
-		this(locInfo, Collections.emptyList(), null, null);
+	public Params( LineSpan lines) {
+		this(lines, Collections.emptyList(), null, null);
 	}
 
-	public Params( Integer locInfo,  List<Param> regular, Param positional, Param keyword) {
-		super(locInfo);
+	public Params( LineSpan lines,  List<Param> regular, Param positional, Param keyword) {
+		super(lines);
 		this.regular = regular;
 		this.positional = positional;
 		this.keyword = keyword;
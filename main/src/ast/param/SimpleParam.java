@@ -3,6 +3,7 @@ package ast.param;
 import java.util.ArrayList;
 import java.util.List;
 
+import ast.LineSpan;
 import ast.expression.nocond.atom.Identifier;
 
 /**
@@ -12,8 +13,8 @@ public abstract class SimpleParam extends Param {
 
 	private final Identifier id;
 
-	public SimpleParam( Integer locInfo, Identifier id) {
-		super(locInfo);
+	public SimpleParam( LineSpan lines, Identifier id) {
+		super(lines);
 		this.id = id;
 	}
 
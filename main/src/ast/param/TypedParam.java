@@ -1,5 +1,6 @@
 package ast.param;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.nocond.atom.Identifier;
@@ -10,8 +11,8 @@ import ast.expression.nocond.atom.Identifier;
 public class TypedParam extends SimpleParam {
 	private final Expr returnVal;
 
-	public TypedParam( Integer locInfo,  Identifier id,  Expr returnVal) {
-		super(locInfo, id);
+	public TypedParam( LineSpan lines,  Identifier id,  Expr returnVal) {
+		super(lines, id);
 		this.returnVal = returnVal;
 	}
 
@@ -1,5 +1,6 @@
 package ast.param;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.atom.Identifier;
 
@@ -8,8 +9,8 @@ import ast.expression.nocond.atom.Identifier;
  */
 public class UntypedParam extends SimpleParam {
 
-	public UntypedParam( Integer locInfo,  Identifier id) {
-		super(locInfo, id);
+	public UntypedParam( LineSpan lines,  Identifier id) {
+		super(lines, id);
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package ast.path;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import util.StringHelper;
 
@@ -13,8 +14,8 @@ public class DottedPath extends Path {
 	private final static String DELIMITER = ".";
 	private List<String> path;
 
-	public DottedPath( Integer locInfo,  List<String> path) {
-		super(locInfo);
+	public DottedPath( LineSpan lines,  List<String> path) {
+		super(lines);
 		this.path = path;
 	}
 
@@ -23,6 +24,10 @@ public class DottedPath extends Path {
 		this.path = prefixes;
 	}
 
+	public List<String> getNames() {
+		return this.path;
+	}
+
 	@Override
 	public String getPath() {
 		return StringHelper.implode(this.path, DELIMITER);
@@ -1,6 +1,7 @@
 package ast.path;
 
 import ast.AstNode;
+import ast.LineSpan;
 import ast.expression.nocond.atom.Identifier;
 
 /**
@@ -10,8 +11,8 @@ public abstract class Path extends AstNode {
 
 	private Identifier alias;
 
-	public Path( Integer locInfo) {
-		super(locInfo);
+	public Path( LineSpan lines) {
+		super(lines);
 	}
 
 	public Identifier getAlias() {
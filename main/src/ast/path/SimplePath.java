@@ -1,5 +1,6 @@
 package ast.path;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 /**
@@ -9,8 +10,8 @@ public class SimplePath extends Path {
 
 	private final String path;
 
-	public SimplePath( Integer locInfo,  String path) {
-		super(locInfo);
+	public SimplePath( LineSpan lines,  String path) {
+		super(lines);
 		this.path = path;
 	}
 
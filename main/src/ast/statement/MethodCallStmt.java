@@ -1,5 +1,6 @@
 package ast.statement;
 
+import ast.LineSpan;
 import ast.Visitor;
 
 import ast.expression.nocond.atom.Identifier;
@@ -18,8 +19,8 @@ public class MethodCallStmt extends Statement {
 	private final MethodCallStmt chained_method;
 	private final Function parent; 
 
-	public MethodCallStmt(Integer locInfo, Identifier name, ArgList arglist, Function parent, MethodCallStmt chain) {
-		super(locInfo);
+	public MethodCallStmt(LineSpan lines, Identifier name, ArgList arglist, Function parent, MethodCallStmt chain) {
+		super(lines);
 		this.name = name;
 		this.arguments = arglist;
 		this.parent = parent;
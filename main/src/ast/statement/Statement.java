@@ -1,12 +1,13 @@
 package ast.statement;
 
 import ast.AstNode;
+import ast.LineSpan;
 
 /**
  * Created by Nik on 25-05-2015
  */
 public abstract class Statement extends AstNode {
-	public Statement( Integer locInfo) {
-		super(locInfo);
+	public Statement( LineSpan lines) {
+		super(lines);
 	}
 }
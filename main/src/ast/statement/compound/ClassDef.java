@@ -4,6 +4,7 @@ import java.util.Collections;
 import java.util.List;
 
 import ast.Decorator;
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.argument.Argument;
@@ -20,8 +21,8 @@ public class ClassDef extends Statement {
 	private final List<Argument> inheritance;
 	private List<Decorator> decorators;
 
-	public ClassDef(Integer locInfo, Identifier name, Suite body, List<Argument> inheritance) {
-		super(locInfo);
+	public ClassDef(LineSpan lines, Identifier name, Suite body, List<Argument> inheritance) {
+		super(lines);
 		this.name = name;
 		this.body = body;
 		this.inheritance = inheritance;
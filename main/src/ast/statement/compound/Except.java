@@ -1,5 +1,6 @@
 package ast.statement.compound;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.statement.Statement;
@@ -12,8 +13,8 @@ public class Except extends Statement {
 	private final Expr exception;
 	private final Expr alias;
 
-	public Except( Integer locInfo, Expr exception, Expr alias) {
-		super(locInfo);
+	public Except( LineSpan lines, Expr exception, Expr alias) {
+		super(lines);
 		this.exception = exception;
 		this.alias = alias;
 	}
@@ -1,5 +1,6 @@
 package ast.statement.compound;
 
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.expression.ExprList;
@@ -15,8 +16,8 @@ public class For extends ast.statement.Statement {
 	private final Suite elseBody;
 	private Boolean async;
 
-	public For( Integer locInfo,  ExprList iterator,  ExprList source,  Suite body, Suite elseBody) {
-		super(locInfo);
+	public For( LineSpan lines,  ExprList iterator,  ExprList source,  Suite body, Suite elseBody) {
+		super(lines);
 		this.iterator = iterator;
 		this.source = source;
 		this.body = body;
@@ -4,6 +4,7 @@ import java.util.Collections;
 import java.util.List;
 
 import ast.Decorator;
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.expression.Expr;
@@ -20,15 +21,20 @@ public class Function extends Statement {
 	private final Expr returnType;
 	private final Suite body;
 	private final Params params;
+	private final int complexity;
 	private Boolean async;
 	private List<Decorator> decorators;
 
-	public Function( Integer locInfo,  Identifier name, Expr returnType,  Suite body,  Params params) {
-		super(locInfo);
+	/**
+	 * @param complexity cyclomatic complexity, counting the decision points of nested functions and classes too
+	 */
+	public Function( LineSpan lines,  Identifier name, Expr returnType,  Suite body,  Params params, int complexity) {
+		super(lines);
 		this.name = name;
 		this.returnType = returnType;
 		this.body = body;
 		this.params = params;
+		this.complexity = complexity;
 		this.decorators = Collections.emptyList();
 		this.async = false;
 	}
@@ -49,6 +55,10 @@ public class Function extends Statement {
 		return this.params;
 	}
 
+	public int getComplexity() {
+		return this.complexity;
+	}
+
 	public List<Decorator> getDecorators() {
 		return this.decorators;
 	}
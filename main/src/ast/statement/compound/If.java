@@ -2,6 +2,7 @@ package ast.statement.compound;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.expression.Expr;
@@ -16,8 +17,8 @@ public class If extends Statement {
 	private final List<Suite> bodies;
 	private final Suite elseBody;
 
-	public If( Integer locInfo,  List<Expr> conditions,  List<Suite> condBodies, Suite elseBody) {
-		super(locInfo);
+	public If( LineSpan lines,  List<Expr> conditions,  List<Suite> condBodies, Suite elseBody) {
+		super(lines);
 
 		this.conditions = conditions;
 		this.bodies = condBodies;
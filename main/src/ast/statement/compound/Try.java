@@ -2,6 +2,7 @@ package ast.statement.compound;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.statement.Statement;
@@ -17,9 +18,9 @@ public class Try extends Statement {
 	private final Suite elseBlock;
 	private final Suite finallyBlock;
 
-	public Try( Integer locInfo,  Suite tryBlock,  List<Except> exceptions,
+	public Try( LineSpan lines,  Suite tryBlock,  List<Except> exceptions,
 	            List<Suite> exceptBodies, Suite elseBlock, Suite finallyBlock) {
-		super(locInfo);
+		super(lines);
 		this.tryBlock = tryBlock;
 		this.exceptions = exceptions;
 		this.exceptBodies = exceptBodies;
@@ -1,5 +1,6 @@
 package ast.statement.compound;
 
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.expression.Expr;
@@ -14,8 +15,8 @@ public class While extends Statement {
 	private final Suite body;
 	private final Suite elseBody;
 
-	public While( Integer locInfo,  Expr condition,  Suite body, Suite elseBody) {
-		super(locInfo);
+	public While( LineSpan lines,  Expr condition,  Suite body, Suite elseBody) {
+		super(lines);
 		this.condition = condition;
 		this.body = body;
 		this.elseBody = elseBody;
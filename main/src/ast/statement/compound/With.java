@@ -2,6 +2,7 @@ package ast.statement.compound;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Suite;
 import ast.Visitor;
 import ast.statement.Statement;
@@ -15,8 +16,8 @@ public class With extends Statement {
 	private final Suite body;
 	private Boolean async;
 
-	public With( Integer locInfo,  List<WithItem> items,  Suite body) {
-		super(locInfo);
+	public With( LineSpan lines,  List<WithItem> items,  Suite body) {
+		super(lines);
 		this.items = items;
 		this.body = body;
 		this.async = false;
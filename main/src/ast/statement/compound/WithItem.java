@@ -1,5 +1,6 @@
 package ast.statement.compound;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.statement.Statement;
@@ -12,8 +13,8 @@ public class WithItem extends Statement {
 	private final Expr item;
 	private final Expr alias;
 
-	public WithItem( Integer locInfo,  Expr item, Expr alias) {
-		super(locInfo);
+	public WithItem( LineSpan lines,  Expr item, Expr alias) {
+		super(lines);
 		this.item = item;
 		this.alias = alias;
 	}
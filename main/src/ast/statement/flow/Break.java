@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.statement.Statement;
 
@@ -7,8 +8,8 @@ import ast.statement.Statement;
  * Created by Nik on 25-05-2015
  */
 public class Break extends Statement {
-	public Break( Integer locInfo) {
-		super(locInfo);
+	public Break( LineSpan lines) {
+		super(lines);
 	}
 
 	@Override
@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.statement.Statement;
 
@@ -7,8 +8,8 @@ import ast.statement.Statement;
  * Created by Nik on 15-06-2015
  */
 public class Continue extends Statement {
-	public Continue( Integer locInfo) {
-		super(locInfo);
+	public Continue( LineSpan lines) {
+		super(lines);
 	}
 
 	@Override
@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.expression.Expr;
 import ast.statement.Statement;
 
@@ -10,8 +11,8 @@ public abstract class Raise extends Statement {
 
 	protected final Expr type;
 
-	public Raise( Integer locInfo, Expr type) {
-		super(locInfo);
+	public Raise( LineSpan lines, Expr type) {
+		super(lines);
 		this.type = type;
 	}
 
@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -11,8 +12,8 @@ public class RaiseEx extends Raise {
 	private final Expr value;
 	private final Expr trace;
 
-	public RaiseEx( Integer locInfo, Expr type, Expr value, Expr trace) {
-		super(locInfo, type);
+	public RaiseEx( LineSpan lines, Expr type, Expr value, Expr trace) {
+		super(lines, type);
 		this.value = value;
 		this.trace = trace;
 	}
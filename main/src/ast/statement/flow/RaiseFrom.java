@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 
@@ -10,8 +11,8 @@ public class RaiseFrom extends Raise {
 
 	private final Expr source;
 
-	public RaiseFrom( Integer locInfo, Expr type, Expr source) {
-		super(locInfo, type);
+	public RaiseFrom( LineSpan lines, Expr type, Expr source) {
+		super(lines, type);
 		this.source = source;
 	}
 
@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.ExprList;
 
@@ -10,12 +11,12 @@ public class Return extends ast.statement.Statement {
 
 	private final ExprList values;
 
-	public Return( Integer locInfo) {
-		this(locInfo, null);
+	public Return( LineSpan lines) {
+		this(lines, null);
 	}
 
-	public Return( Integer locInfo, ExprList values) {
-		super(locInfo);
+	public Return( LineSpan lines, ExprList values) {
+		super(lines);
 		this.values = values;
 	}
 
@@ -1,5 +1,6 @@
 package ast.statement.flow;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.statement.Statement;
 
@@ -10,8 +11,8 @@ public class Yield extends Statement {
 
 	private final ast.expression.nocond.atom.yield.Yield yield;
 
-	public Yield( Integer locInfo, ast.expression.nocond.atom.yield.Yield yield) {
-		super(locInfo);
+	public Yield( LineSpan lines, ast.expression.nocond.atom.yield.Yield yield) {
+		super(lines);
 		this.yield = yield;
 	}
 
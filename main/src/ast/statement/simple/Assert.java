@@ -1,5 +1,6 @@
 package ast.statement.simple;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.statement.Statement;
@@ -12,12 +13,12 @@ public class Assert extends Statement {
 	private final Expr assertion;
 	private final Expr assertionError;
 
-	public Assert( Integer locInfo,  Expr assertion) {
-		this(locInfo, assertion, null);
+	public Assert( LineSpan lines,  Expr assertion) {
+		this(lines, assertion, null);
 	}
 
-	public Assert( Integer locInfo,  Expr assertion, Expr assertionError) {
-		super(locInfo);
+	public Assert( LineSpan lines,  Expr assertion, Expr assertionError) {
+		super(lines);
 		this.assertion = assertion;
 		this.assertionError = assertionError;
 	}
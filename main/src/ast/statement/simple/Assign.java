@@ -2,6 +2,7 @@ package ast.statement.simple;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.ExprList;
 import ast.expression.nocond.atom.yield.Yield;
@@ -15,8 +16,8 @@ public class Assign extends ast.statement.Statement {
 	private final String operator;
 	private final List<ExprList> exprElements;
 
-	public Assign( Integer locInfo,  String operator,  List<ExprList> exprElements,  List<Yield> yieldElements) {
-		super(locInfo);
+	public Assign( LineSpan lines,  String operator,  List<ExprList> exprElements,  List<Yield> yieldElements) {
+		super(lines);
 		this.operator = operator;
 		this.exprElements = exprElements;
 		this.yieldElements = yieldElements;
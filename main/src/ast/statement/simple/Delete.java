@@ -1,5 +1,6 @@
 package ast.statement.simple;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.ExprList;
 
@@ -10,8 +11,8 @@ public class Delete extends ast.statement.Statement {
 
 	private final ExprList items;
 
-	public Delete( Integer locInfo,  ExprList items) {
-		super(locInfo);
+	public Delete( LineSpan lines,  ExprList items) {
+		super(lines);
 		this.items = items;
 	}
 
@@ -1,5 +1,6 @@
 package ast.statement.simple;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.statement.Statement;
@@ -13,8 +14,8 @@ public class Exec extends Statement {
 	private final Expr vars;
 	private final Expr localVars;
 
-	public Exec( Integer locInfo,  Expr target, Expr vars, Expr localVars) {
-		super(locInfo);
+	public Exec( LineSpan lines,  Expr target, Expr vars, Expr localVars) {
+		super(lines);
 		this.target = target;
 		this.vars = vars;
 		this.localVars = localVars;
@@ -2,6 +2,7 @@ package ast.statement.simple;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.nocond.atom.Identifier;
 import ast.statement.Statement;
@@ -13,8 +14,8 @@ public class Global extends Statement {
 
 	private final List<Identifier> identifiers;
 
-	public Global( Integer locInfo,  List<Identifier> identifiers) {
-		super(locInfo);
+	public Global( LineSpan lines,  List<Identifier> identifiers) {
+		super(lines);
 		this.identifiers = identifiers;
 	}
 
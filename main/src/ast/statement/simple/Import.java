@@ -2,6 +2,7 @@ package ast.statement.simple;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.path.Path;
 import ast.statement.Statement;
 
@@ -12,8 +13,8 @@ public abstract class Import extends Statement {
 
 	protected final List<Path> paths;
 
-	public Import( Integer locInfo,  List<Path> paths) {
-		super(locInfo);
+	public Import( LineSpan lines,  List<Path> paths) {
+		super(lines);
 		this.paths = paths;
 	}
 
@@ -2,6 +2,7 @@ package ast.statement.simple;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.path.Path;
 
@@ -12,8 +13,8 @@ public class ImportFrom extends Import {
 
 	private final Path module;
 
-	public ImportFrom( Integer locInfo,  List<Path> paths,  Path module) {
-		super(locInfo, paths);
+	public ImportFrom( LineSpan lines,  List<Path> paths,  Path module) {
+		super(lines, paths);
 		this.module = module;
 	}
 
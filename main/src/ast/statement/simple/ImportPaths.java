@@ -2,6 +2,7 @@ package ast.statement.simple;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.path.Path;
 
@@ -10,8 +11,8 @@ import ast.path.Path;
  */
 public class ImportPaths extends Import {
 
-    public ImportPaths( Integer locInfo,  List<Path> paths) {
-        super(locInfo, paths);
+    public ImportPaths( LineSpan lines,  List<Path> paths) {
+        super(lines, paths);
     }
 
     @Override
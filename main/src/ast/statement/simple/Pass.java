@@ -1,5 +1,6 @@
 package ast.statement.simple;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.statement.Statement;
 
@@ -7,8 +8,8 @@ import ast.statement.Statement;
  * Created by Nik on 25-05-2015
  */
 public class Pass extends Statement {
-	public Pass( Integer locInfo) {
-		super(locInfo);
+	public Pass( LineSpan lines) {
+		super(lines);
 	}
 
 	@Override
@@ -2,6 +2,7 @@ package ast.statement.simple;
 
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.statement.Statement;
@@ -13,8 +14,8 @@ public class Print extends Statement {
 
 	private final List<Expr> expressions;
 
-	public Print( Integer locInfo,  List<Expr> expressions) {
-		super(locInfo);
+	public Print( LineSpan lines,  List<Expr> expressions) {
+		super(lines);
 		this.expressions = expressions;
 	}
 
@@ -3,6 +3,7 @@ package ast.statement.simple;
 import java.util.ArrayList;
 import java.util.List;
 
+import ast.LineSpan;
 import ast.Visitor;
 import ast.expression.Expr;
 import ast.expression.nocond.trailer.ArgList;
@@ -26,12 +27,12 @@ public class SuperStmt extends Statement {
 	private final Trailer trail; 
 	private final List<Expr> trailers;
 	
-	public SuperStmt( Integer locInfo, ArgList superArg) {
-		this(locInfo, superArg, null, null);
+	public SuperStmt( LineSpan lines, ArgList superArg) {
+		this(lines, superArg, null, null);
 	}
 	
-	public SuperStmt( Integer locInfo, ArgList superArg, Function f, MethodCallStmt chain) {
-		super(locInfo);
+	public SuperStmt( LineSpan lines, ArgList superArg, Function f, MethodCallStmt chain) {
+		super(lines);
 		caller = f;
 		superArgs = superArg;
 		methodCalled = chain;
@@ -40,8 +41,8 @@ public class SuperStmt extends Statement {
 	}
 	
 
-	public SuperStmt(Integer locInfo, Trailer trailer, List<Expr> exprs) {
-		super(locInfo);
+	public SuperStmt(LineSpan lines, Trailer trailer, List<Expr> exprs) {
+		super(lines);
 		this.trailers = exprs;
 		this.trail = trailer;
 		this.superArgs = null;
@@ -27,10 +27,14 @@ import analysis.detector.RefusedBequestDetector;
 import ast.Module;
 import model.ModelBuilder;
 import model.Project;
+import process.DfaCache;
 import process.File2Tree;
 import process.GitLocationProcessor;
+import process.ParseStats;
 import util.DebuggingLogger;
 import util.FileHelper;
+import util.GitRevision;
+import util.ProjectArchive;
 import util.Settings;
 
 public class Main {
@@ -50,6 +54,7 @@ public class Main {
 	private static final long  MEGABYTE = 1024L * 1024L;
 	private static boolean printTimestamp = false;
 	private static int memoryUpdateFreq = 10;
+	private static String revision;
 
 	public static void main(String[] args) throws IOException {
 		long startTime = System.currentTimeMillis();
@@ -92,8 +97,15 @@ public class Main {
 		boolean processLogging = propertyToBoolean("processing.keeplog", config);
 		boolean forceReprocess = propertyToBoolean("processing.reprocess", config);
 		boolean skipProcessed = propertyToBoolean("processing.skip", config);
+		revision = config.getProperty("processing.revision", "").trim();
+		if (revision.isEmpty()) {
+			revision = null;
+		}
+		else {
+			printMain("Analysing revision " + revision + " of git repositories.");
+		}
 		
-		long totalProjects = Arrays.asList(projectsFolder.listFiles()).parallelStream().filter((f) -> f.isDirectory())
+		long totalProjects = Arrays.asList(projectsFolder.listFiles()).parallelStream().filter(Main::isProject)
 				.count();
 		processedProjectsLoc = config.getProperty("locations.data.outputProjects");
 
@@ -109,7 +121,7 @@ public class Main {
 		
 		printMain("Processing projects...");
 		for (File file : projectsFolder.listFiles()) {
-			if (file.isDirectory() && (!filterEnabled || projects.contains(file.getAbsolutePath()))) {
+			if (Main.isProject(file) && (!filterEnabled || projects.contains(file.getAbsolutePath()))) {
 				long startProject = System.currentTimeMillis();
 				loopCounter++;
 				out.flush();
@@ -156,6 +168,8 @@ public class Main {
 			}
 		}
 		printMain("Finished processing projects.");
+		printMain(ParseStats.getInstance().summary());
+		DfaCache.saveSnapshot();
 
 		CsvCreator csvCreator = new CsvCreator(config.getProperty("locations.data.results"));
 		csvCreator.createStream(CSV_NAME, "Project", "Url", "Location", "Defect");
@@ -368,6 +382,13 @@ public class Main {
 		runGarbageCollection();
 	}
 
+	/**
+	 * @return whether the file is a project folder or a .zip or .tar.gz archive of a project
+	 */
+	private static boolean isProject(File file) {
+		return file.isDirectory() || ProjectArchive.isArchive(file);
+	}
+
 	private static void runGarbageCollection() {
 		long preGC = Runtime.getRuntime().totalMemory() / MEGABYTE;
 		System.gc();
@@ -440,10 +461,18 @@ public class Main {
 	 * @param File object which contains the path to the project folder
 	 * @return Project object after processing the files.
 	 */
-	private static Project createProject(File projectFolder) {
-		List<String> allFiles = FileHelper.getPythonFilePaths(projectFolder);
-		Map<String, Module> trees = File2Tree.getAsts(allFiles);
-		ModelBuilder mb = new ModelBuilder(projectFolder, trees.values());
+	private static Project createProject(File projectFolder) throws IOException {
+		if (revision != null && GitRevision.isRepository(projectFolder)) {
+			try (GitRevision gitRevision = new GitRevision(projectFolder, revision)) {
+				Map<String, Module> trees = File2Tree.getRevisionAsts(gitRevision);
+				return new ModelBuilder(projectFolder, revision, trees.values()).getProject();
+			}
+		}
+		if (ProjectArchive.isArchive(projectFolder)) {
+			Map<String, Module> trees = File2Tree.getProjectAsts(projectFolder);
+			return new ModelBuilder(projectFolder, trees.values()).getProject();
+		}
+		ModelBuilder mb = new ModelBuilder(projectFolder, File2Tree.streamAsts(FileHelper.getPythonFilePaths(projectFolder)));
 		return mb.getProject();
 	}
 
@@ -0,0 +1,222 @@
+package main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import gen.PythonLexer;
+import util.ProjectArchive;
+import util.StringHelper;
+
+/**
+ * Parse results of a corpus: throughput, latency histogram, slowest files and failures grouped by reason.
+ */
+public class ParseHealthReport {
+
+	private static final long[] HISTOGRAM_BOUNDS = { 10, 50, 100, 250, 500, 1000, 5000 };
+
+	private final List<FileResult> results = new ArrayList<>();
+	private long wallMillis;
+
+	public synchronized void add(FileResult result) {
+		this.results.add(result);
+	}
+
+	/**
+	 * Sets the time the whole corpus took and orders the results by path, as parallel parses finish in any order.
+	 */
+	public synchronized void finish(long wallMillis) {
+		this.wallMillis = wallMillis;
+		this.results.sort(Comparator.comparing(FileResult::getPath));
+	}
+
+	public synchronized List<FileResult> getFailures() {
+		List<FileResult> failures = new ArrayList<>();
+		for (FileResult result : this.results) {
+			if (result.getReason() != null) {
+				failures.add(result);
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * Prints the report.
+	 * @param out stream to print to
+	 * @param slowest amount of slowest files to list
+	 */
+	public synchronized void print(PrintStream out, int slowest) {
+		List<FileResult> failures = this.getFailures();
+		double seconds = this.wallMillis / 1000.0;
+		out.println(String.format(Locale.ROOT, "Parsed %d files in %.1f s (%.1f files/s), %d failed (%.1f%% parsable)",
+				this.results.size(), seconds, seconds == 0 ? 0 : this.results.size() / seconds, failures.size(),
+				this.results.isEmpty() ? 0 : 100.0 * (this.results.size() - failures.size()) / this.results.size()));
+
+		out.println("Latency histogram:");
+		int[] buckets = new int[HISTOGRAM_BOUNDS.length + 1];
+		for (FileResult result : this.results) {
+			int bucket = 0;
+			while (bucket < HISTOGRAM_BOUNDS.length && result.getMillis() >= HISTOGRAM_BOUNDS[bucket]) {
+				bucket++;
+			}
+			buckets[bucket]++;
+		}
+		for (int i = 0; i < buckets.length; i++) {
+			String label = i < HISTOGRAM_BOUNDS.length ? "< " + HISTOGRAM_BOUNDS[i] + " ms" : ">= " + HISTOGRAM_BOUNDS[i - 1] + " ms";
+			out.println(String.format(Locale.ROOT, "  %-10s %6d", label, buckets[i]));
+		}
+
+		out.println("Slowest files:");
+		List<FileResult> sorted = new ArrayList<>(this.results);
+		sorted.sort(Comparator.comparingLong(FileResult::getMillis).reversed());
+		for (FileResult result : sorted.subList(0, Math.min(slowest, sorted.size()))) {
+			out.println(String.format(Locale.ROOT, "  %8d ms  %s%s", result.getMillis(), result.getPath(),
+					result.getReason() == null ? "" : " (" + result.getReason() + ")"));
+		}
+
+		out.println("Failures by reason:");
+		for (Map.Entry<String, List<FileResult>> group : ParseHealthReport.groupByReason(failures)) {
+			out.println(String.format(Locale.ROOT, "  %6d  %s (e.g. %s)", group.getValue().size(), group.getKey(),
+					group.getValue().get(0).getPath()));
+		}
+	}
+
+	/**
+	 * Writes one line per file to a csv stream.
+	 */
+	public synchronized void write(CsvCreator csvCreator, String streamId) throws IOException {
+		csvCreator.createStream(streamId, "File", "Millis", "Reason");
+		for (FileResult result : this.results) {
+			csvCreator.addLine(streamId, result.getPath(), String.valueOf(result.getMillis()),
+					result.getReason() == null ? "" : result.getReason());
+		}
+	}
+
+	/**
+	 * Copies the unparsable files to the destination, each distinct content only once. The copies are named after
+	 * a hash of the contents and the original file name. Files in archives are read through the archive, files that
+	 * cannot be read anymore are reported on the error stream.
+	 * @param destination folder to copy to
+	 * @return amount of copied files
+	 */
+	public int copyFailures(String destination) throws IOException {
+		Path folder = Paths.get(destination);
+		Files.createDirectories(folder);
+		Set<String> copied = new HashSet<>();
+		int skipped = 0;
+		for (FileResult failure : this.getFailures()) {
+			byte[] bytes;
+			try {
+				bytes = ParseHealthReport.readBytes(failure.getPath());
+			}
+			catch (IOException e) {
+				System.err.println("Could not copy " + failure.getPath() + ": " + e.getMessage());
+				skipped++;
+				continue;
+			}
+			String hash = ParseHealthReport.sha1(bytes);
+			if (copied.add(hash)) {
+				Path target = folder.resolve(hash.substring(0, 12) + "_" + Paths.get(failure.getPath()).getFileName());
+				Files.write(target, bytes);
+			}
+		}
+		if (skipped > 0) {
+			System.err.println("Skipped " + skipped + " unparsable files that could not be read");
+		}
+		return copied.size();
+	}
+
+	/**
+	 * @return the raw contents of a file on disk or in a project archive
+	 */
+	private static byte[] readBytes(String path) throws IOException {
+		Path file = Paths.get(path);
+		if (!Files.isRegularFile(file)) {
+			byte[] entry = ProjectArchive.readEntry(path);
+			if (entry != null) {
+				return entry;
+			}
+		}
+		return Files.readAllBytes(file);
+	}
+
+	private static List<Map.Entry<String, List<FileResult>>> groupByReason(List<FileResult> failures) {
+		Map<String, List<FileResult>> groups = new LinkedHashMap<>();
+		for (FileResult failure : failures) {
+			groups.computeIfAbsent(failure.getReason(), k -> new ArrayList<>()).add(failure);
+		}
+		List<Map.Entry<String, List<FileResult>>> sorted = new ArrayList<>(groups.entrySet());
+		sorted.sort(Comparator.comparingInt((Map.Entry<String, List<FileResult>> e) -> e.getValue().size()).reversed());
+		return sorted;
+	}
+
+	/**
+	 * @param ex the exception or error of a failed parse
+	 * @return the exception name, for syntax errors followed by the type of the first offending token
+	 */
+	public static String reason(Throwable ex) {
+		Throwable cause = ex instanceof ParseCancellationException && ex.getCause() != null ? ex.getCause() : ex;
+		String reason = cause.getClass().getSimpleName();
+		if (cause instanceof RecognitionException && ((RecognitionException) cause).getOffendingToken() != null) {
+			Token token = ((RecognitionException) cause).getOffendingToken();
+			reason += " at " + PythonLexer.VOCABULARY.getDisplayName(token.getType());
+		}
+		return reason;
+	}
+
+	private static String sha1(byte[] bytes) {
+		try {
+			return StringHelper.toHex(MessageDigest.getInstance("SHA-1").digest(bytes));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Outcome of parsing one file.
+	 */
+	public static class FileResult {
+
+		private final String path;
+		private final long millis;
+		private final String reason;
+
+		/**
+		 * @param reason failure reason, null when the file was parsed
+		 */
+		public FileResult(String path, long millis, String reason) {
+			this.path = path;
+			this.millis = millis;
+			this.reason = reason;
+		}
+
+		public String getPath() {
+			return this.path;
+		}
+
+		public long getMillis() {
+			return this.millis;
+		}
+
+		public String getReason() {
+			return this.reason;
+		}
+	}
+}
@@ -4,15 +4,20 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import org.antlr.v4.runtime.ParserRuleContext;
-
-import process.File2Tree;
+import process.DecisionProfiler;
+import process.DfaCache;
+import process.ParseStats;
+import process.ParserPool;
+import process.ParserSettings;
 import util.FileHelper;
 import util.Settings;
 
@@ -21,8 +26,15 @@ import util.Settings;
  */
 public class ParserChecker {
 
+	private static final String PROFILE_FLAG = "--profile";
+	private static final int PROFILE_TOP = 20;
+	private static final String PROFILE_STREAM = "decision_profile";
+	private static final int REPORT_SLOWEST = 20;
+	private static final String REPORT_STREAM = "parser_check";
+
 	/**
-	 * Collects files that are unparsable with grammar for later inspection.
+	 * Collects files that are unparsable with grammar for later inspection, each distinct file is copied once.
+	 * With --profile, the parser decisions are profiled and ranked in a report in the results folder.
 	 * @param args
 	 * @throws IOException
 	 */
@@ -37,37 +49,119 @@ public class ParserChecker {
 		System.setOut(out);
 		System.setErr(err);
 		
+		List<String> arguments = new ArrayList<>(Arrays.asList(args));
+		boolean profile = arguments.remove(PROFILE_FLAG);
+		if (profile) {
+			DecisionProfiler.enable();
+		}
+
 		// if arguments are empty try to fallback to config
-		if (args.length == 0 ) {
-			ParserChecker.collectUnparsable(config.getProperty("locations.data.input"), config.getProperty("locations.data.unparsable"));
+		String results = config.getProperty("locations.data.results");
+		if (arguments.isEmpty()) {
+			ParserChecker.collectUnparsable(config.getProperty("locations.data.input"), config.getProperty("locations.data.unparsable"), results);
 		} else {
-			ParserChecker.collectUnparsable(args[0], args.length == 2 ? args[1] : null);		
+			ParserChecker.collectUnparsable(arguments.get(0), arguments.size() == 2 ? arguments.get(1) : null, results);
+		}
+
+		if (profile) {
+			ParserChecker.writeProfile(results);
 		}
 	}
 
-	private static void collectUnparsable(String path, String destination) {
+	/**
+	 * Parses all python files below the path on "parsing.threads" threads and prints a report of the throughput,
+	 * latencies and failures. The report is also written per file to a csv file in the results folder.
+	 */
+	private static void collectUnparsable(String path, String destination, String resultsFolder) throws IOException {
 		List<String> allFiles = FileHelper.getPythonFilePaths(new File(path));
-		int i = 0;
-		for (String fileName : allFiles) {
-			System.out.println(fileName);
+		ParseHealthReport report = new ParseHealthReport();
+		int threads = ParserSettings.getInstance().getParserThreads();
+
+		long start = System.currentTimeMillis();
+		if (threads <= 1) {
+			for (String fileName : allFiles) {
+				report.add(ParserChecker.check(fileName));
+			}
+		}
+		else {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			for (String fileName : allFiles) {
+				executor.execute(() -> report.add(ParserChecker.check(fileName)));
+			}
+			executor.shutdown();
 			try {
-				ParserRuleContext context = File2Tree.getParseTree(fileName);
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
 			}
-			catch (Exception ex) {
-				ParserChecker.handleException(ex);
-				if (destination != null) {
-					try {
-						Files.copy(Paths.get(fileName), Paths.get(destination + "\\file_" + (i++) + ".py"), StandardCopyOption.REPLACE_EXISTING);
-					}
-					catch (IOException e) {
-						ParserChecker.handleException(e);
-					}
-				}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
 		}
+		report.finish(System.currentTimeMillis() - start);
+
+		report.print(System.out, REPORT_SLOWEST);
+		System.out.println(ParseStats.getInstance().summary());
+		if (destination != null) {
+			System.out.println("Copied " + report.copyFailures(destination) + " distinct unparsable files to " + destination);
+		}
+		CsvCreator csvCreator = new CsvCreator(resultsFolder);
+		report.write(csvCreator, REPORT_STREAM);
+		csvCreator.close();
+		DfaCache.saveSnapshot();
+	}
+
+	private static ParseHealthReport.FileResult check(String fileName) {
+		long start = System.nanoTime();
+		String reason = null;
+		try {
+			ParserPool.parse(fileName);
+		}
+		//errors like a StackOverflowError of a deeply nested file are failures of the file too, in parallel mode the
+		//executor would swallow them and the file would be missing from the report
+		catch (Throwable ex) {
+			System.err.println(fileName);
+			ParserChecker.handleException(ex);
+			reason = ParseHealthReport.reason(ex);
+		}
+		return new ParseHealthReport.FileResult(fileName, (System.nanoTime() - start) / 1000000, reason);
+	}
+
+	/**
+	 * Writes all profiled decisions, ranked by prediction time, to a csv file and prints the top of the ranking.
+	 */
+	private static void writeProfile(String folder) throws IOException {
+		DecisionProfiler profiler = DecisionProfiler.getInstance();
+		List<DecisionProfiler.Decision> ranking = profiler.getRanking();
+		long total = profiler.getTotalTime();
+
+		CsvCreator csvCreator = new CsvCreator(folder);
+		csvCreator.createStream(PROFILE_STREAM, "Rank", "Decision", "Rule", "AtnState", "Invocations", "TimeMs", "TimeShare",
+				"SllAvgLook", "SllMaxLook", "LlFallbacks", "LlAvgLook", "LlMaxLook", "LlMaxLookAt",
+				"Ambiguities", "ContextSensitivities", "Errors");
+		System.out.println("Decisions by prediction time (total " + total / 1000000 + " ms):");
+		for (int i = 0; i < ranking.size(); i++) {
+			DecisionProfiler.Decision d = ranking.get(i);
+			double share = total == 0 ? 0 : (double) d.getTimeInPrediction() / total;
+			csvCreator.addLine(PROFILE_STREAM, String.valueOf(i + 1), String.valueOf(d.getDecision()), d.getRule(),
+					String.valueOf(d.getAtnState()), String.valueOf(d.getInvocations()),
+					ParserChecker.format(d.getTimeInPrediction() / 1000000.0), ParserChecker.format(share),
+					ParserChecker.format(d.getSllAverageLook()), String.valueOf(d.getSllMaxLook()),
+					String.valueOf(d.getLlFallbacks()), ParserChecker.format(d.getLlAverageLook()),
+					String.valueOf(d.getLlMaxLook()), d.getLlMaxLookLocation() == null ? "" : d.getLlMaxLookLocation(),
+					String.valueOf(d.getAmbiguities()), String.valueOf(d.getContextSensitivities()), String.valueOf(d.getErrors()));
+			if (i < PROFILE_TOP) {
+				System.out.println(String.format(Locale.ROOT, "%3d. %-20s decision %3d  %8.1f ms %5.1f%%  SLL max %3d  LL fallbacks %6d max %3d  ambiguities %5d",
+						i + 1, d.getRule(), d.getDecision(), d.getTimeInPrediction() / 1000000.0, share * 100,
+						d.getSllMaxLook(), d.getLlFallbacks(), d.getLlMaxLook(), d.getAmbiguities()));
+			}
+		}
+		csvCreator.close();
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.4f", value);
 	}
 
-	private static void handleException(Exception ex) {
+	private static void handleException(Throwable ex) {
 		System.err.println("EXCEPTION: " + ex.getMessage());
 		ex.printStackTrace();
 	}
@@ -10,7 +10,6 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
-import ast.Module;
 import model.Class;
 import model.ModelBuilder;
 import model.Project;
@@ -93,9 +92,8 @@ public class StatsCsvCreator extends CsvCreator {
 		System.out.println("Name: " + projectFolder.getAbsolutePath());
 		try {
 			List<String> allFiles = FileHelper.getPythonFilePaths(projectFolder);
-			Map<String, Module> trees = File2Tree.getAsts(allFiles);
-			ModelBuilder mb = new ModelBuilder(projectFolder, trees.values());
-			Project project = mb.getProject();
+			Project project = new Project(projectFolder);
+			new ModelBuilder(project, File2Tree.streamModels(project, allFiles));
 			String link = this.gitLocs.getLink(project.getPath());
 
 			Long loc = 0L;
@@ -0,0 +1,44 @@
+package main;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Properties;
+
+import util.FileHelper;
+import util.Settings;
+
+/**
+ * Estimates the stats of StatsCollector from the tokens of the projects only, so projects can be filtered with
+ * FilterAssistant before they are fully parsed.
+ */
+public class TriageCollector {
+
+	/**
+	 * Aggregates estimated stats from projects
+	 * @param args
+	 * @throws IOException
+	 */
+	//args[0] = the config name
+	public static void main(String[] args) throws IOException {
+		Properties config = null;
+		if (args.length > 0 && args[0] != null) {
+			config = Settings.getConfig(args[0]);
+		} else {
+			config = Settings.getConfig();
+		}
+
+		PrintStream err = new PrintStream(new FileOutputStream(FileHelper.stampedFileName(config.getProperty("locations.log.error"), "err", "log")));
+		System.setErr(err);
+
+		File sourceFolder = new File(config.getProperty("locations.data.input"));
+		List<File> subfolders = FileHelper.getSubfolders(sourceFolder);
+		long start = System.currentTimeMillis();
+		TriageCsvCreator triageCsvCreator = new TriageCsvCreator(subfolders, config);
+		triageCsvCreator.createTriageCsv();
+		triageCsvCreator.close();
+		System.out.println("Triaged " + subfolders.size() + " projects in " + (System.currentTimeMillis() - start) + " ms");
+	}
+}
@@ -0,0 +1,104 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import process.GitLocationProcessor;
+import process.LexerTriage;
+import process.ParserSettings;
+import util.FileHelper;
+import util.SourceFile;
+
+/**
+ * Writes the module and project stats of StatsCsvCreator, estimated from the tokens of the modules instead of their
+ * models (see {@link LexerTriage}). The project stats have the layout FilterAssistant reads, followed by the counts
+ * of functions and imports. The projects are lexed on "parsing.threads" threads.
+ */
+public class TriageCsvCreator extends CsvCreator {
+
+	private static final String MODULE_STREAM_NAME = "module_triage";
+	private static final String PROJECT_STREAM_NAME = "project_triage";
+
+	private final List<File> projectFolders;
+	private final GitLocationProcessor gitLocs;
+
+	public TriageCsvCreator(List<File> projectFolders, Properties config) {
+		super(config.getProperty("locations.data.results"));
+		this.projectFolders = projectFolders;
+		this.gitLocs = new GitLocationProcessor(config.getProperty("locations.data.input.disklocations"));
+		this.gitLocs.readData();
+	}
+
+	public void createTriageCsv() throws IOException {
+		this.createStream(MODULE_STREAM_NAME, "project", "git link", "module", "parses", "LOC", "# of classes");
+		this.createStream(PROJECT_STREAM_NAME, "project", "git link", "modules", "LOC", "classes", "parse ratio",
+				"functions", "imports");
+
+		ExecutorService executor = Executors.newFixedThreadPool(ParserSettings.getInstance().getThreads());
+		List<Future<Map<String, LexerTriage>>> projects = new ArrayList<>();
+		for (File projectFolder : this.projectFolders) {
+			projects.add(executor.submit(() -> TriageCsvCreator.triage(projectFolder)));
+		}
+		try {
+			for (int i = 0; i < projects.size(); i++) {
+				this.printProject(this.projectFolders.get(i), projects.get(i).get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the triage of every module of the project that can be read, by path
+	 */
+	private static Map<String, LexerTriage> triage(File projectFolder) {
+		Map<String, LexerTriage> modules = new LinkedHashMap<>();
+		for (String filePath : FileHelper.getPythonFilePaths(projectFolder)) {
+			try {
+				modules.put(filePath, LexerTriage.scan(SourceFile.read(filePath, false)));
+			}
+			catch (IOException | SourceFile.FileSizeLimitExceededException e) {
+				System.err.println("EXCEPTION: " + e.getMessage());
+			}
+		}
+		return modules;
+	}
+
+	private void printProject(File projectFolder, Map<String, LexerTriage> modules) {
+		String projectPath = projectFolder.getAbsolutePath();
+		String link = this.gitLocs.getLink(projectPath);
+		long loc = 0;
+		int classes = 0, functions = 0, imports = 0, parsing = 0;
+		for (Map.Entry<String, LexerTriage> module : modules.entrySet()) {
+			LexerTriage triage = module.getValue();
+			this.addLine(MODULE_STREAM_NAME, projectPath, link, module.getKey(), triage.probablyParses() ? "1" : "0",
+					String.valueOf(triage.getLoc()), String.valueOf(triage.getClasses()));
+			loc += triage.getLoc();
+			classes += triage.getClasses();
+			functions += triage.getFunctions();
+			imports += triage.getImports();
+			if (triage.probablyParses()) {
+				parsing++;
+			}
+		}
+		int parsePercentage = modules.isEmpty() ? 0 : (int) (100.0 * parsing / modules.size());
+		this.addLine(PROJECT_STREAM_NAME, projectPath, link, String.valueOf(modules.size()), String.valueOf(loc),
+				String.valueOf(classes), String.valueOf(parsePercentage), String.valueOf(functions), String.valueOf(imports));
+	}
+}
@@ -0,0 +1,26 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The model of a single module, which isn't part of a project yet. Its imports are linked by the {@link ModelBuilder}
+ * once all modules of the project are built.
+ */
+public class BuiltModule {
+
+	private final Module module;
+	private final List<ModelBuilder.Import> imports;
+
+	BuiltModule(Module module, List<ModelBuilder.Import> imports) {
+		this.module = module;
+		this.imports = imports;
+	}
+
+	public Module getModule() {
+		return this.module;
+	}
+
+	List<ModelBuilder.Import> getImports() {
+		return this.imports;
+	}
+}
@@ -0,0 +1,220 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import util.LexicalHelper;
+import util.StringHelper;
+
+/**
+ * Builds the containers of one module while its tree is walked, for the AST (see {@link ModelBuilder}) as well as
+ * for the parse tree (see {@link ContextModelBuilder}). The model of the module doesn't depend on other modules
+ * until it is linked, so modules can be built on different threads.
+ */
+class ContainerBuilder {
+
+	private final Project project;
+	private final Module module;
+	private final List<ModelBuilder.Import> imports;
+	private final Stack<ContentContainer> contentContainers;
+
+	private final Stack<Class> classes;
+	private final Stack<Subroutine> subroutines;
+	private boolean inAssign;
+
+	private boolean inAssignLeft;
+	private boolean inAssignRight;
+	private String leftAssign;
+	private String rightAssign;
+
+	/**
+	 * @param project project the classes belong to, the module isn't added to it
+	 */
+	ContainerBuilder(Project project, String name, Integer loc, String filePath, List<String> errors) {
+		this.project = project;
+		this.module = new Module(name, loc, filePath, StringHelper.implode(errors, "\n"));
+		this.imports = new ArrayList<>();
+		this.contentContainers = new Stack<>();
+		this.contentContainers.push(this.module);
+
+		this.classes = new Stack<>();
+		this.subroutines = new Stack<>();
+		this.inAssign = false;
+		this.inAssignLeft = false;
+		this.inAssignRight = false;
+	}
+
+	BuiltModule getResult() {
+		return new BuiltModule(this.module, this.imports);
+	}
+
+	void addImport(String module, String path, String alias) {
+		this.imports.add(new ModelBuilder.Import(this.module.getFilePath(), module, path, alias));
+	}
+
+	void addGlobal(String name) {
+		this.addVarDef(name, VarType.GLOBAL);
+	}
+
+	void startClass(String name, Integer loc, List<String> superclassNames) {
+		Class c = new Class(name, loc, this.getCurrentContainer(), superclassNames, this.project);
+		this.getCurrentContainer().addClassDefinition(c);
+
+		this.classes.push(c);
+		this.contentContainers.push(c);
+	}
+
+	void endClass() {
+		this.contentContainers.pop();
+		this.classes.pop();
+	}
+
+	void startSubroutine(String name, Integer loc, Integer complexity, List<String> params, boolean isStatic, boolean isAccessor) {
+		List<String> paramNames = params.stream()
+				.filter(p -> !p.equals(LexicalHelper.SELF_KEYWORD))
+				.collect(Collectors.toList());
+		SubroutineType type = !this.inClass() ? SubroutineType.FUNCTION :
+				(isStatic ? SubroutineType.STATIC_METHOD : SubroutineType.INSTANCE_METHOD);
+		// if a function is encountered after a class is parsed set it back to null.
+		Class current = (type == SubroutineType.FUNCTION) ? null : this.getCurrentClass();
+		Subroutine subroutine = new Subroutine(name, loc, complexity, this.getCurrentContainer(), type, paramNames, isAccessor, current);
+		this.getCurrentContainer().addSubroutineDefinition(subroutine);
+
+		this.subroutines.push(subroutine);
+		this.contentContainers.push(subroutine);
+	}
+
+	void endSubroutine() {
+		this.contentContainers.pop();
+		this.subroutines.pop();
+	}
+
+	/**
+	 * Visits the elements of an assignment: all of them first, then every element with the one it is assigned to,
+	 * which adds an {@link Assign} for the first name on either side.
+	 * @param visitChildren visits all elements
+	 * @param exprElements the assigned elements from left to right
+	 * @param visit visits a single element
+	 */
+	<T> void assign(Runnable visitChildren, List<T> exprElements, Consumer<T> visit) {
+		this.inAssign = true;
+		visitChildren.run();
+		for (int i = 0; i < (exprElements.size() - 1); i++) {
+			this.inAssignLeft = true;
+			visit.accept(exprElements.get(i));
+			this.inAssignLeft = false;
+
+			this.inAssignRight = true;
+			visit.accept(exprElements.get(i + 1));
+			this.inAssignRight = false;
+
+			this.leftAssign = null;
+			this.rightAssign = null;
+		}
+		this.inAssign = false;
+	}
+
+	/**
+	 * A name or attribute reference, which defines and references the variable.
+	 */
+	void addVariable(String fullName) {
+		this.addVarDef(fullName);
+		this.addVarRef(fullName);
+		this.setAssignVar(fullName, AssignType.VARIABLE);
+	}
+
+	void addCall(String name) {
+		this.getCurrentContainer().addSubroutineCall(name);
+		this.setAssignVar(name, AssignType.CALL);
+	}
+
+	/**
+	 * Add Variable Reference to current container's list of referenced variables.
+	 * @param fullName String of variable.
+	 */
+	private void addVarRef(String fullName) {
+		this.getCurrentContainer().addVariableReference(fullName);
+	}
+
+	private boolean hasClassVarName(String varName) {
+		return varName.startsWith(this.getCurrentClass().getName() + ".");
+	}
+
+	private boolean hasInstanceVarName(String varName) {
+		return varName.startsWith(LexicalHelper.SELF_KEYWORD + ".");
+	}
+
+	/**
+	 * Process variable to see if it's contained inside a class or an instance.
+	 * @param fullName
+	 */
+	private void addVarDef(String fullName) {
+		List<String> nameParts = StringHelper.explode(fullName, ".");
+		if (this.inClass()) {
+			if (this.hasClassVarName(fullName)) {
+				this.addVarDef(nameParts.get(1), VarType.CLASS);
+			}
+			else if (this.hasInstanceVarName(fullName)) {
+				this.addVarDef(nameParts.get(1), VarType.INSTANCE);
+			}
+			//if its name has more than 1 part, then it was just an attribute reference
+			else if (!this.inSubroutine() && nameParts.size() == 1) {
+				//variable defined inside of a class but outside of a method -> both class and instance variable
+				this.addVarDef(nameParts.get(0), VarType.CLASS);
+				this.addVarDef(nameParts.get(0), VarType.INSTANCE);
+			}
+
+			//TODO field access information is lost here. only
+		}
+		else {
+			this.addVarDef(nameParts.get(0), VarType.LOCAL);
+		}
+	}
+
+	/**
+	 * Add variable to parent after type has been determined.
+	 * @param name varname
+	 * @param varType instance or class variable
+	 */
+	private void addVarDef(String name, VarType varType) {
+		ContentContainer parent = varType == VarType.CLASS || varType == VarType.INSTANCE ? this.getCurrentClass() : this.getCurrentContainer();
+		Variable var = new Variable(name, parent, varType);
+		parent.addVariableDefinition(var);
+	}
+
+	private void setAssignVar(String value, AssignType type) {
+		if (this.inAssign && this.inAssignLeft && this.leftAssign == null) {
+			this.leftAssign = value;
+		}
+		if (this.inAssign && this.inAssignRight && this.rightAssign == null) {
+			this.rightAssign = value;
+			this.addAssign(type);
+		}
+	}
+
+	private void addAssign(AssignType type) {
+		if (this.leftAssign != null && this.rightAssign != null) {
+			Assign assign = new Assign(this.leftAssign, this.rightAssign, type);
+			this.getCurrentContainer().addAssign(assign);
+		}
+	}
+
+	private Class getCurrentClass() {
+		return this.classes.peek();
+	}
+
+	private boolean inClass() {
+		return !this.classes.isEmpty();
+	}
+
+	private boolean inSubroutine() {
+		return !this.subroutines.isEmpty();
+	}
+
+	private ContentContainer getCurrentContainer() {
+		return this.contentContainers.peek();
+	}
+}
@@ -0,0 +1,694 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import ast.LocCounter;
+import ast.expression.Conditional;
+import ast.expression.Lambda;
+import ast.expression.nocond.LambdaNoCond;
+import ast.expression.nocond.arithmetic.Nnary;
+import ast.expression.nocond.arithmetic.Unary;
+import ast.expression.nocond.atom.Str;
+import ast.expression.nocond.atom.StrConversion;
+import ast.expression.nocond.atom.comprehension.CondComprehension;
+import ast.expression.nocond.atom.comprehension.EnumComprehension;
+import ast.expression.nocond.atom.maker.DictMaker;
+import ast.expression.nocond.atom.maker.SetMaker;
+import ast.expression.nocond.atom.numeric.Imaginary;
+import ast.expression.nocond.atom.numeric.Int;
+import ast.expression.nocond.atom.trailed.Call;
+import ast.expression.nocond.atom.trailed.ObjectMethodCall;
+import ast.expression.nocond.atom.trailed.Slice;
+import ast.expression.nocond.atom.yield.YieldFrom;
+import ast.expression.nocond.atom.yield.YieldValues;
+import ast.expression.nocond.bitwise.And;
+import ast.expression.nocond.bitwise.Or;
+import ast.expression.nocond.bitwise.Shift;
+import ast.expression.nocond.bitwise.Xor;
+import ast.expression.nocond.logical.Binary;
+import ast.expression.nocond.logical.Comparison;
+import ast.expression.nocond.logical.Not;
+import gen.PythonBaseVisitor;
+import gen.PythonParser;
+import util.LexicalHelper;
+import util.SourceFile;
+import util.StringHelper;
+
+/**
+ * Builds the model of a module straight from its parse tree, without building the AST first. The containers,
+ * variables, calls and assignments are the same as those the {@link ModelBuilder} collects from the AST of the
+ * module, so the children of each rule are visited in the order in which the AST visits the nodes built from them.
+ *
+ * Parse trees the AST can't be built from aren't supported, {@link #build} throws an IllegalArgumentException for
+ * them and the module is left to the AST.
+ */
+public class ContextModelBuilder extends PythonBaseVisitor<Void> {
+
+	private static final String STATIC_METHOD_DECORATOR = "staticmethod";
+	private static final String ACCESSOR_PREFIX = "get";
+
+	private final Project project;
+	private final SourceFile source;
+	private final LocCounter locCounter;
+	private final NameVisitor names;
+	private ContainerBuilder builder;
+
+	/**
+	 * @param project project the classes belong to, the module isn't added to it
+	 * @param source the parsed file
+	 */
+	public ContextModelBuilder(Project project, SourceFile source) {
+		this.project = project;
+		this.source = source;
+		this.locCounter = new LocCounter(source);
+		this.names = new NameVisitor();
+	}
+
+	/**
+	 * @param tree parse tree of the whole module
+	 * @return the model of the module, its imports aren't linked yet
+	 */
+	public BuiltModule build(PythonParser.File_inputContext tree) {
+		String filePath = this.source.getPath();
+		this.builder = new ContainerBuilder(this.project, ast.Module.getName(filePath), this.locCounter.count(), filePath, Collections.emptyList());
+		tree.accept(this);
+		return this.builder.getResult();
+	}
+
+	@Override
+	public Void visitExpr_stmt(PythonParser.Expr_stmtContext ctx) {
+		List<ParserRuleContext> exprElements = new ArrayList<>();
+		List<ParserRuleContext> yieldElements = new ArrayList<>();
+		exprElements.add(ctx.target);
+		if (ctx.assignYield != null) {
+			yieldElements.add(ctx.assignYield);
+		}
+		else if (ctx.assignTest != null) {
+			exprElements.add(ctx.assignTest);
+		}
+		else {
+			exprElements = new ArrayList<>(ctx.testlist_star_expr());
+			yieldElements.addAll(ctx.yield_expr());
+		}
+
+		List<ParserRuleContext> elements = exprElements;
+		this.builder.assign(() -> {
+			elements.forEach(e -> e.accept(this));
+			yieldElements.forEach(e -> e.accept(this));
+		}, elements, e -> e.accept(this));
+		return null;
+	}
+
+	@Override
+	public Void visitImport_name(PythonParser.Import_nameContext ctx) {
+		for (PythonParser.Dotted_as_nameContext name : ctx.dotted_as_names().dotted_as_name()) {
+			String path = StringHelper.implode(name.dotted_name().names, ".");
+			this.builder.addImport(null, path, name.name() == null ? path : name.name().getText());
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitImport_from(PythonParser.Import_fromContext ctx) {
+		List<String> module = new ArrayList<>(ctx.prefixes);
+		if (ctx.dotted_name() != null) {
+			module.addAll(ctx.dotted_name().names);
+		}
+		String modulePath = StringHelper.implode(module, ".");
+
+		if (ctx.star != null) {
+			this.builder.addImport(modulePath, ctx.star.getText(), ctx.star.getText());
+		}
+		else if (ctx.import_as_names() != null) {
+			for (PythonParser.Import_as_nameContext name : ctx.import_as_names().import_as_name()) {
+				String path = name.name(0).getText();
+				this.builder.addImport(modulePath, path, name.name().size() == 2 ? name.name(1).getText() : path);
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unknown context");
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitGlobal_stmt(PythonParser.Global_stmtContext ctx) {
+		ctx.names.forEach(this.builder::addGlobal);
+		return null;
+	}
+
+	@Override
+	public Void visitNonlocal_stmt(PythonParser.Nonlocal_stmtContext ctx) {
+		ctx.names.forEach(this.builder::addVariable);
+		return null;
+	}
+
+	@Override
+	public Void visitIf_stmt(PythonParser.If_stmtContext ctx) {
+		ctx.test().forEach(t -> t.accept(this));
+		for (int i = 0; i < ctx.test().size(); i++) {
+			ctx.suite(i).accept(this);
+		}
+		ContextModelBuilder.acceptOptional(ctx.elseSuite, this);
+		return null;
+	}
+
+	@Override
+	public Void visitWhile_stmt(PythonParser.While_stmtContext ctx) {
+		ctx.body.accept(this);
+		ContextModelBuilder.acceptOptional(ctx.elseBody, this);
+		ctx.test().accept(this);
+		return null;
+	}
+
+	@Override
+	public Void visitFor_stmt(PythonParser.For_stmtContext ctx) {
+		ctx.body.accept(this);
+		ContextModelBuilder.acceptOptional(ctx.elseBody, this);
+		ctx.exprlist().accept(this);
+		ctx.testlist().accept(this);
+		return null;
+	}
+
+	@Override
+	public Void visitTry_stmt(PythonParser.Try_stmtContext ctx) {
+		ctx.exceptions.forEach(e -> e.accept(this));
+		ctx.exceptBodies.forEach(b -> b.accept(this));
+		ctx.tryBlock.accept(this);
+		ContextModelBuilder.acceptOptional(ctx.elseBlock, this);
+		ContextModelBuilder.acceptOptional(ctx.finallyBlock, this);
+		return null;
+	}
+
+	@Override
+	public Void visitWith_stmt(PythonParser.With_stmtContext ctx) {
+		ctx.suite().accept(this);
+		ctx.with_item().forEach(i -> i.accept(this));
+		return null;
+	}
+
+	@Override
+	public Void visitDecorated(PythonParser.DecoratedContext ctx) {
+		if (ctx.classdef() != null) {
+			this.buildClass(ctx.classdef(), ctx.decorators());
+		}
+		else if (ctx.funcdef() != null) {
+			this.buildSubroutine(ctx.funcdef(), ctx.decorators());
+		}
+		else {
+			this.buildSubroutine(ctx.async_funcdef().funcdef(), ctx.decorators());
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitClassdef(PythonParser.ClassdefContext ctx) {
+		this.buildClass(ctx, null);
+		return null;
+	}
+
+	@Override
+	public Void visitFuncdef(PythonParser.FuncdefContext ctx) {
+		this.buildSubroutine(ctx, null);
+		return null;
+	}
+
+	/**
+	 * Registers neither the name of the class nor its arguments as variables.
+	 */
+	private void buildClass(PythonParser.ClassdefContext ctx, PythonParser.DecoratorsContext decorators) {
+		List<String> superclassNames = new ArrayList<>();
+		if (ctx.arglist() != null) {
+			for (PythonParser.ArgumentContext argument : ctx.arglist().argument()) {
+				superclassNames.add(this.getSuperclassName(argument));
+			}
+		}
+
+		this.builder.startClass(ctx.name().getText(), this.getLoc(ctx), superclassNames);
+		ctx.suite().accept(this);
+		ContextModelBuilder.acceptOptional(decorators, this);
+		this.builder.endClass();
+	}
+
+	/**
+	 * Like the {@link ModelBuilder.ClassArgumentCollector}, only plain and keyword arguments are taken.
+	 */
+	private String getSuperclassName(PythonParser.ArgumentContext argument) {
+		if (argument.value != null) {
+			this.checkName(argument.first);
+			return argument.value.accept(this.names);
+		}
+		if (argument.first != null && argument.condition == null) {
+			return argument.first.accept(this.names);
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Registers neither the name of the function nor its parameters as variables.
+	 */
+	private void buildSubroutine(PythonParser.FuncdefContext ctx, PythonParser.DecoratorsContext decorators) {
+		PythonParser.TypedargslistContext params = ctx.parameters().typedargslist();
+		String name = ctx.name().getText();
+		List<String> paramNames = new ArrayList<>();
+		if (params != null) {
+			params.regular.forEach(p -> ContextModelBuilder.addParamNames(p, paramNames));
+			ContextModelBuilder.addParamNames(params.positional, paramNames);
+			ContextModelBuilder.addParamNames(params.keyword, paramNames);
+		}
+
+		this.builder.startSubroutine(name, this.getLoc(ctx), 1 + ContextModelBuilder.countDecisions(ctx), paramNames,
+				ContextModelBuilder.isStatic(decorators), ContextModelBuilder.isAccessor(name, params, ctx.suite()));
+		ctx.suite().accept(this);
+		ContextModelBuilder.acceptOptional(ctx.test(), this);
+		ContextModelBuilder.acceptOptional(decorators, this);
+		this.builder.endSubroutine();
+	}
+
+	private static void addParamNames(PythonParser.TfpdefContext param, List<String> names) {
+		if (param == null) {
+			return;
+		}
+		if (param.name() != null) {
+			names.add(param.name().getText());
+		}
+		else {
+			param.vfplist().vfpdef().forEach(p -> ContextModelBuilder.addParamNames(p, names));
+		}
+	}
+
+	private static void addParamNames(PythonParser.VfpdefContext param, List<String> names) {
+		if (param.name() != null) {
+			names.add(param.name().getText());
+		}
+		else {
+			param.vfplist().vfpdef().forEach(p -> ContextModelBuilder.addParamNames(p, names));
+		}
+	}
+
+	private static boolean isStatic(PythonParser.DecoratorsContext decorators) {
+		if (decorators == null) {
+			return false;
+		}
+		for (PythonParser.DecoratorContext decorator : decorators.decorator()) {
+			if (StringHelper.implode(decorator.dotted_name().names, ".").equals(STATIC_METHOD_DECORATOR)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether the function takes nothing but self and returns a single value right away, see
+	 * {@link ast.statement.compound.Function#isAccessor()}
+	 */
+	private static boolean isAccessor(String name, PythonParser.TypedargslistContext params, PythonParser.SuiteContext body) {
+		if (params == null || params.regular.size() != 1 || params.positional != null || params.keyword != null) {
+			return false;
+		}
+		PythonParser.NameContext self = params.regular.get(0).name();
+		if (self == null || !self.getText().equals(LexicalHelper.SELF_KEYWORD) || !name.startsWith(ACCESSOR_PREFIX)) {
+			return false;
+		}
+
+		List<PythonParser.Small_stmtContext> statements = new ArrayList<>();
+		if (body.simple_stmt() != null) {
+			statements.addAll(body.simple_stmt().small_stmt());
+		}
+		for (PythonParser.StmtContext stmt : body.stmt()) {
+			if (stmt.compound_stmt() != null) {
+				return false;
+			}
+			statements.addAll(stmt.simple_stmt().small_stmt());
+		}
+		if (statements.size() != 1) {
+			return false;
+		}
+		PythonParser.Flow_stmtContext flow = statements.get(0).flow_stmt();
+		if (flow == null || flow.return_stmt() == null) {
+			return false;
+		}
+		PythonParser.TestlistContext values = flow.return_stmt().testlist();
+		return values != null && values.test().size() == 1;
+	}
+
+	/**
+	 * Counts the decision points of the cyclomatic complexity like the AST does: every branch of an if with a
+	 * condition, every loop and every handler of a try plus one. Nested functions and classes count too.
+	 */
+	private static int countDecisions(ParserRuleContext ctx) {
+		int decisions = 0;
+		if (ctx instanceof PythonParser.If_stmtContext) {
+			decisions += ((PythonParser.If_stmtContext) ctx).test().size();
+		}
+		else if (ctx instanceof PythonParser.While_stmtContext || ctx instanceof PythonParser.For_stmtContext) {
+			decisions++;
+		}
+		else if (ctx instanceof PythonParser.Try_stmtContext) {
+			decisions += ((PythonParser.Try_stmtContext) ctx).exceptBodies.size() + 1;
+		}
+		for (int i = 0; i < ctx.getChildCount(); i++) {
+			ParseTree child = ctx.getChild(i);
+			//statements don't nest in simple statements
+			if (child instanceof ParserRuleContext && !(child instanceof PythonParser.Simple_stmtContext)) {
+				decisions += ContextModelBuilder.countDecisions((ParserRuleContext) child);
+			}
+		}
+		return decisions;
+	}
+
+	@Override
+	public Void visitVarargslist(PythonParser.VarargslistContext ctx) {
+		//the defaults of parameter lists (python 2) aren't visited
+		for (int i = 0; i < ctx.regular.size(); i++) {
+			PythonParser.VfpdefContext param = ctx.regular.get(i);
+			param.accept(this);
+			if (param.name() != null) {
+				ContextModelBuilder.acceptOptional(ctx.regVals.get(i), this);
+			}
+		}
+		ContextModelBuilder.acceptOptional(ctx.positional, this);
+		ContextModelBuilder.acceptOptional(ctx.keyword, this);
+		return null;
+	}
+
+	@Override
+	public Void visitVfpdef(PythonParser.VfpdefContext ctx) {
+		if (ctx.name() != null) {
+			this.builder.addVariable(ctx.name().getText());
+			return null;
+		}
+		return this.visitChildren(ctx);
+	}
+
+	@Override
+	public Void visitArgument(PythonParser.ArgumentContext ctx) {
+		if (ctx.value != null) {
+			ctx.value.accept(this);
+			this.checkName(ctx.first);
+			this.builder.addVariable(ctx.first.getText());
+			return null;
+		}
+		return this.visitChildren(ctx);
+	}
+
+	/**
+	 * The AST only takes a name for the keyword of an argument.
+	 */
+	private void checkName(PythonParser.TestContext ctx) {
+		int name = ctx.getStart().getType();
+		boolean isName = name == PythonParser.NAME || name == PythonParser.PRINT || name == PythonParser.EXEC
+				|| name == PythonParser.NONLOCAL || name == PythonParser.ASYNC || name == PythonParser.AWAIT;
+		if (!isName || ctx.getStart() != ctx.getStop()) {
+			throw new IllegalArgumentException("Keyword is not a name: " + ctx.getText());
+		}
+	}
+
+	@Override
+	public Void visitComp_for(PythonParser.Comp_forContext ctx) {
+		ContextModelBuilder.acceptOptional(ctx.comp_iter(), this);
+		ctx.test_nocond().forEach(s -> s.accept(this));
+		ctx.exprlist().accept(this);
+		return null;
+	}
+
+	@Override
+	public Void visitComp_if(PythonParser.Comp_ifContext ctx) {
+		ContextModelBuilder.acceptOptional(ctx.comp_iter(), this);
+		ctx.test_nocond().accept(this);
+		return null;
+	}
+
+	@Override
+	public Void visitAtom(PythonParser.AtomContext ctx) {
+		if (ctx.name() != null) {
+			this.builder.addVariable(ctx.name().getText());
+			return null;
+		}
+		if (ctx.testlist() != null) {
+			//string conversion (python 2), its values aren't visited
+			return null;
+		}
+		return this.visitChildren(ctx);
+	}
+
+	@Override
+	public Void visitTestlist_comp(PythonParser.Testlist_compContext ctx) {
+		if (ctx.comp_for() != null) {
+			ctx.comp_for().accept(this);
+			ctx.vals.get(0).accept(this);
+			return null;
+		}
+		ctx.vals.forEach(v -> v.accept(this));
+		return null;
+	}
+
+	@Override
+	public Void visitDictorsetmaker(PythonParser.DictorsetmakerContext ctx) {
+		if (ctx.setVar != null) {
+			//the first value of a set isn't visited
+			if (ctx.comp_for() != null) {
+				ctx.comp_for().accept(this);
+			}
+			else {
+				ctx.setValues.forEach(v -> v.accept(this));
+			}
+			return null;
+		}
+
+		ContextModelBuilder.acceptOptional(ctx.comp_for(), this);
+		for (int i = 0; i < ctx.test().size(); i += 2) {
+			ctx.test(i).accept(this);
+		}
+		for (int i = 1; i < ctx.test().size(); i += 2) {
+			ctx.test(i).accept(this);
+		}
+		return null;
+	}
+
+	@Override
+	public Void visitPower(PythonParser.PowerContext ctx) {
+		this.visitTrailed(ctx.atom(), ctx.trailer(), ctx.trailer().size());
+		ContextModelBuilder.acceptOptional(ctx.factor(), this);
+		return null;
+	}
+
+	/**
+	 * Visits the atom with its first trailers the way the AST nests them (see
+	 * {@link ast.expression.nocond.atom.trailed.TrailedAtomBuilder}): names after a dot are a single attribute
+	 * reference, a call after a name is a call of a method on the object before it.
+	 * @param end amount of trailers taken
+	 */
+	private void visitTrailed(PythonParser.AtomContext atom, List<PythonParser.TrailerContext> trailers, int end) {
+		if (end == 0) {
+			atom.accept(this);
+			return;
+		}
+
+		PythonParser.TrailerContext last = trailers.get(end - 1);
+		if (last.subscriptlist() != null) {
+			this.visitTrailed(atom, trailers, end - 1);
+			last.subscriptlist().accept(this);
+		}
+		else if (last.callBracket != null) {
+			if (ContextModelBuilder.isMethodCall(trailers, end)) {
+				String method = trailers.get(end - 2).name().getText();
+				this.builder.addCall(this.names.getTrailedName(atom, trailers, end - 2) + "." + method);
+				this.builder.addCall(method);
+			}
+			else {
+				this.builder.addCall(this.names.getTrailedName(atom, trailers, end - 1));
+			}
+			ContextModelBuilder.acceptOptional(last.arglist(), this);
+		}
+		else {
+			this.builder.addVariable(this.names.getTrailedName(atom, trailers, end));
+		}
+	}
+
+	/**
+	 * @return whether the last of the trailers taken is the call of a method
+	 */
+	private static boolean isMethodCall(List<PythonParser.TrailerContext> trailers, int end) {
+		return trailers.get(end - 1).callBracket != null && end > 1 && trailers.get(end - 2).name() != null;
+	}
+
+	private Integer getLoc(ParserRuleContext ctx) {
+		int startLine = ctx.getStart().getLine();
+		int stopLine = ctx.getStop() == null ? startLine : ctx.getStop().getLine();
+		return this.locCounter.count(startLine, stopLine);
+	}
+
+	private static void acceptOptional(ParserRuleContext ctx, ContextModelBuilder visitor) {
+		if (ctx != null) {
+			ctx.accept(visitor);
+		}
+	}
+
+	/**
+	 * Names expressions the way {@link Object#toString()} of their AST does: names and attribute references by
+	 * their text, other nodes by their class and identity hash, for which the hash of the context that would
+	 * have built the node is taken.
+	 */
+	private static class NameVisitor extends PythonBaseVisitor<String> {
+
+		@Override
+		public String visitTest(PythonParser.TestContext ctx) {
+			if (ctx.lambdef() != null) {
+				return NameVisitor.nodeName(Lambda.class, ctx.lambdef());
+			}
+			if (ctx.condition != null) {
+				return NameVisitor.nodeName(Conditional.class, ctx);
+			}
+			return ctx.value.accept(this);
+		}
+
+		@Override
+		public String visitTest_nocond(PythonParser.Test_nocondContext ctx) {
+			if (ctx.lambdef_nocond() != null) {
+				return NameVisitor.nodeName(LambdaNoCond.class, ctx.lambdef_nocond());
+			}
+			return ctx.or_test().accept(this);
+		}
+
+		@Override
+		public String visitOr_test(PythonParser.Or_testContext ctx) {
+			return this.nameOperands(ctx, ctx.and_test(), Binary.class);
+		}
+
+		@Override
+		public String visitAnd_test(PythonParser.And_testContext ctx) {
+			return this.nameOperands(ctx, ctx.not_test(), Binary.class);
+		}
+
+		@Override
+		public String visitNot_test(PythonParser.Not_testContext ctx) {
+			if (ctx.not_test() != null) {
+				return NameVisitor.nodeName(Not.class, ctx);
+			}
+			return ctx.comparison().accept(this);
+		}
+
+		@Override
+		public String visitComparison(PythonParser.ComparisonContext ctx) {
+			return this.nameOperands(ctx, ctx.star_expr(), Comparison.class);
+		}
+
+		@Override
+		public String visitStar_expr(PythonParser.Star_exprContext ctx) {
+			return ctx.expr().accept(this);
+		}
+
+		@Override
+		public String visitExpr(PythonParser.ExprContext ctx) {
+			return this.nameOperands(ctx, ctx.xor_expr(), Or.class);
+		}
+
+		@Override
+		public String visitXor_expr(PythonParser.Xor_exprContext ctx) {
+			return this.nameOperands(ctx, ctx.and_expr(), Xor.class);
+		}
+
+		@Override
+		public String visitAnd_expr(PythonParser.And_exprContext ctx) {
+			return this.nameOperands(ctx, ctx.shift_expr(), And.class);
+		}
+
+		@Override
+		public String visitShift_expr(PythonParser.Shift_exprContext ctx) {
+			return this.nameOperands(ctx, ctx.arith_expr(), Shift.class);
+		}
+
+		@Override
+		public String visitArith_expr(PythonParser.Arith_exprContext ctx) {
+			return this.nameOperands(ctx, ctx.term(), Nnary.class);
+		}
+
+		@Override
+		public String visitTerm(PythonParser.TermContext ctx) {
+			return this.nameOperands(ctx, ctx.factor(), Nnary.class);
+		}
+
+		@Override
+		public String visitFactor(PythonParser.FactorContext ctx) {
+			if (ctx.factor() != null) {
+				return NameVisitor.nodeName(Unary.class, ctx);
+			}
+			return ctx.power().accept(this);
+		}
+
+		@Override
+		public String visitPower(PythonParser.PowerContext ctx) {
+			String base = this.getTrailedName(ctx.atom(), ctx.trailer(), ctx.trailer().size());
+			return ctx.factor() == null ? base : base + "**" + ctx.factor().accept(this);
+		}
+
+		/**
+		 * @param end amount of trailers taken
+		 */
+		String getTrailedName(PythonParser.AtomContext atom, List<PythonParser.TrailerContext> trailers, int end) {
+			if (end == 0) {
+				return atom.accept(this);
+			}
+			PythonParser.TrailerContext last = trailers.get(end - 1);
+			if (last.subscriptlist() != null) {
+				return NameVisitor.nodeName(Slice.class, last);
+			}
+			if (last.callBracket != null) {
+				return NameVisitor.nodeName(ContextModelBuilder.isMethodCall(trailers, end) ? ObjectMethodCall.class : Call.class, last);
+			}
+
+			int start = end - 1;
+			while (start > 0 && trailers.get(start - 1).name() != null) {
+				start--;
+			}
+			StringBuilder name = new StringBuilder(this.getTrailedName(atom, trailers, start));
+			for (int i = start; i < end; i++) {
+				name.append('.').append(trailers.get(i).name().getText());
+			}
+			return name.toString();
+		}
+
+		@Override
+		public String visitAtom(PythonParser.AtomContext ctx) {
+			if (ctx.yield_expr() != null) {
+				PythonParser.Yield_argContext arg = ctx.yield_expr().yield_arg();
+				return arg != null && arg.test() != null ? NameVisitor.nodeName(YieldFrom.class, arg)
+						: NameVisitor.nodeName(YieldValues.class, arg != null ? arg : ctx.yield_expr());
+			}
+			if (ctx.testlist_comp() != null) {
+				return NameVisitor.nodeName(ctx.testlist_comp().comp_for() != null ? CondComprehension.class : EnumComprehension.class, ctx.testlist_comp());
+			}
+			if (ctx.dictorsetmaker() != null) {
+				return NameVisitor.nodeName(ctx.dictorsetmaker().setVar != null ? SetMaker.class : DictMaker.class, ctx.dictorsetmaker());
+			}
+			if (ctx.testlist() != null) {
+				return NameVisitor.nodeName(StrConversion.class, ctx);
+			}
+			if (ctx.name() != null) {
+				return ctx.name().getText();
+			}
+			if (ctx.number() != null) {
+				PythonParser.NumberContext number = ctx.number();
+				java.lang.Class<?> type = number.integer() != null ? Int.class : number.FLOAT_NUMBER() != null ? ast.expression.nocond.atom.numeric.Float.class
+						: number.IMAG_NUMBER() != null ? Imaginary.class : ast.expression.nocond.atom.numeric.Long.class;
+				return NameVisitor.nodeName(type, number);
+			}
+			//the string list is never null, so empty brackets and constants are strings too
+			return NameVisitor.nodeName(Str.class, ctx);
+		}
+
+		private String nameOperands(ParserRuleContext ctx, List<? extends ParserRuleContext> operands, java.lang.Class<?> node) {
+			return operands.size() == 1 ? operands.get(0).accept(this) : NameVisitor.nodeName(node, ctx);
+		}
+
+		private static String nodeName(java.lang.Class<?> node, ParserRuleContext ctx) {
+			return node.getName() + "@" + Integer.toHexString(System.identityHashCode(ctx));
+		}
+	}
+}
@@ -38,7 +38,7 @@ public class Linker {
 		Module sourceModule = this.project.getModule(source);
 		List<String> sourcePaths = this.getSourcePaths(sourceModule.getFilePath());
 		for (String sourcePath : sourcePaths) {
-			String fullPath = sourcePath + FILE_DELIMITER + this.getFilePath(target);
+			String fullPath = this.join(sourcePath, this.getFilePath(target));
 			String clsName = target;
 			
 			Boolean added = this.addModuleImport(sourceModule, fullPath, alias, clsName);
@@ -74,8 +74,8 @@ public class Linker {
 		String classPathEnd = pathMiddle + FileHelper.PYTHON_EXTENSION;
 
 		for (String path : sourcePaths) {
-			String fullModulePath = path + FILE_DELIMITER + modulePathEnd;
-			String fullClassPath = path + FILE_DELIMITER + classPathEnd;
+			String fullModulePath = this.join(path, modulePathEnd);
+			String fullClassPath = this.join(path, classPathEnd);
 
 			Boolean added = this.addModuleImport(sourceModule, fullModulePath, alias, className);
 			if (added) {
@@ -148,9 +148,19 @@ public class Linker {
 		return false;
 	}
 
+	/**
+	 * @return the parent folder, empty for a module at the top of a project with relative paths
+	 */
 	private String getParentFolder(String source) {
 		File f = new File(source);
-		return f.getParent();
+		return f.getParent() == null ? "" : f.getParent();
+	}
+
+	/**
+	 * Appends the path to the folder, which is empty for the root of a project with relative module paths.
+	 */
+	private String join(String folder, String path) {
+		return folder.isEmpty() ? path : folder + FILE_DELIMITER + path;
 	}
 
 	private String getFilePath(String module) {
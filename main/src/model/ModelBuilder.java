@@ -1,14 +1,14 @@
 package model;
 
 import java.io.File;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
-import ast.CCVisitor;
 import ast.DefaultVisitor;
 import ast.argument.Arg;
 import ast.argument.ArgumentVisitor;
@@ -16,7 +16,6 @@ import ast.argument.CondArgument;
 import ast.argument.DefValArgument;
 import ast.argument.Kwarg;
 import ast.argument.SimpleArgument;
-import ast.expression.ExprList;
 import ast.expression.nocond.atom.Identifier;
 import ast.expression.nocond.atom.trailed.AttributeRef;
 import ast.expression.nocond.atom.trailed.Call;
@@ -30,8 +29,6 @@ import ast.statement.simple.Global;
 import ast.statement.simple.ImportFrom;
 import ast.statement.simple.ImportPaths;
 import ast.statement.simple.SuperStmt;
-import util.LexicalHelper;
-import util.StringHelper;
 
 /**
  * Created by Nik on 17-05-2015
@@ -42,11 +39,11 @@ public class ModelBuilder {
 	private final Stack<SuperCall> statements;
 
 	public ModelBuilder(Project oldProject, Map<String, ast.Module> oldTrees, Map<String, ast.Module> trees) {
-		this.project = new Project(oldProject.getFolder());
+		this.project = new Project(oldProject.getFolder(), oldProject.getRevision());
 
 		//build new modules
-		BuildingVisitor buildingVisitor = new BuildingVisitor(this.project);
-		buildingVisitor.build(trees.values());
+		List<Import> imports = new ArrayList<>();
+		trees.values().forEach(tree -> this.add(ModelBuilder.buildModule(this.project, tree), imports));
 
 		//add relevant modules from previous version
 		Set<Module> oldModules = oldProject.getModules().stream()
@@ -54,20 +51,58 @@ public class ModelBuilder {
 				.map(m -> oldProject.getModule(m.getFilePath()))
 				.collect(Collectors.toSet());
 		oldModules.forEach(this.project::addModule);
-		this.statements = buildingVisitor.getStatements();
+		this.statements = new Stack<>();
 
 		//link
-		LinkingVisitor linkingVisitor = new LinkingVisitor(this.project);
-		linkingVisitor.link(trees.values());
+		this.link(imports);
 	}
 
-	public ModelBuilder(File projectFolder, Collection<ast.Module> trees) {
-		this.project = new Project(projectFolder);
-		BuildingVisitor buildingVisitor = new BuildingVisitor(this.project);
-		buildingVisitor.build(trees);
-		this.statements = buildingVisitor.getStatements();
-		LinkingVisitor linkingVisitor = new LinkingVisitor(this.project);
-		linkingVisitor.link(trees);
+	/**
+	 * Builds the model of the project. Every tree is processed in one go and isn't referenced afterwards, so the
+	 * trees can be handed out one by one without ever being in memory together (see
+	 * {@link process.File2Tree#streamAsts(List)}).
+	 * @param trees the trees of the modules, iterated once
+	 */
+	public ModelBuilder(File projectFolder, Iterable<ast.Module> trees) {
+		this(new Project(projectFolder), trees, ModelBuilder::buildModule);
+	}
+
+	/**
+	 * Builds the model of a revision of a git repository, whose module paths are relative to the repository.
+	 */
+	public ModelBuilder(File repository, String revision, Iterable<ast.Module> trees) {
+		this(new Project(repository, revision), trees, ModelBuilder::buildModule);
+	}
+
+	/**
+	 * Builds the model of the project from modules that are built already, e.g. straight from their parse trees
+	 * (see {@link process.File2Tree#streamModels(Project, List)}).
+	 * @param project the project the modules were built for
+	 * @param modules the modules, iterated once
+	 */
+	public ModelBuilder(Project project, Iterable<BuiltModule> modules) {
+		this(project, modules, (p, module) -> module);
+	}
+
+	private <T> ModelBuilder(Project project, Iterable<T> modules, BiFunction<Project, T, BuiltModule> builder) {
+		this.project = project;
+		List<Import> imports = new ArrayList<>();
+		for (T module : modules) {
+			//the imports are linked once all modules are built
+			this.add(builder.apply(this.project, module), imports);
+		}
+		this.statements = new Stack<>();
+		this.link(imports);
+	}
+
+	/**
+	 * Builds the model of a single module, which can be done on any thread. The module is added to the project by
+	 * {@link #ModelBuilder(Project, Iterable)}.
+	 * @param project the project the module belongs to
+	 * @param tree the tree of the module
+	 */
+	public static BuiltModule buildModule(Project project, ast.Module tree) {
+		return new BuildingVisitor(project).build(tree);
 	}
 
 	public Project getProject() {
@@ -78,30 +113,70 @@ public class ModelBuilder {
 		return statements;
 	}
 
-	private class LinkingVisitor extends DefaultVisitor<Void> {
+	private void add(BuiltModule module, List<Import> imports) {
+		this.project.addModule(module.getModule());
+		imports.addAll(module.getImports());
+	}
 
-		private String currentFilePath;
-		private final Project project;
-		private Linker linker;
+	private void link(List<Import> imports) {
+		Linker linker = new Linker(this.project);
+		for (Import i : imports) {
+			if (i.module == null) {
+				linker.addModuleImport(i.source, i.path, i.alias);
+			}
+			else {
+				linker.addImportFrom(i.source, i.module, i.path, i.alias);
+			}
+		}
+		linker.link();
+	}
 
-		public LinkingVisitor(Project project) {
+	static class Import {
+
+		private final String source;
+		/**
+		 * Module of a "from ... import", null for a plain import
+		 */
+		private final String module;
+		private final String path;
+		private final String alias;
+
+		Import(String source, String module, String path, String alias) {
+			this.source = source;
+			this.module = module;
+			this.path = path;
+			this.alias = alias;
+		}
+	}
+
+
+	private static class BuildingVisitor extends DefaultVisitor<Void> {
+
+		private final Project project;
+		private ast.Module currentModule;
+		private ContainerBuilder builder;
+		
+		public BuildingVisitor(Project project) {
 			super();
 			this.project = project;
 		}
 
-		public void link(Collection<ast.Module> trees) {
-			this.linker = new Linker(this.project);
-			for (ast.Module m : trees) {
-				this.currentFilePath = m.getFilePath();
-				m.accept(this);
-			}
-			this.linker.link();
+		public BuiltModule build(ast.Module tree) {
+			tree.accept(this);
+			return this.builder.getResult();
+		}
+
+		@Override
+		public void visitChildren(ast.Module n) {
+			this.currentModule = n;
+			this.builder = new ContainerBuilder(this.project, n.getName(), n.getLoc(), n.getFilePath(), n.getErrors());
+			super.visitChildren(n);
 		}
 
 		@Override
 		public Void visit(ImportPaths n) {
 			for (Path p : n.getPaths()) {
-				this.linker.addModuleImport(this.currentFilePath, p.getPath(), this.getAlias(p));
+				this.builder.addImport(null, p.getPath(), this.getAlias(p));
 			}
 			this.visitChildren(n);
 			return null;
@@ -110,7 +185,7 @@ public class ModelBuilder {
 		@Override
 		public Void visit(ImportFrom n) {
 			for (Path p : n.getPaths()) {
-				this.linker.addImportFrom(this.currentFilePath, n.getModule().getPath(), p.getPath(), this.getAlias(p));
+				this.builder.addImport(n.getModule().getPath(), p.getPath(), this.getAlias(p));
 			}
 			this.visitChildren(n);
 			return null;
@@ -119,132 +194,44 @@ public class ModelBuilder {
 		private String getAlias(Path p) {
 			return p.hasAlias() ? p.getAlias().getValue() : p.getPath();
 		}
-	}
-
-
-	private class BuildingVisitor extends DefaultVisitor<Void> {
-
-		private String currentFilePath;
-		private final Project project;
-		private final Stack<ContentContainer> contentContainers;
-
-		private final Stack<model.Class> classes;
-		private final Stack<Subroutine> subroutines;
-		private final Stack<SuperCall> statements;
-		private boolean inAssign;
-
-		private boolean inAssignLeft;
-		private boolean inAssignRight;
-		private String leftAssign;
-		private String rightAssign;
-		
-		public BuildingVisitor(Project project) {
-			super();
-			this.project = project;
-			this.contentContainers = new Stack<>();
-
-			this.classes = new Stack<>();
-			this.subroutines = new Stack<>();
-			this.inAssign = false;
-			this.inAssignLeft = false;
-			this.inAssignRight = false;
-			this.statements = new Stack<>();
-		}
-
-		public void build(Collection<ast.Module> trees) {
-			for (ast.Module m : trees) {
-				this.currentFilePath = m.getFilePath();
-				m.accept(this);
-			}
-		}
-
-		@Override
-		public void visitChildren(ast.Module n) {
-			
-			String filePath = n.getFilePath();
-			model.Module module = new model.Module(n.getName(), n.getLocInfo(), filePath, StringHelper.implode(n.getErrors(), "\n"));
-
-			this.project.addModule(module);
-
-			this.contentContainers.push(module);
-			super.visitChildren(n);
-			this.contentContainers.pop();
-		}
 
 		@Override
 		public Void visit(Global n) {
 			for (Identifier i : n.getIdentifiers()) {
-				this.addVarDef(i.getValue(), VarType.GLOBAL);
+				this.builder.addGlobal(i.getValue());
 			}
 			return null;
 		}
 
 		@Override
 		public void visitChildren(Assign n) {
-			this.inAssign = true;
-			super.visitChildren(n);
-			for (int i = 0; i < (n.getExprElements().size() - 1); i++) {
-				this.inAssignLeft = true;
-				ExprList left = n.getExprElements().get(i);
-				left.accept(this);
-				this.inAssignLeft = false;
-
-				this.inAssignRight = true;
-				ExprList right = n.getExprElements().get(i + 1);
-				right.accept(this);
-				this.inAssignRight = false;
-
-				this.leftAssign = null;
-				this.rightAssign = null;
-			}
-			this.inAssign = false;
+			this.builder.assign(() -> super.visitChildren(n), n.getExprElements(), e -> e.accept(this));
 		}
 
 		@Override
 		public Void visit(ClassDef n) {
-			Integer locInfo = n.getLocInfo();
+			Integer locInfo = this.currentModule.getLoc(n);
 			// gather class arguments
 			ClassArgumentCollector argCollector = new ClassArgumentCollector();
 			// gather superclasses.
 			List<String> superclassNames = n.getInheritance().stream()
 					.map(p -> p.accept(argCollector))
 					.collect(Collectors.toList());
-			
 
-			Class c = new Class(n.getName().getValue(), locInfo, this.getCurrentContainer(), superclassNames, project);
-			this.getCurrentContainer().addClassDefinition(c);
-			
-			this.classes.push(c);
-			this.contentContainers.push(c);
+			this.builder.startClass(n.getName().getValue(), locInfo, superclassNames);
 			this.visitChildren(n);
-			this.contentContainers.pop();
-			this.classes.pop();
+			this.builder.endClass();
 
 			return null;
 		}
 
 		@Override
 		public Void visit(Function n) {
-			CCVisitor cc = new CCVisitor();
-			cc.visit(n);	
-			
-			List<String> paramNames = n.getParams().getParamNames().stream()
-					.filter(p -> !p.equals(LexicalHelper.SELF_KEYWORD))
-					.collect(Collectors.toList());
-			SubroutineType type = !this.inClass() ? SubroutineType.FUNCTION :
-					(n.isStatic() ? SubroutineType.STATIC_METHOD : SubroutineType.INSTANCE_METHOD);
-			// if a function is encountered after a class is parsed set it back to null.
-			Class current =  (type == SubroutineType.FUNCTION) ? null : getCurrentClass();
-			Subroutine subroutine = new Subroutine(n.getNameString(), n.getLocInfo(), cc.getComplexity(), this.getCurrentContainer(), type, paramNames, n.isAccessor(), current);
-			this.getCurrentContainer().addSubroutineDefinition(subroutine);
-
+			this.builder.startSubroutine(n.getNameString(), this.currentModule.getLoc(n), n.getComplexity(),
+					n.getParams().getParamNames(), n.isStatic(), n.isAccessor());
 			// process children 
-			this.subroutines.push(subroutine);
-			this.contentContainers.push(subroutine);
 			this.visitChildren(n);
-			this.contentContainers.pop();
-			this.subroutines.pop();
-			
+			this.builder.endSubroutine();
 
 			return null;
 		}
@@ -268,9 +255,7 @@ public class ModelBuilder {
 
 		@Override
 		public Void visit(Identifier n) {
-			this.addVarDef(n.getValue());
-			this.addVarRef(n.getValue());
-			this.setAssignVar((String) n.getValue());
+			this.builder.addVariable(n.getValue());
 			return null;
 		}
 
@@ -280,108 +265,25 @@ public class ModelBuilder {
 		 */
 		@Override
 		public Void visit(AttributeRef n) {
-			this.addVarDef(n.toString());
-			this.addVarRef(n.toString());
-			this.setAssignVar((String) n.toString());
+			this.builder.addVariable(n.toString());
 //			this.visitChildren(n);
 			return null;
 		}
 
-		/**
-		 * Add Variable Reference to current container's list of referenced variables. 
-		 * @param fullName String of variable. 
-		 */
-		private void addVarRef(String fullName) {
-			this.getCurrentContainer().addVariableReference(fullName);
-		}
-
-		private boolean hasClassVarName(String varName) {
-			return varName.startsWith(this.getCurrentClass().getName() + ".");
-		}
-
-		private boolean hasInstanceVarName(String varName) {
-			return varName.startsWith(LexicalHelper.SELF_KEYWORD + ".");
-		}
-
-		/**
-		 * Process variable to see if it's contained inside a class or an instance. 
-		 * @param fullName
-		 */
-		private void addVarDef(String fullName) {
-			List<String> nameParts = StringHelper.explode(fullName, ".");
-			if (this.inClass()) {
-				if (this.hasClassVarName(fullName)) {
-					this.addVarDef(nameParts.get(1), VarType.CLASS);
-				}
-				else if (this.hasInstanceVarName(fullName)) {
-					this.addVarDef(nameParts.get(1), VarType.INSTANCE);
-				}
-				//if its name has more than 1 part, then it was just an attribute reference
-				else if (!this.inSubroutine() && nameParts.size() == 1) {
-					//variable defined inside of a class but outside of a method -> both class and instance variable
-					this.addVarDef(nameParts.get(0), VarType.CLASS);
-					this.addVarDef(nameParts.get(0), VarType.INSTANCE);
-				}
-				
-				//TODO field access information is lost here. only 
-			}
-			else {
-				this.addVarDef(nameParts.get(0), VarType.LOCAL);
-			}
-		}
-
-		/**
-		 * Add variable to parent after type has been determined.
-		 * @param name varname
-		 * @param varType instance or class variable
-		 */
-		private void addVarDef(String name, VarType varType) {
-			ContentContainer parent = varType == VarType.CLASS || varType == VarType.INSTANCE ? this.getCurrentClass() : this.getCurrentContainer();
-			Variable var = new Variable(name, parent, varType);
-			parent.addVariableDefinition(var);
-		}
-
 		@Override
 		public Void visit(Call n) {
-			this.addSubroutineRef(n.getBase().toString());
-			this.setAssignCall(n.getBase().toString());
+			this.builder.addCall(n.getBase().toString());
 			this.visitChildren(n);
 			return null;
 		}
 
 		@Override
 		public Void visit(ObjectMethodCall n) {
-			this.addSubroutineRef(n.getBase().toString() + "." + n.getCall().getName());
-			this.setAssignCall((n.getBase().toString() + "." + n.getCall().getName()));
+			this.builder.addCall(n.getBase().toString() + "." + n.getCall().getName());
 			this.visitChildren(n);
 			return null;
 		}
 
-		private void setAssignCall(String value) {
-			this.setAssignVar(value, AssignType.CALL);
-		}
-
-		private void setAssignVar(String value) {
-			this.setAssignVar(value, AssignType.VARIABLE);
-		}
-
-		private void setAssignVar(String value, AssignType type) {
-			if (this.inAssign && this.inAssignLeft && this.leftAssign == null) {
-				this.leftAssign = value;
-			}
-			if (this.inAssign && this.inAssignRight && this.rightAssign == null) {
-				this.rightAssign = value;
-				this.addAssign(type);
-			}
-		}
-
-		private void addAssign(AssignType type) {
-			if (this.leftAssign != null && this.rightAssign != null) {
-				model.Assign assign = new model.Assign(this.leftAssign, this.rightAssign, type);
-				this.getCurrentContainer().addAssign(assign);
-			}
-		}
-
 		@Override
 		public void visitChildren(Call n) {
 			//prevents registering function names as variables
@@ -393,46 +295,6 @@ public class ModelBuilder {
 			//prevents registering function names as variables
 			n.getCall().accept(this);
 		}
-
-		private void addSubroutineRef(String name) {
-			this.getCurrentContainer().addSubroutineCall(name);
-		}
-
-		private model.Module getCurrentModule() {
-			if (this.currentFilePath == null || !this.project.hasModule(this.currentFilePath)) {
-				return null;
-			}
-			return this.project.getModule(this.currentFilePath);
-		}
-
-		private Class getCurrentClass() {
-			return this.classes.peek();
-		}
-
-		
-//		private Method getCurrentMethod() {
-//			return this.subroutines.peek();
-//		}
-//
-		private boolean inClass() {
-			return !this.classes.isEmpty();
-		}
-
-		private boolean inSubroutine() {
-			return !this.subroutines.isEmpty();
-		}
-//
-//		private boolean inClassMethod() {
-//			return this.inClass() && !this.subroutines.isEmpty();
-//		}
-
-		private ContentContainer getCurrentContainer() {
-			return this.contentContainers.peek();
-		}
-	
-		public Stack<SuperCall> getStatements() {
-			return statements;
-		}
 	}
 
 	/**
@@ -440,7 +302,7 @@ public class ModelBuilder {
 	 * 
 	 *
 	 */
-	public class ClassArgumentCollector implements ArgumentVisitor<String> {
+	public static class ClassArgumentCollector implements ArgumentVisitor<String> {
 
 		@Override
 		public String visit(Arg n) {
@@ -19,10 +19,21 @@ public class Project implements Unlinkable, Serializable {
 	private static final long serialVersionUID = -2643092858223935288L;
 	private final Map<String, Module> modules;
 	private final File folder;
+	private final String revision;
 	private boolean processed = false;
 
 	public Project(File folder) {
+		this(folder, null);
+	}
+
+	/**
+	 * Project of a revision of a git repository, its modules have paths relative to the repository.
+	 * @param folder folder of the repository
+	 * @param revision the analysed revision, null for a project on disk
+	 */
+	public Project(File folder, String revision) {
 		this.folder = folder;
+		this.revision = revision;
 		this.modules = new HashMap<>();
 	}
 
@@ -34,8 +45,18 @@ public class Project implements Unlinkable, Serializable {
 		return this.folder.getName();
 	}
 
+	/**
+	 * @return the path the module paths start with, empty for the revision of a repository
+	 */
 	public String getPath() {
-		return this.folder.getAbsolutePath();
+		return this.revision == null ? this.folder.getAbsolutePath() : "";
+	}
+
+	/**
+	 * @return the analysed git revision, null for a project on disk
+	 */
+	public String getRevision() {
+		return this.revision;
 	}
 
 	public void addModule(Module m) {
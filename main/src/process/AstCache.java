@@ -0,0 +1,138 @@
+package process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ast.AstBuilder;
+import ast.FlatModule;
+import ast.Module;
+import gen.PythonLexer;
+import gen.PythonParser;
+import util.SourceFile;
+import util.StringHelper;
+
+/**
+ * Persistent cache of module ASTs, so unchanged files don't have to be parsed again in the next run.
+ *
+ * Entries are keyed by a hash of the file contents and stored as gzipped flat modules (see
+ * {@link FlatModule#write(java.io.DataOutput)}) in a subdirectory named after the grammar, AstBuilder and format
+ * version, so a grammar change, a new AstBuilder.VERSION or a new FlatModule.FORMAT_VERSION starts with an empty
+ * cache. Only modules that parsed without errors are cached.
+ */
+public class AstCache {
+
+	private static final String EXTENSION = ".ast";
+
+	private static AstCache instance;
+	private static boolean initialized;
+
+	private final File directory;
+
+	public AstCache(File directory) {
+		this.directory = new File(directory, AstCache.version());
+		this.directory.mkdirs();
+	}
+
+	/**
+	 * @return the cache configured by "parsing.cache", or null when caching is disabled
+	 */
+	public static synchronized AstCache getInstance() {
+		if (!initialized) {
+			initialized = true;
+			File directory = ParserSettings.getInstance().getAstCacheDirectory();
+			if (directory != null) {
+				instance = new AstCache(directory);
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * @param source the source file
+	 * @return the cache key of the source
+	 */
+	public String key(SourceFile source) {
+		return StringHelper.toHex(source.digest(AstCache.newDigest()).digest());
+	}
+
+	/**
+	 * @param key cache key of the source
+	 * @param filePath path of the module
+	 * @return the cached module for the given path, or null when there is no (readable) entry
+	 */
+	public Module get(String key, String filePath) {
+		File file = this.getFile(key);
+		if (!file.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))) {
+			return FlatModule.read(in, filePath).inflate();
+		}
+		catch (IOException | RuntimeException | StackOverflowError e) {
+			//stale or truncated entry, parse again
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the module, unless it contains errors.
+	 * @param key cache key of the source
+	 * @param module the module
+	 */
+	public void put(String key, Module module) {
+		if (!module.getErrors().isEmpty()) {
+			return;
+		}
+		File file = this.getFile(key);
+		file.getParentFile().mkdirs();
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(file.getParentFile().toPath(), key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))) {
+				FlatModule.encode(module).write(out);
+			}
+			Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException | IllegalArgumentException | StackOverflowError e) {
+			System.err.println("Could not cache AST of " + module.getFilePath() + ": " + e);
+			if (temp != null) {
+				temp.toFile().delete();
+			}
+		}
+	}
+
+	private File getFile(String key) {
+		return new File(new File(this.directory, key.substring(0, 2)), key + EXTENSION);
+	}
+
+	private static String version() {
+		MessageDigest digest = AstCache.newDigest();
+		digest.update(PythonLexer._serializedATN.getBytes(StandardCharsets.UTF_8));
+		digest.update(PythonParser._serializedATN.getBytes(StandardCharsets.UTF_8));
+		digest.update(String.valueOf(AstBuilder.VERSION).getBytes(StandardCharsets.UTF_8));
+		digest.update(String.valueOf(FlatModule.FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+		return StringHelper.toHex(digest.digest()).substring(0, 16);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
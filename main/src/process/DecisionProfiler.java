@@ -0,0 +1,202 @@
+package process;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.LookaheadEventInfo;
+
+import gen.PythonParser;
+
+/**
+ * Accumulates the decision statistics of ANTLR's ProfilingATNSimulator over all parsed files. When the profiler
+ * is enabled, ParserPool parses with profiling on and adds the statistics of every parse.
+ *
+ * The decisions are mapped back to the rule of Python.g4 they belong to and can be ranked by prediction time, to
+ * find the decisions that are worth optimizing in the grammar.
+ */
+public class DecisionProfiler {
+
+	private static volatile DecisionProfiler instance;
+
+	private final Decision[] decisions;
+
+	private DecisionProfiler() {
+		int count = PythonParser._ATN.getNumberOfDecisions();
+		this.decisions = new Decision[count];
+		for (int i = 0; i < count; i++) {
+			this.decisions[i] = new Decision(i);
+		}
+	}
+
+	/**
+	 * Turns on profiling for all following parses.
+	 */
+	public static synchronized void enable() {
+		if (instance == null) {
+			instance = new DecisionProfiler();
+		}
+	}
+
+	/**
+	 * @return the profiler, or null when profiling is not enabled
+	 */
+	public static DecisionProfiler getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Adds the statistics of one parse. Has to be called before the parser is used for the next input, because the
+	 * lookahead events refer to its token stream.
+	 * @param infos decision info of the ProfilingATNSimulator
+	 */
+	public synchronized void add(DecisionInfo[] infos) {
+		for (DecisionInfo info : infos) {
+			this.decisions[info.decision].add(info);
+		}
+	}
+
+	/**
+	 * @return the decisions that were predicted at least once, by descending prediction time
+	 */
+	public synchronized List<Decision> getRanking() {
+		List<Decision> ranking = new ArrayList<>();
+		for (Decision decision : this.decisions) {
+			if (decision.invocations > 0) {
+				ranking.add(decision);
+			}
+		}
+		ranking.sort(Comparator.comparingLong(Decision::getTimeInPrediction).reversed());
+		return ranking;
+	}
+
+	/**
+	 * @return total prediction time of all decisions in nanoseconds
+	 */
+	public synchronized long getTotalTime() {
+		long total = 0;
+		for (Decision decision : this.decisions) {
+			total += decision.timeInPrediction;
+		}
+		return total;
+	}
+
+	/**
+	 * Statistics of one decision of the grammar, summed over all parses.
+	 */
+	public static class Decision {
+
+		private final int decision;
+		private final String rule;
+		private final int atnState;
+
+		private long invocations;
+		private long timeInPrediction;
+		private long sllTotalLook;
+		private long sllMaxLook;
+		private long llTotalLook;
+		private long llMaxLook;
+		private String llMaxLookLocation;
+		private long llFallbacks;
+		private long ambiguities;
+		private long contextSensitivities;
+		private long errors;
+
+		private Decision(int decision) {
+			this.decision = decision;
+			this.atnState = PythonParser._ATN.getDecisionState(decision).stateNumber;
+			this.rule = PythonParser.ruleNames[PythonParser._ATN.getDecisionState(decision).ruleIndex];
+		}
+
+		private void add(DecisionInfo info) {
+			this.invocations += info.invocations;
+			this.timeInPrediction += info.timeInPrediction;
+			this.sllTotalLook += info.SLL_TotalLook;
+			this.sllMaxLook = Math.max(this.sllMaxLook, info.SLL_MaxLook);
+			this.llTotalLook += info.LL_TotalLook;
+			if (info.LL_MaxLook > this.llMaxLook) {
+				this.llMaxLook = info.LL_MaxLook;
+				this.llMaxLookLocation = Decision.location(info.LL_MaxLookEvent);
+			}
+			this.llFallbacks += info.LL_Fallback;
+			this.ambiguities += info.ambiguities.size();
+			this.contextSensitivities += info.contextSensitivities.size();
+			this.errors += info.errors.size();
+		}
+
+		private static String location(LookaheadEventInfo event) {
+			if (event == null || event.input == null || event.startIndex < 0 || event.startIndex >= event.input.size()) {
+				return null;
+			}
+			Token token = event.input.get(event.startIndex);
+			return event.input.getSourceName() + ":" + token.getLine();
+		}
+
+		public int getDecision() {
+			return this.decision;
+		}
+
+		public String getRule() {
+			return this.rule;
+		}
+
+		public int getAtnState() {
+			return this.atnState;
+		}
+
+		public long getInvocations() {
+			return this.invocations;
+		}
+
+		/**
+		 * @return prediction time in nanoseconds
+		 */
+		public long getTimeInPrediction() {
+			return this.timeInPrediction;
+		}
+
+		public double getSllAverageLook() {
+			return this.invocations == 0 ? 0 : (double) this.sllTotalLook / this.invocations;
+		}
+
+		public long getSllMaxLook() {
+			return this.sllMaxLook;
+		}
+
+		/**
+		 * @return average LL lookahead of the predictions that fell back to full context
+		 */
+		public double getLlAverageLook() {
+			return this.llFallbacks == 0 ? 0 : (double) this.llTotalLook / this.llFallbacks;
+		}
+
+		public long getLlMaxLook() {
+			return this.llMaxLook;
+		}
+
+		/**
+		 * @return file and line where the deepest LL lookahead started, or null when there was no LL prediction
+		 */
+		public String getLlMaxLookLocation() {
+			return this.llMaxLookLocation;
+		}
+
+		public long getLlFallbacks() {
+			return this.llFallbacks;
+		}
+
+		public long getAmbiguities() {
+			return this.ambiguities;
+		}
+
+		public long getContextSensitivities() {
+			return this.contextSensitivities;
+		}
+
+		public long getErrors() {
+			return this.errors;
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package process;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+
+/**
+ * Keeps the DFA and prediction context caches of the lexer and parser warm across files (and threads), instead of
+ * clearing them after every file. The caches are only reset once their combined amount of entries exceeds the
+ * configured limit ("parsing.dfa.cachelimit"), which keeps the memory use bounded.
+ *
+ * Parsers register themselves with {@link #attach(PythonLexer, PythonParser)} before parsing and
+ * {@link #detach(PythonLexer, PythonParser)} afterwards. A reset waits until all running parses are finished.
+ *
+ * With "parsing.dfa.snapshot" the DFA is saved at the end of a run (see {@link DfaSnapshot}) and loaded again when
+ * the cache is created, so the next run starts warm.
+ */
+public class DfaCache {
+
+	private static DfaCache instance;
+
+	private final int limit;
+	private final ReadWriteLock lock;
+	private final AtomicInteger resets;
+
+	private PredictionContextCache lexerContexts;
+	private PredictionContextCache parserContexts;
+
+	public DfaCache(int limit) {
+		this.limit = limit;
+		this.lock = new ReentrantReadWriteLock();
+		this.resets = new AtomicInteger();
+		this.lexerContexts = new SynchronizedContextCache();
+		this.parserContexts = new SynchronizedContextCache();
+	}
+
+	public static synchronized DfaCache getInstance() {
+		if (instance == null) {
+			instance = new DfaCache(ParserSettings.getInstance().getDfaCacheLimit());
+			instance.loadSnapshot(ParserSettings.getInstance().getDfaSnapshotFile());
+		}
+		return instance;
+	}
+
+	/**
+	 * Saves the warm DFA to the configured snapshot file ("parsing.dfa.snapshot"), if any. Waits for running parses.
+	 */
+	public static synchronized void saveSnapshot() {
+		File file = ParserSettings.getInstance().getDfaSnapshotFile();
+		if (instance == null || file == null) {
+			return;
+		}
+		instance.lock.writeLock().lock();
+		try {
+			int states = DfaSnapshot.save(file);
+			System.out.println("Saved " + states + " DFA states to " + file);
+		}
+		catch (IOException e) {
+			System.err.println("Could not save DFA snapshot " + file + ": " + e);
+		}
+		finally {
+			instance.lock.writeLock().unlock();
+		}
+	}
+
+	private void loadSnapshot(File file) {
+		if (file == null || !file.exists()) {
+			return;
+		}
+		try {
+			int states = DfaSnapshot.load(file);
+			if (states >= 0) {
+				System.out.println("Loaded " + states + " DFA states from " + file);
+			}
+			else {
+				System.out.println("Ignoring DFA snapshot " + file + ", it belongs to another grammar version");
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Could not load DFA snapshot " + file + ": " + e);
+		}
+	}
+
+	/**
+	 * Installs simulators using the shared caches. Has to be followed by a call to detach.
+	 */
+	public void attach(PythonLexer lexer, PythonParser parser) {
+		this.lock.readLock().lock();
+		lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA, this.lexerContexts));
+		parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, this.parserContexts));
+	}
+
+	/**
+	 * @return the shared prediction context cache of the lexers, for a lexer that works for an attached parser on
+	 * another thread (see {@link PipelinedTokenSource}). That lexer must stop before the parser is detached, which
+	 * keeps the caches from being reset under it.
+	 */
+	public PredictionContextCache getLexerContexts() {
+		return this.lexerContexts;
+	}
+
+	/**
+	 * Marks the end of a parse, resets the caches when they have grown past the limit.
+	 */
+	public void detach(PythonLexer lexer, PythonParser parser) {
+		this.lock.readLock().unlock();
+		if (this.size(lexer, parser) > this.limit) {
+			this.reset(lexer, parser);
+		}
+	}
+
+	public int getResets() {
+		return this.resets.get();
+	}
+
+	private void reset(PythonLexer lexer, PythonParser parser) {
+		this.lock.writeLock().lock();
+		try {
+			//another thread may have reset the caches while we were waiting
+			if (this.size(lexer, parser) > this.limit) {
+				lexer.getInterpreter().clearDFA();
+				parser.getInterpreter().clearDFA();
+				this.lexerContexts = new SynchronizedContextCache();
+				this.parserContexts = new SynchronizedContextCache();
+				this.resets.incrementAndGet();
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private int size(PythonLexer lexer, PythonParser parser) {
+		return DfaCache.stateCount(lexer.getInterpreter().decisionToDFA)
+				+ DfaCache.stateCount(parser.getInterpreter().decisionToDFA)
+				+ this.lexerContexts.size()
+				+ this.parserContexts.size();
+	}
+
+	private static int stateCount(DFA[] decisionToDFA) {
+		int count = 0;
+		for (DFA dfa : decisionToDFA) {
+			count += dfa.states.size();
+		}
+		return count;
+	}
+
+	/**
+	 * The DFA of a decision is locked while it is extended, but the context cache is shared by all decisions.
+	 */
+	private static class SynchronizedContextCache extends PredictionContextCache {
+
+		@Override
+		public synchronized PredictionContext add(PredictionContext ctx) {
+			return super.add(ctx);
+		}
+
+		@Override
+		public synchronized PredictionContext get(PredictionContext ctx) {
+			return super.get(ctx);
+		}
+
+		@Override
+		public synchronized int size() {
+			return super.size();
+		}
+	}
+}
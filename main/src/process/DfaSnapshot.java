@@ -0,0 +1,566 @@
+package process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ArrayPredictionContext;
+import org.antlr.v4.runtime.atn.EmptyPredictionContext;
+import org.antlr.v4.runtime.atn.LexerATNConfig;
+import org.antlr.v4.runtime.atn.LexerAction;
+import org.antlr.v4.runtime.atn.LexerActionExecutor;
+import org.antlr.v4.runtime.atn.LexerActionType;
+import org.antlr.v4.runtime.atn.LexerChannelAction;
+import org.antlr.v4.runtime.atn.LexerCustomAction;
+import org.antlr.v4.runtime.atn.LexerIndexedCustomAction;
+import org.antlr.v4.runtime.atn.LexerModeAction;
+import org.antlr.v4.runtime.atn.LexerMoreAction;
+import org.antlr.v4.runtime.atn.LexerPopModeAction;
+import org.antlr.v4.runtime.atn.LexerPushModeAction;
+import org.antlr.v4.runtime.atn.LexerSkipAction;
+import org.antlr.v4.runtime.atn.LexerTypeAction;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.atn.SemanticContext;
+import org.antlr.v4.runtime.atn.SingletonPredictionContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+import util.StringHelper;
+
+/**
+ * Saves the DFA states that the PythonLexer and PythonParser learned during a run to a file, and loads them into
+ * the shared DFAs of a new JVM, so a run doesn't start with cold prediction.
+ *
+ * The snapshot stores the configurations of every DFA state (ATN state numbers, alternatives and prediction
+ * contexts) besides its edges, so restored states can be extended like states built during the run. A snapshot is
+ * tied to the ATN serializations of the lexer and parser and is ignored after a grammar change. States that depend
+ * on semantic predicates or non-greedy decisions are not stored, they are simply computed again when needed.
+ */
+public class DfaSnapshot {
+
+	private static final String MAGIC = "python-dfa";
+	private static final int FORMAT_VERSION = 2;
+	private static final int ERROR_STATE = -1;
+	private static final int NONE = -1;
+	private static final int INDEXED_CUSTOM = -2;
+
+	private final Map<PredictionContext, Integer> contextIds = new HashMap<>();
+	private final List<PredictionContext> contexts = new ArrayList<>();
+	private final Map<LexerActionExecutor, Integer> executorIds = new HashMap<>();
+	private final List<LexerActionExecutor> executors = new ArrayList<>();
+
+	private DfaSnapshot() {
+	}
+
+	/**
+	 * Writes the DFA states of the shared lexer and parser DFAs to the file. Must not run concurrently with parsing.
+	 * @param file the snapshot file
+	 * @return amount of stored states
+	 * @throws IOException when the file cannot be written
+	 */
+	public static int save(File file) throws IOException {
+		if (file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		Path temp = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+		int states;
+		try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))) {
+			out.writeUTF(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(DfaSnapshot.atnHash(PythonLexer._serializedATN));
+			out.writeUTF(DfaSnapshot.atnHash(PythonParser._serializedATN));
+			states = new DfaSnapshot().write(out, DfaSnapshot.lexerDfas(), true)
+					+ new DfaSnapshot().write(out, DfaSnapshot.parserDfas(), false);
+		}
+		catch (IOException e) {
+			temp.toFile().delete();
+			throw e;
+		}
+		Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return states;
+	}
+
+	/**
+	 * Loads the snapshot into the shared lexer and parser DFAs. Nothing is loaded when the snapshot belongs to another
+	 * version of the grammar, or when the DFAs already contain states.
+	 * @param file the snapshot file
+	 * @return amount of loaded states, -1 when the snapshot was not loaded
+	 * @throws IOException when the file cannot be read or is corrupt
+	 */
+	public static int load(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))) {
+			if (!in.readUTF().equals(MAGIC) || in.readInt() != FORMAT_VERSION) {
+				return -1;
+			}
+			if (!in.readUTF().equals(DfaSnapshot.atnHash(PythonLexer._serializedATN))
+					|| !in.readUTF().equals(DfaSnapshot.atnHash(PythonParser._serializedATN))) {
+				return -1;
+			}
+
+			DFA[] lexerDfas = DfaSnapshot.lexerDfas();
+			DFA[] parserDfas = DfaSnapshot.parserDfas();
+			List<LoadedDfa> lexerStates = new DfaSnapshot().read(in, lexerDfas, PythonLexer._ATN, true);
+			List<LoadedDfa> parserStates = new DfaSnapshot().read(in, parserDfas, PythonParser._ATN, false);
+
+			for (DFA dfa : lexerDfas) {
+				if (dfa.s0 != null || !dfa.states.isEmpty()) {
+					return -1;
+				}
+			}
+			for (DFA dfa : parserDfas) {
+				if (dfa.s0 != null || !dfa.states.isEmpty()) {
+					return -1;
+				}
+			}
+			return DfaSnapshot.apply(lexerDfas, lexerStates) + DfaSnapshot.apply(parserDfas, parserStates);
+		}
+		catch (RuntimeException e) {
+			throw new IOException("Corrupt DFA snapshot " + file, e);
+		}
+	}
+
+	private int write(DataOutputStream out, DFA[] dfas, boolean lexer) throws IOException {
+		//collect the states to store per DFA and register their contexts and lexer actions
+		List<List<DFAState>> stored = new ArrayList<>();
+		for (DFA dfa : dfas) {
+			List<DFAState> states = new ArrayList<>();
+			if (!dfa.isPrecedenceDfa()) {
+				synchronized (dfa.states) {
+					for (DFAState state : dfa.states.values()) {
+						if (DfaSnapshot.isStorable(state)) {
+							states.add(state);
+						}
+					}
+				}
+			}
+			for (DFAState state : states) {
+				for (ATNConfig config : state.configs.elements()) {
+					this.register(config.context);
+					if (lexer) {
+						this.register(((LexerATNConfig) config).getLexerActionExecutor());
+					}
+				}
+				this.register(state.lexerActionExecutor);
+			}
+			stored.add(states);
+		}
+
+		this.writeContexts(out);
+		this.writeExecutors(out);
+
+		int count = 0;
+		out.writeInt(dfas.length);
+		for (int d = 0; d < dfas.length; d++) {
+			List<DFAState> states = stored.get(d);
+			Map<DFAState, Integer> index = new IdentityHashMap<>();
+			for (DFAState state : states) {
+				index.put(state, index.size());
+			}
+
+			out.writeInt(dfas[d].decision);
+			out.writeInt(states.size());
+			for (DFAState state : states) {
+				this.writeState(out, state, lexer);
+			}
+			for (DFAState state : states) {
+				DfaSnapshot.writeEdges(out, state, index);
+			}
+			Integer s0 = dfas[d].s0 == null ? null : index.get(dfas[d].s0);
+			out.writeInt(s0 == null ? NONE : s0);
+			count += states.size();
+		}
+		return count;
+	}
+
+	private List<LoadedDfa> read(DataInputStream in, DFA[] dfas, ATN atn, boolean lexer) throws IOException {
+		this.readContexts(in, atn);
+		this.readExecutors(in);
+
+		int dfaCount = in.readInt();
+		if (dfaCount != dfas.length) {
+			throw new IOException("DFA count " + dfaCount + " does not match " + dfas.length);
+		}
+		List<LoadedDfa> result = new ArrayList<>();
+		for (int d = 0; d < dfaCount; d++) {
+			int decision = in.readInt();
+			if (decision != dfas[d].decision) {
+				throw new IOException("Unexpected decision " + decision);
+			}
+			DFAState[] states = new DFAState[in.readInt()];
+			for (int i = 0; i < states.length; i++) {
+				states[i] = this.readState(in, atn, lexer);
+				states[i].stateNumber = i;
+			}
+			for (DFAState state : states) {
+				DfaSnapshot.readEdges(in, state, states);
+			}
+			int s0 = in.readInt();
+			result.add(new LoadedDfa(states, s0 == NONE ? null : states[s0]));
+		}
+		return result;
+	}
+
+	private static int apply(DFA[] dfas, List<LoadedDfa> loaded) {
+		int count = 0;
+		for (int d = 0; d < dfas.length; d++) {
+			LoadedDfa states = loaded.get(d);
+			synchronized (dfas[d].states) {
+				for (DFAState state : states.states) {
+					dfas[d].states.put(state, state);
+				}
+				dfas[d].s0 = states.s0;
+			}
+			count += states.states.length;
+		}
+		return count;
+	}
+
+	private static boolean isStorable(DFAState state) {
+		if (state.predicates != null || state.configs == null) {
+			return false;
+		}
+		for (ATNConfig config : state.configs.elements()) {
+			if (config.semanticContext != SemanticContext.NONE) {
+				return false;
+			}
+			if (config instanceof LexerATNConfig && ((LexerATNConfig) config).hasPassedThroughNonGreedyDecision()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void writeState(DataOutputStream out, DFAState state, boolean lexer) throws IOException {
+		ATNConfigSet configs = state.configs;
+		out.writeInt(configs.size());
+		for (ATNConfig config : configs.elements()) {
+			out.writeInt(config.state.stateNumber);
+			out.writeInt(config.alt);
+			out.writeInt(this.contextIds.get(config.context));
+			out.writeInt(config.reachesIntoOuterContext);
+			if (lexer) {
+				out.writeInt(this.executorId(((LexerATNConfig) config).getLexerActionExecutor()));
+			}
+		}
+		out.writeBoolean(configs.fullCtx);
+		out.writeInt(configs.uniqueAlt);
+		out.writeBoolean(configs.hasSemanticContext);
+		out.writeBoolean(configs.dipsIntoOuterContext);
+
+		out.writeBoolean(state.isAcceptState);
+		out.writeInt(state.prediction);
+		out.writeInt(this.executorId(state.lexerActionExecutor));
+		out.writeBoolean(state.requiresFullContext);
+		out.writeInt(state.edges == null ? NONE : state.edges.length);
+	}
+
+	private DFAState readState(DataInputStream in, ATN atn, boolean lexer) throws IOException {
+		int size = in.readInt();
+		List<ATNConfig> configs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int stateNumber = in.readInt();
+			if (stateNumber < 0 || stateNumber >= atn.states.size()) {
+				throw new IOException("Unknown ATN state " + stateNumber);
+			}
+			int alt = in.readInt();
+			PredictionContext context = this.contexts.get(in.readInt());
+			int reachesIntoOuterContext = in.readInt();
+			ATNConfig config = lexer
+					? new LexerATNConfig(atn.states.get(stateNumber), alt, context, this.executor(in.readInt()))
+					: new ATNConfig(atn.states.get(stateNumber), alt, context, SemanticContext.NONE);
+			config.reachesIntoOuterContext = reachesIntoOuterContext;
+			configs.add(config);
+		}
+		boolean fullCtx = in.readBoolean();
+		int uniqueAlt = in.readInt();
+		boolean hasSemanticContext = in.readBoolean();
+		boolean dipsIntoOuterContext = in.readBoolean();
+		boolean isAcceptState = in.readBoolean();
+		int prediction = in.readInt();
+		LexerActionExecutor lexerActionExecutor = this.executor(in.readInt());
+		boolean requiresFullContext = in.readBoolean();
+
+		DFAState state = new DFAState(new RestoredConfigSet(configs, fullCtx, uniqueAlt, requiresFullContext,
+				hasSemanticContext, dipsIntoOuterContext));
+		state.isAcceptState = isAcceptState;
+		state.prediction = prediction;
+		state.lexerActionExecutor = lexerActionExecutor;
+		state.requiresFullContext = requiresFullContext;
+		int edges = in.readInt();
+		state.edges = edges == NONE ? null : new DFAState[edges];
+		return state;
+	}
+
+	private static void writeEdges(DataOutputStream out, DFAState state, Map<DFAState, Integer> index) throws IOException {
+		List<int[]> edges = new ArrayList<>();
+		if (state.edges != null) {
+			for (int symbol = 0; symbol < state.edges.length; symbol++) {
+				DFAState target = state.edges[symbol];
+				if (target == ATNSimulator.ERROR) {
+					edges.add(new int[] { symbol, ERROR_STATE });
+				}
+				else if (target != null && index.containsKey(target)) {
+					edges.add(new int[] { symbol, index.get(target) });
+				}
+			}
+		}
+		out.writeInt(edges.size());
+		for (int[] edge : edges) {
+			out.writeInt(edge[0]);
+			out.writeInt(edge[1]);
+		}
+	}
+
+	private static void readEdges(DataInputStream in, DFAState state, DFAState[] states) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			int symbol = in.readInt();
+			int target = in.readInt();
+			state.edges[symbol] = target == ERROR_STATE ? ATNSimulator.ERROR : states[target];
+		}
+	}
+
+	private void register(PredictionContext context) {
+		if (context == null || this.contextIds.containsKey(context)) {
+			return;
+		}
+		for (int i = 0; i < context.size(); i++) {
+			this.register(context.getParent(i));
+		}
+		this.contextIds.put(context, this.contexts.size());
+		this.contexts.add(context);
+	}
+
+	private void writeContexts(DataOutputStream out) throws IOException {
+		out.writeInt(this.contexts.size());
+		for (PredictionContext context : this.contexts) {
+			if (context instanceof EmptyPredictionContext) {
+				out.writeByte(0);
+			}
+			else if (context instanceof SingletonPredictionContext) {
+				out.writeByte(1);
+				out.writeInt(this.contextId(context.getParent(0)));
+				out.writeInt(context.getReturnState(0));
+			}
+			else {
+				out.writeByte(2);
+				out.writeInt(context.size());
+				for (int i = 0; i < context.size(); i++) {
+					out.writeInt(this.contextId(context.getParent(i)));
+					out.writeInt(context.getReturnState(i));
+				}
+			}
+		}
+	}
+
+	private void readContexts(DataInputStream in, ATN atn) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			byte kind = in.readByte();
+			if (kind == 0) {
+				this.contexts.add(PredictionContext.EMPTY);
+			}
+			else if (kind == 1) {
+				PredictionContext parent = this.context(in.readInt());
+				this.contexts.add(SingletonPredictionContext.create(parent, DfaSnapshot.returnState(in.readInt(), atn)));
+			}
+			else {
+				int size = in.readInt();
+				PredictionContext[] parents = new PredictionContext[size];
+				int[] returnStates = new int[size];
+				for (int j = 0; j < size; j++) {
+					parents[j] = this.context(in.readInt());
+					returnStates[j] = DfaSnapshot.returnState(in.readInt(), atn);
+				}
+				this.contexts.add(new ArrayPredictionContext(parents, returnStates));
+			}
+		}
+	}
+
+	private static int returnState(int returnState, ATN atn) throws IOException {
+		if (returnState != PredictionContext.EMPTY_RETURN_STATE && (returnState < 0 || returnState >= atn.states.size())) {
+			throw new IOException("Unknown return state " + returnState);
+		}
+		return returnState;
+	}
+
+	private int contextId(PredictionContext context) {
+		return context == null ? NONE : this.contextIds.get(context);
+	}
+
+	private PredictionContext context(int id) {
+		return id == NONE ? null : this.contexts.get(id);
+	}
+
+	private void register(LexerActionExecutor executor) {
+		if (executor != null && !this.executorIds.containsKey(executor)) {
+			this.executorIds.put(executor, this.executors.size());
+			this.executors.add(executor);
+		}
+	}
+
+	private int executorId(LexerActionExecutor executor) {
+		return executor == null ? NONE : this.executorIds.get(executor);
+	}
+
+	private LexerActionExecutor executor(int id) {
+		return id == NONE ? null : this.executors.get(id);
+	}
+
+	private void writeExecutors(DataOutputStream out) throws IOException {
+		out.writeInt(this.executors.size());
+		for (LexerActionExecutor executor : this.executors) {
+			LexerAction[] actions = executor.getLexerActions();
+			out.writeInt(actions.length);
+			for (LexerAction action : actions) {
+				if (action instanceof LexerIndexedCustomAction) {
+					out.writeInt(INDEXED_CUSTOM);
+					out.writeInt(((LexerIndexedCustomAction) action).getOffset());
+					action = ((LexerIndexedCustomAction) action).getAction();
+				}
+				DfaSnapshot.writeAction(out, action);
+			}
+		}
+	}
+
+	private void readExecutors(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			LexerAction[] actions = new LexerAction[in.readInt()];
+			for (int j = 0; j < actions.length; j++) {
+				int type = in.readInt();
+				if (type == INDEXED_CUSTOM) {
+					int offset = in.readInt();
+					actions[j] = new LexerIndexedCustomAction(offset, DfaSnapshot.readAction(in, in.readInt()));
+				}
+				else {
+					actions[j] = DfaSnapshot.readAction(in, type);
+				}
+			}
+			this.executors.add(new LexerActionExecutor(actions));
+		}
+	}
+
+	private static void writeAction(DataOutputStream out, LexerAction action) throws IOException {
+		out.writeInt(action.getActionType().ordinal());
+		switch (action.getActionType()) {
+			case CHANNEL:
+				out.writeInt(((LexerChannelAction) action).getChannel());
+				break;
+			case CUSTOM:
+				out.writeInt(((LexerCustomAction) action).getRuleIndex());
+				out.writeInt(((LexerCustomAction) action).getActionIndex());
+				break;
+			case MODE:
+				out.writeInt(((LexerModeAction) action).getMode());
+				break;
+			case PUSH_MODE:
+				out.writeInt(((LexerPushModeAction) action).getMode());
+				break;
+			case TYPE:
+				out.writeInt(((LexerTypeAction) action).getType());
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static LexerAction readAction(DataInputStream in, int type) throws IOException {
+		switch (LexerActionType.values()[type]) {
+			case CHANNEL:
+				return new LexerChannelAction(in.readInt());
+			case CUSTOM:
+				return new LexerCustomAction(in.readInt(), in.readInt());
+			case MODE:
+				return new LexerModeAction(in.readInt());
+			case MORE:
+				return LexerMoreAction.INSTANCE;
+			case POP_MODE:
+				return LexerPopModeAction.INSTANCE;
+			case PUSH_MODE:
+				return new LexerPushModeAction(in.readInt());
+			case SKIP:
+				return LexerSkipAction.INSTANCE;
+			case TYPE:
+				return new LexerTypeAction(in.readInt());
+			default:
+				throw new IOException("Unknown lexer action " + type);
+		}
+	}
+
+	private static DFA[] lexerDfas() {
+		return new PythonLexer(CharStreams.fromString("")).getInterpreter().decisionToDFA;
+	}
+
+	private static DFA[] parserDfas() {
+		return new PythonParser(null).getInterpreter().decisionToDFA;
+	}
+
+	private static String atnHash(String serializedAtn) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			return StringHelper.toHex(digest.digest(serializedAtn.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class LoadedDfa {
+		private final DFAState[] states;
+		private final DFAState s0;
+
+		private LoadedDfa(DFAState[] states, DFAState s0) {
+			this.states = states;
+			this.s0 = s0;
+		}
+	}
+
+	/**
+	 * Config set of a restored DFA state. The configs are added as stored, without merging, and the set is read only
+	 * like the sets of states built during parsing. The lexer uses full context sets, the parser DFA only SLL sets.
+	 */
+	private static class RestoredConfigSet extends ATNConfigSet {
+
+		/**
+		 * @param requiresFullContext whether the state is an SLL conflict, for which the parser computes the
+		 * conflicting alternatives from the configs; they are computed again in the same way instead of being stored
+		 */
+		private RestoredConfigSet(List<ATNConfig> configs, boolean fullCtx, int uniqueAlt, boolean requiresFullContext,
+				boolean hasSemanticContext, boolean dipsIntoOuterContext) {
+			super(fullCtx);
+			this.configs.addAll(configs);
+			this.uniqueAlt = uniqueAlt;
+			this.hasSemanticContext = hasSemanticContext;
+			this.dipsIntoOuterContext = dipsIntoOuterContext;
+			if (requiresFullContext) {
+				this.conflictingAlts = PredictionMode.getAlts(PredictionMode.getConflictingAltSubsets(this));
+			}
+			this.setReadonly(true);
+		}
+	}
+}
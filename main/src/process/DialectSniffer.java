@@ -0,0 +1,251 @@
+package process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.WritableToken;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+
+/**
+ * Classifies the tokens of a file as Python 2 or Python 3 code before it is parsed, by looking for constructs that
+ * only exist in one of the versions: print and exec statements, backticks, '<>', long literals, "except X, e" and
+ * "raise E, msg" for Python 2; nonlocal, '->', "yield from" and f-strings for Python 3.
+ *
+ * The combined grammar has to look ahead to the end of a statement to choose between a print (or exec) statement
+ * and an expression statement calling print. When a file has no print statements, its PRINT tokens can be parsed as
+ * plain names, which makes that choice trivial. See {@link #renameKeywords()}.
+ */
+public class DialectSniffer {
+
+	public enum Dialect {
+		PYTHON2, PYTHON3, UNKNOWN
+	}
+
+	private static final int BACKQUOTE = DialectSniffer.literalType("'`'");
+
+	private final List<Token> tokens;
+
+	private boolean printStatement;
+	private boolean execStatement;
+	private boolean python2;
+	private boolean python3;
+
+	private DialectSniffer(List<Token> tokens) {
+		this.tokens = tokens;
+	}
+
+	/**
+	 * @param tokens all tokens of the input, as buffered by the token stream
+	 * @return the sniffer holding the classification
+	 */
+	public static DialectSniffer sniff(List<Token> tokens) {
+		DialectSniffer sniffer = new DialectSniffer(tokens);
+		sniffer.scan();
+		return sniffer;
+	}
+
+	/**
+	 * @return PYTHON2 or PYTHON3 when only markers of that version were found, UNKNOWN when none or both were found
+	 */
+	public Dialect getDialect() {
+		if (this.python2 == this.python3) {
+			return Dialect.UNKNOWN;
+		}
+		return this.python2 ? Dialect.PYTHON2 : Dialect.PYTHON3;
+	}
+
+	public boolean hasPrintStatement() {
+		return this.printStatement;
+	}
+
+	public boolean hasExecStatement() {
+		return this.execStatement;
+	}
+
+	/**
+	 * Turns the PRINT and EXEC tokens into NAME tokens, when the input has no print respectively exec statements.
+	 * @return the renamed keywords, which can be restored when the parse fails
+	 */
+	public RenamedKeywords renameKeywords() {
+		RenamedKeywords renamed = new RenamedKeywords();
+		for (Token token : this.tokens) {
+			if ((token.getType() == PythonLexer.PRINT && !this.printStatement)
+					|| (token.getType() == PythonLexer.EXEC && !this.execStatement)) {
+				renamed.rename((WritableToken) token);
+			}
+		}
+		return renamed;
+	}
+
+	private void scan() {
+		Token previous = null;
+		for (int i = 0; i < this.tokens.size(); i++) {
+			Token token = this.tokens.get(i);
+			if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+				continue;
+			}
+			Token next = this.next(i);
+			int type = token.getType();
+			if (type == PythonLexer.PRINT && DialectSniffer.startsStatement(previous) && DialectSniffer.isPrintArgument(next)) {
+				this.printStatement = true;
+				this.python2 = true;
+			}
+			else if (type == PythonLexer.EXEC && DialectSniffer.startsStatement(previous) && DialectSniffer.startsOperand(next)) {
+				this.execStatement = true;
+				this.python2 = true;
+			}
+			else if (type == BACKQUOTE || type == PythonLexer.NOT_EQ_1 || type == PythonLexer.LONG) {
+				this.python2 = true;
+			}
+			else if ((type == PythonLexer.EXCEPT || type == PythonLexer.RAISE) && this.hasTopLevelComma(i)) {
+				this.python2 = true;
+			}
+			else if (type == PythonLexer.NONLOCAL || type == PythonLexer.ARROW
+					|| (type == PythonLexer.YIELD && next != null && next.getType() == PythonLexer.FROM)
+					|| DialectSniffer.isFormatStringPrefix(token, next)) {
+				this.python3 = true;
+			}
+			previous = token;
+		}
+	}
+
+	private Token next(int index) {
+		for (int i = index + 1; i < this.tokens.size(); i++) {
+			if (this.tokens.get(i).getChannel() == Token.DEFAULT_CHANNEL) {
+				return this.tokens.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Looks for a comma outside of brackets between the keyword and the end of the clause, as in "except X, e:".
+	 */
+	private boolean hasTopLevelComma(int index) {
+		int depth = 0;
+		for (int i = index + 1; i < this.tokens.size(); i++) {
+			int type = this.tokens.get(i).getType();
+			if (type == PythonLexer.OPEN_PAREN || type == PythonLexer.OPEN_BRACK || type == PythonLexer.OPEN_BRACE) {
+				depth++;
+			}
+			else if (type == PythonLexer.CLOSE_PAREN || type == PythonLexer.CLOSE_BRACK || type == PythonLexer.CLOSE_BRACE) {
+				depth--;
+			}
+			else if (depth == 0 && (type == PythonLexer.COLON || type == PythonLexer.NEWLINE || type == Token.EOF)) {
+				return false;
+			}
+			else if (depth == 0 && type == PythonLexer.COMMA) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean startsStatement(Token previous) {
+		if (previous == null) {
+			return true;
+		}
+		int type = previous.getType();
+		return type == PythonLexer.NEWLINE || type == PythonParser.INDENT || type == PythonParser.DEDENT
+				|| type == PythonLexer.SEMI_COLON || type == PythonLexer.COLON;
+	}
+
+	/**
+	 * @return whether the token after print can only be the start of a print statement argument, not the
+	 * continuation of an expression with print as a name
+	 */
+	private static boolean isPrintArgument(Token next) {
+		return next != null && (next.getType() == PythonLexer.RIGHT_SHIFT || DialectSniffer.startsOperand(next));
+	}
+
+	/**
+	 * @return whether the token starts an operand that cannot directly follow a name in an expression
+	 */
+	private static boolean startsOperand(Token next) {
+		if (next == null) {
+			return false;
+		}
+		switch (next.getType()) {
+			case PythonLexer.NAME:
+			case PythonLexer.PRINT:
+			case PythonLexer.EXEC:
+			case PythonLexer.NONLOCAL:
+			case PythonLexer.ASYNC:
+			case PythonLexer.AWAIT:
+			case PythonLexer.STRING_LITERAL:
+			case PythonLexer.BYTES_LITERAL:
+			case PythonLexer.DECIMAL_INTEGER:
+			case PythonLexer.OCT_INTEGER:
+			case PythonLexer.HEX_INTEGER:
+			case PythonLexer.BIN_INTEGER:
+			case PythonLexer.LONG:
+			case PythonLexer.FLOAT_NUMBER:
+			case PythonLexer.IMAG_NUMBER:
+			case PythonLexer.ELLIPSIS:
+			case PythonLexer.NONE:
+			case PythonLexer.TRUE:
+			case PythonLexer.FALSE:
+			case PythonLexer.LAMBDA:
+			case PythonLexer.NOT:
+			case PythonLexer.NOT_OP:
+			case PythonLexer.OPEN_BRACE:
+				return true;
+			default:
+				return next.getType() == BACKQUOTE;
+		}
+	}
+
+	/**
+	 * The grammar has no f-strings, the prefix is lexed as a name directly followed by the string.
+	 */
+	private static boolean isFormatStringPrefix(Token token, Token next) {
+		if (token.getType() != PythonLexer.NAME || next == null || next.getType() != PythonLexer.STRING_LITERAL
+				|| token.getStopIndex() + 1 != next.getStartIndex()) {
+			return false;
+		}
+		String prefix = token.getText().toLowerCase();
+		return prefix.equals("f") || prefix.equals("rf") || prefix.equals("fr");
+	}
+
+	private static int literalType(String literal) {
+		Vocabulary vocabulary = PythonLexer.VOCABULARY;
+		for (int type = 0; type <= vocabulary.getMaxTokenType(); type++) {
+			if (literal.equals(vocabulary.getLiteralName(type))) {
+				return type;
+			}
+		}
+		throw new IllegalStateException("Unknown token " + literal);
+	}
+
+	/**
+	 * Keywords that were turned into names, with their original token types.
+	 */
+	public static class RenamedKeywords {
+
+		private final List<WritableToken> tokens = new ArrayList<>();
+		private final List<Integer> types = new ArrayList<>();
+
+		private void rename(WritableToken token) {
+			this.tokens.add(token);
+			this.types.add(token.getType());
+			token.setType(PythonLexer.NAME);
+		}
+
+		public boolean isEmpty() {
+			return this.tokens.isEmpty();
+		}
+
+		/**
+		 * Gives the tokens their keyword types back.
+		 */
+		public void restore() {
+			for (int i = 0; i < this.tokens.size(); i++) {
+				this.tokens.get(i).setType(this.types.get(i));
+			}
+		}
+	}
+}
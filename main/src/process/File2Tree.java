@@ -1,21 +1,41 @@
 package process;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
-import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.atn.ATNSimulator;
-import org.antlr.v4.runtime.atn.LexerATNSimulator;
-import org.antlr.v4.runtime.atn.ParserATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 import ast.AstBuilder;
+import ast.FlatModule;
+import ast.LocCounter;
 import ast.Module;
-import gen.PythonLexer;
+import ast.statement.Statement;
 import gen.PythonParser;
-import util.FileOpener;
+import model.BuiltModule;
+import model.ContextModelBuilder;
+import model.ModelBuilder;
+import model.Project;
+import util.FileHelper;
+import util.GitRevision;
+import util.ProjectArchive;
+import util.SourceFile;
 import util.StringHelper;
 
 /**
@@ -23,57 +43,439 @@ import util.StringHelper;
  */
 public class File2Tree {
 
+	private static ExecutorService pool;
+	private static int poolSize;
+
+	/**
+	 * Parses the files and builds their ASTs on the parser threads of "parsing.threads" (see
+	 * {@link ParserSettings#getParserThreads()}).
+	 * @param filePaths paths of the python files
+	 * @return map of file path to module, error modules included
+	 */
 	public static Map<String, Module> getAsts(List<String> filePaths) {
-		Map<String, Module> trees = new HashMap<>();
+		return File2Tree.getAsts(filePaths, ParserSettings.getInstance().getParserThreads());
+	}
+
+	/**
+	 * Parses the files and builds their ASTs on at most the given amount of threads. The resulting map is filled
+	 * in the order of the given paths, so it is identical to the one of a sequential run. The files are read ahead
+	 * of the parser threads when "parsing.prefetch" is set (see {@link FilePrefetcher}).
+	 * @param filePaths paths of the python files
+	 * @param threads maximum amount of worker threads, 1 parses on the calling thread
+	 * @return map of file path to module, error modules included
+	 */
+	public static Map<String, Module> getAsts(List<String> filePaths, int threads) {
+		boolean chunking = ParserSettings.getInstance().getChunkLines() > 0;
+		int prefetch = ParserSettings.getInstance().getPrefetch();
+		FilePrefetcher prefetcher = prefetch > 0 && !filePaths.isEmpty() ? new FilePrefetcher(filePaths, prefetch) : null;
+		if (threads <= 1 || (filePaths.size() <= 1 && !chunking)) {
+			Map<String, Module> trees = new HashMap<>();
+			for (String filePath : filePaths) {
+				byte[] contents = prefetcher == null ? null : prefetcher.take(filePath);
+				Module tree = File2Tree.parseAndBuildAst(filePath, contents, null).get();
+				trees.put(filePath, File2Tree.keep(tree));
+			}
+			return trees;
+		}
+
+		ExecutorService executor = File2Tree.getPool(threads);
+		List<Future<Supplier<Module>>> futures = new ArrayList<>(filePaths.size());
 		for (String filePath : filePaths) {
-			Module tree = File2Tree.parseAndBuildAst(filePath);
-			trees.put(filePath, tree);
+			futures.add(executor.submit(() -> File2Tree.parseAndBuildAst(filePath, prefetcher == null ? null : prefetcher.take(filePath), executor)));
+		}
+
+		Map<String, Module> trees = new HashMap<>();
+		for (int i = 0; i < filePaths.size(); i++) {
+			trees.put(filePaths.get(i), File2Tree.keep(File2Tree.await(futures.get(i)).get()));
 		}
 		return trees;
 	}
 
+	/**
+	 * Parses the files and builds their ASTs while they are iterated, in the order of the given paths. Unlike
+	 * {@link #getAsts(List)} the modules aren't kept, so a consumer that drops each module after use (like the
+	 * {@link model.ModelBuilder}) never holds the ASTs of the whole project. With more than one thread
+	 * ("parsing.threads") at most twice as many files as threads are parsed ahead of the consumer.
+	 * @param filePaths paths of the python files
+	 * @return the modules, error modules included, parsed anew on every iteration
+	 */
+	public static Iterable<Module> streamAsts(List<String> filePaths) {
+		return File2Tree.stream(filePaths, File2Tree::parseAndBuildAst);
+	}
+
+	/**
+	 * Parses the files and builds the models of their modules while they are iterated, like {@link #streamAsts}.
+	 * The models are built from the parse trees on the parser threads (see {@link ContextModelBuilder}), so no AST
+	 * is built for the modules that parse. Modules that don't, as well as all modules when "parsing.chunk.lines"
+	 * or the AST cache is set, are built from their AST, so the models are the same either way.
+	 * @param project project the classes of the modules belong to, see {@link model.ModelBuilder#ModelBuilder(Project, Iterable)}
+	 * @param filePaths paths of the python files
+	 * @return the models of the modules, error modules included, parsed anew on every iteration
+	 */
+	public static Iterable<BuiltModule> streamModels(Project project, List<String> filePaths) {
+		return File2Tree.stream(filePaths, (filePath, contents, executor) -> File2Tree.parseAndBuildModel(project, filePath, contents, executor));
+	}
+
+	private static <T> Iterable<T> stream(List<String> filePaths, FileParser<T> parser) {
+		return () -> new Iterator<T>() {
+
+			private final int threads = ParserSettings.getInstance().getParserThreads();
+			private final int prefetch = ParserSettings.getInstance().getPrefetch();
+			private final FilePrefetcher prefetcher = this.prefetch > 0 && !filePaths.isEmpty() ? new FilePrefetcher(filePaths, this.prefetch) : null;
+			private final ExecutorService executor = this.threads <= 1 ? null : File2Tree.getPool(this.threads);
+			private final Deque<Future<Supplier<T>>> ahead = new ArrayDeque<>();
+			private int submitted;
+			private int taken;
+
+			@Override
+			public boolean hasNext() {
+				return this.taken < filePaths.size();
+			}
+
+			@Override
+			public T next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				if (this.executor == null) {
+					String filePath = filePaths.get(this.taken++);
+					return parser.parse(filePath, this.contents(filePath), null).get();
+				}
+				while (this.submitted < filePaths.size() && this.submitted - this.taken < 2 * this.threads) {
+					String filePath = filePaths.get(this.submitted++);
+					this.ahead.add(this.executor.submit(() -> parser.parse(filePath, this.contents(filePath), this.executor)));
+				}
+				this.taken++;
+				return File2Tree.await(this.ahead.poll()).get();
+			}
+
+			private byte[] contents(String filePath) {
+				return this.prefetcher == null ? null : this.prefetcher.take(filePath);
+			}
+		};
+	}
+
+	/**
+	 * Parses the python files of a project and builds their ASTs. The files of a project archive (see
+	 * {@link ProjectArchive}) are parsed while the archive is read, without extracting them.
+	 * @param project a project folder or archive
+	 * @return map of file path to module, error modules included
+	 */
+	public static Map<String, Module> getProjectAsts(File project) {
+		if (!ProjectArchive.isArchive(project)) {
+			return File2Tree.getAsts(FileHelper.getPythonFilePaths(project));
+		}
+		return File2Tree.getAsts(consumer -> ProjectArchive.readPythonFiles(project, consumer), project.toString());
+	}
+
+	/**
+	 * Parses the python files of a git revision and builds their ASTs, while the files are read from git.
+	 * @param revision the revision
+	 * @return map of repository relative file path to module, error modules included
+	 */
+	public static Map<String, Module> getRevisionAsts(GitRevision revision) {
+		return File2Tree.getAsts(revision::readPythonFiles, revision.getRevision() + " of " + revision.getRepository());
+	}
+
+	/**
+	 * Parses the files while they are read from the source: each file is submitted to the parser threads as soon
+	 * as it has been read, or parsed right away when parsing is sequential.
+	 */
+	private static Map<String, Module> getAsts(FileSource files, String description) {
+		int threads = ParserSettings.getInstance().getParserThreads();
+		ExecutorService executor = threads <= 1 ? null : File2Tree.getPool(threads);
+		Map<String, Future<Supplier<Module>>> futures = new LinkedHashMap<>();
+		try {
+			files.readPythonFiles((path, contents) -> {
+				FutureTask<Supplier<Module>> task = new FutureTask<>(() -> File2Tree.parseAndBuildAst(path, contents, executor));
+				if (executor == null) {
+					task.run();
+				}
+				else {
+					executor.execute(task);
+				}
+				futures.put(path, task);
+			});
+		}
+		catch (IOException ex) {
+			System.err.println("Could not read " + description + ": " + ex.getMessage());
+		}
+
+		Map<String, Module> trees = new HashMap<>();
+		futures.forEach((path, future) -> trees.put(path, File2Tree.keep(File2Tree.await(future).get())));
+		return trees;
+	}
+
+	/**
+	 * @return the module as kept until the whole project is parsed, in the compact encoding when "parsing.flat" is set
+	 */
+	private static Module keep(Module module) {
+		return ParserSettings.getInstance().isFlat() ? FlatModule.encode(module) : module;
+	}
+
 	public static ParserRuleContext getParseTree(String fileName) throws Exception {
-		FileOpener fo = new FileOpener(fileName);
-		String contents = fo.getTrimmedContents();
+		return ParserPool.parse(fileName);
+	}
+
+	public static ParserRuleContext getParseTree(SourceFile source) throws Exception {
+		return ParserPool.parse(source);
+	}
+
+	/**
+	 * Builds the module of the file. Large modules are split into chunks (see "parsing.chunk.lines") which are
+	 * submitted to the executor, the returned supplier waits for them and stitches their statements together.
+	 * @param contents contents of the file when already in memory, null to read the file
+	 * @param executor executor for the chunks, null to parse them on the calling thread
+	 */
+	private static Supplier<Module> parseAndBuildAst(String fileName, byte[] contents, ExecutorService executor) {
+		int chunkLines = ParserSettings.getInstance().getChunkLines();
+		SourceFile source;
+		try {
+			//split modules don't need the limits, the whole module is only parsed when its chunks fail
+			source = contents == null ? SourceFile.read(fileName, chunkLines == 0) : SourceFile.read(fileName, contents, chunkLines == 0);
+		}
+		catch (Exception ex) {
+			Module error = File2Tree.addError(new Module(fileName, new int[] { 0 }), fileName, ex);
+			return () -> error;
+		}
+
+		AstCache cache = AstCache.getInstance();
+		String key = null;
+		if (cache != null) {
+			key = cache.key(source);
+			Module cached = cache.get(key, fileName);
+			if (cached != null) {
+				ParseStats.getInstance().cacheHit();
+				return () -> cached;
+			}
+		}
 
-		org.antlr.v4.runtime.CharStream input = new org.antlr.v4.runtime.ANTLRInputStream(contents);
-		PythonLexer lexer = new PythonLexer(input);
+		if (chunkLines > 0 && source.getLineCount() >= 2 * chunkLines) {
+			List<int[]> chunks = ModuleSplitter.split(source, chunkLines);
+			if (chunks.size() > 1) {
+				return File2Tree.parseChunks(source, chunks, executor, cache, key);
+			}
+		}
+		Module module = File2Tree.buildAst(source, cache, key);
+		return () -> module;
+	}
 
-		org.antlr.v4.runtime.CommonTokenStream tokens = new org.antlr.v4.runtime.CommonTokenStream(lexer);
-		PythonParser parser = new PythonParser(tokens);
-		parser.setErrorHandler(new BailErrorStrategy());
+	/**
+	 * Builds the model of the module from its parse tree, falls back to the AST when the module doesn't parse in
+	 * one piece or its parse tree isn't supported by the {@link ContextModelBuilder}.
+	 * @param contents contents of the file when already in memory, null to read the file
+	 * @param executor executor for the chunks, null to parse them on the calling thread
+	 */
+	private static Supplier<BuiltModule> parseAndBuildModel(Project project, String fileName, byte[] contents, ExecutorService executor) {
+		if (ParserSettings.getInstance().getChunkLines() > 0 || AstCache.getInstance() != null) {
+			Supplier<Module> tree = File2Tree.parseAndBuildAst(fileName, contents, executor);
+			return () -> ModelBuilder.buildModule(project, tree.get());
+		}
 
+		SourceFile source;
 		try {
-			ParserRuleContext context = parser.file_input();
-			File2Tree.unlink(lexer, parser);
-			return context;
+			source = contents == null ? SourceFile.read(fileName, true) : SourceFile.read(fileName, contents, true);
 		}
 		catch (Exception ex) {
-			File2Tree.unlink(lexer, parser);
-			throw ex;
+			BuiltModule error = ModelBuilder.buildModule(project, File2Tree.addError(new Module(fileName, new int[] { 0 }), fileName, ex));
+			return () -> error;
+		}
+
+		ParserRuleContext context;
+		try {
+			source.checkLineLimit();
+			context = File2Tree.getParseTree(source);
+		}
+		catch (Exception ex) {
+			BuiltModule failed = ModelBuilder.buildModule(project, File2Tree.buildFailedAst(source, ex));
+			return () -> failed;
+		}
+
+		BuiltModule module;
+		try {
+			module = new ContextModelBuilder(project, source).build((PythonParser.File_inputContext) context);
+		}
+		catch (IllegalArgumentException ex) {
+			//the AST reports the error, if any
+			module = ModelBuilder.buildModule(project, File2Tree.buildAst(source, null, null));
 		}
+		BuiltModule built = module;
+		return () -> built;
 	}
 
-	private static Module parseAndBuildAst(String fileName) {
+	private static Module buildAst(SourceFile source, AstCache cache, String key) {
 		try {
-			ParserRuleContext context = File2Tree.getParseTree(fileName);
-			AstBuilder astBuilder = new AstBuilder(context, fileName);
-			return astBuilder.build();
+			source.checkLineLimit();
+			Module module;
+			if (ParserSettings.getInstance().isStreaming()) {
+				AstBuilder astBuilder = new AstBuilder(source);
+				module = astBuilder.build(ParserPool.parse(source, astBuilder.getParseListener()));
+			}
+			else {
+				ParserRuleContext context = File2Tree.getParseTree(source);
+				AstBuilder astBuilder = new AstBuilder(context, source);
+				module = astBuilder.build();
+			}
+			if (cache != null) {
+				cache.put(key, module);
+			}
+			return module;
 		}
 		catch (Exception ex) {
-			Module m = AstBuilder.buildErrorModule(fileName);
-			String errorMsg = "Parse Exception in " + fileName + ": \n" + StringHelper.getStackTraceString(ex);
-			m.addError(errorMsg);
+			return File2Tree.buildFailedAst(source, ex);
+		}
+	}
 
-			System.err.println(errorMsg);
-			return m;
+	/**
+	 * @return the module of a file whose parse failed or timed out, with the statements that can be recovered
+	 */
+	private static Module buildFailedAst(SourceFile source, Exception ex) {
+		if (ex instanceof TimedTokenStream.ParseTimeoutException) {
+			return File2Tree.addTimeout(AstBuilder.buildErrorModule(source), (TimedTokenStream.ParseTimeoutException) ex);
+		}
+		if (ex instanceof ParseCancellationException && ParserSettings.getInstance().isRecovery()) {
+			return File2Tree.recover(source, (ParseCancellationException) ex);
+		}
+		return File2Tree.addError(AstBuilder.buildErrorModule(source), source.getPath(), ex);
+	}
+
+	/**
+	 * Keeps the top level statements of the module that parse, see "parsing.recovery".
+	 */
+	private static Module recover(SourceFile source, ParseCancellationException ex) {
+		try {
+			Module module = ModuleRecovery.recover(source);
+			if (module.getErrors().isEmpty()) {
+				//all statements parse on their own, the error is in how they fit together
+				return File2Tree.addError(module, source.getPath(), ex);
+			}
+			module.getErrors().forEach(System.err::println);
+			return module;
+		}
+		catch (TimedTokenStream.ParseTimeoutException timeout) {
+			return File2Tree.addTimeout(AstBuilder.buildErrorModule(source), timeout);
+		}
+		catch (Exception other) {
+			return File2Tree.addError(AstBuilder.buildErrorModule(source), source.getPath(), ex);
 		}
 	}
 
-	private static void unlink(PythonLexer lexer, PythonParser parser) {
-		ATNSimulator simulator = parser.getInterpreter();
-		simulator.clearDFA();
-		lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA, new PredictionContextCache()));
-		parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, new PredictionContextCache()));
+	private static Supplier<Module> parseChunks(SourceFile source, List<int[]> chunks, ExecutorService executor, AstCache cache, String key) {
+		ParseStats.getInstance().fileChunked();
+		LocCounter locCounter = new LocCounter(source);
+		List<Future<List<Statement>>> parts = new ArrayList<>(chunks.size());
+		for (int[] chunk : chunks) {
+			FutureTask<List<Statement>> part = new FutureTask<>(() -> {
+				ParseStats.getInstance().chunkParsed();
+				ParserRuleContext context = ParserPool.parseChunk(source, chunk[0], chunk[1]);
+				return new AstBuilder(context, source, locCounter).build().getBody();
+			});
+			if (executor == null) {
+				part.run();
+			}
+			else {
+				executor.execute(part);
+			}
+			parts.add(part);
+		}
+
+		return () -> {
+			List<Statement> body = new ArrayList<>();
+			for (Future<List<Statement>> part : parts) {
+				try {
+					body.addAll(part.get());
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for parser", ex);
+				}
+				catch (ExecutionException ex) {
+					if (ex.getCause() instanceof Error) {
+						throw (Error) ex.getCause();
+					}
+					if (ex.getCause() instanceof TimedTokenStream.ParseTimeoutException) {
+						ParseStats.getInstance().fileParsed();
+						ParseStats.getInstance().fileTimedOut();
+						return File2Tree.addTimeout(AstBuilder.buildErrorModule(source), (TimedTokenStream.ParseTimeoutException) ex.getCause());
+					}
+					//the chunk does not parse on its own, the result of the whole module decides
+					return File2Tree.buildAst(source, cache, key);
+				}
+			}
+			ParseStats.getInstance().fileParsed();
+			Module module = new Module(source.getPath(), locCounter.getCodeLines(), body);
+			if (cache != null) {
+				cache.put(key, module);
+			}
+			return module;
+		};
+	}
+
+	private static Module addError(Module m, String fileName, Exception ex) {
+		String errorMsg = "Parse Exception in " + fileName + ": \n" + StringHelper.getStackTraceString(ex);
+		m.addError(errorMsg);
+
+		System.err.println(errorMsg);
+		return m;
+	}
+
+	private static Module addTimeout(Module m, TimedTokenStream.ParseTimeoutException ex) {
+		String errorMsg = "Parse timeout: " + ex.getMessage();
+		m.addError(errorMsg);
+
+		System.err.println(errorMsg);
+		return m;
+	}
+
+	private static <T> T await(Future<T> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for parser", e);
+		}
+		catch (ExecutionException e) {
+			//parseAndBuildAst handles all exceptions, only errors (e.g. StackOverflowError) end up here
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private static synchronized ExecutorService getPool(int threads) {
+		if (pool == null || poolSize != threads) {
+			if (pool != null) {
+				pool.shutdown();
+			}
+			AtomicInteger counter = new AtomicInteger();
+			pool = Executors.newFixedThreadPool(threads, r -> {
+				Thread t = new Thread(r, "parser-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+			poolSize = threads;
+		}
+		return pool;
+	}
+
+	/**
+	 * Parses a file into a module or its model.
+	 */
+	private interface FileParser<T> {
+		/**
+		 * @param contents contents of the file when already in memory, null to read the file
+		 * @param executor executor for the chunks of the file, null to parse them on the calling thread
+		 * @return supplies the result once all chunks are parsed
+		 */
+		Supplier<T> parse(String filePath, byte[] contents, ExecutorService executor);
+	}
+
+	/**
+	 * Source of python files that are read into memory one by one, e.g. an archive or a git revision.
+	 */
+	private interface FileSource {
+		void readPythonFiles(ProjectArchive.EntryConsumer consumer) throws IOException;
 	}
 }
@@ -0,0 +1,117 @@
+package process;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import util.SourceFile;
+
+/**
+ * Reads the contents of the files ahead of the parser threads on a small pool of I/O threads, so a parser finds its
+ * input in memory instead of waiting for the disk. At most "parsing.prefetch" files are read ahead, in the order in
+ * which they are going to be parsed. A parser that has to wait for a file anyway is counted as I/O stall.
+ *
+ * Files that aren't prefetched (e.g. files above the size limit or files in an archive) are read by the parser as
+ * before, which also reports the errors of files that cannot be read.
+ */
+public class FilePrefetcher {
+
+	private static final int IO_THREADS = 4;
+
+	private static ExecutorService pool;
+
+	private final List<String> paths;
+	private final int depth;
+	private final Map<String, Future<byte[]>> reads = new HashMap<>();
+	private final Set<String> taken = new HashSet<>();
+	private int next;
+	private int pending;
+
+	/**
+	 * Starts reading the first files.
+	 * @param paths paths of the files, in the order in which they are going to be taken
+	 * @param depth maximum amount of files read ahead
+	 */
+	public FilePrefetcher(List<String> paths, int depth) {
+		this.paths = paths;
+		this.depth = depth;
+		this.fill();
+	}
+
+	/**
+	 * Waits until the file is read, and starts reading the next file.
+	 * @param path path of the file
+	 * @return the contents, null when the file has to be read by the caller
+	 */
+	public byte[] take(String path) {
+		Future<byte[]> read;
+		synchronized (this) {
+			read = this.reads.remove(path);
+			if (read == null) {
+				//taken before its turn, don't read it anymore
+				this.taken.add(path);
+				return null;
+			}
+		}
+		try {
+			if (!read.isDone()) {
+				ParseStats.getInstance().ioStall();
+			}
+			return read.get();
+		}
+		catch (ExecutionException e) {
+			return null;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		finally {
+			synchronized (this) {
+				this.pending--;
+				this.fill();
+			}
+		}
+	}
+
+	private synchronized void fill() {
+		while (this.pending < this.depth && this.next < this.paths.size()) {
+			String path = this.paths.get(this.next++);
+			if (!this.taken.remove(path)) {
+				this.reads.put(path, FilePrefetcher.getPool().submit(() -> FilePrefetcher.read(path)));
+				this.pending++;
+			}
+		}
+	}
+
+	private static byte[] read(String path) throws IOException {
+		Path file = Paths.get(path);
+		if (!Files.isRegularFile(file) || Files.size(file) > SourceFile.SIZE_LIMIT_BYTES) {
+			return null;
+		}
+		return Files.readAllBytes(file);
+	}
+
+	private static synchronized ExecutorService getPool() {
+		if (pool == null) {
+			AtomicInteger counter = new AtomicInteger();
+			pool = Executors.newFixedThreadPool(IO_THREADS, r -> {
+				Thread t = new Thread(r, "prefetch-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return pool;
+	}
+}
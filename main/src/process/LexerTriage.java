@@ -0,0 +1,136 @@
+package process;
+
+import java.util.BitSet;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+import util.SourceFile;
+
+/**
+ * Estimates the statistics of a module from its tokens alone, which is a small fraction of the cost of parsing it
+ * and building the model. Meant to pre-filter projects before the full analysis.
+ *
+ * The LOC are the lines that hold a token, which matches LocCounter except for continued strings. Classes and
+ * functions are counted by their keywords, imports by the import keyword. A module probably parses when it lexes
+ * without errors, its brackets are balanced and it has none of the constructs the grammar doesn't support:
+ * string prefixes like f and rb (lexed as a name directly followed by a string), the walrus operator (':' directly
+ * followed by '=') and dictionary unpacking ("{**").
+ */
+public class LexerTriage {
+
+	private final BitSet lines = new BitSet();
+	private int classes;
+	private int functions;
+	private int imports;
+	private int lexerErrors;
+	private int depth;
+	private boolean unbalanced;
+	private boolean unsupported;
+
+	private LexerTriage() {
+	}
+
+	/**
+	 * @param source the module
+	 * @return the estimated statistics of the module
+	 */
+	public static LexerTriage scan(SourceFile source) {
+		LexerTriage triage = new LexerTriage();
+		PythonLexer lexer = new PythonLexer(source.getCharStream());
+		lexer.removeErrorListeners();
+		lexer.addErrorListener(new BaseErrorListener() {
+			@Override
+			public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+					String msg, RecognitionException e) {
+				triage.lexerErrors++;
+			}
+		});
+
+		Token previous = null;
+		for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+			triage.add(token, previous);
+			previous = token;
+		}
+		return triage;
+	}
+
+	private void add(Token token, Token previous) {
+		int type = token.getType();
+		if (type == PythonParser.NEWLINE || type == PythonParser.INDENT || type == PythonParser.DEDENT) {
+			return;
+		}
+		this.markLines(token);
+		switch (type) {
+			case PythonLexer.CLASS:
+				this.classes++;
+				break;
+			case PythonLexer.DEF:
+				this.functions++;
+				break;
+			case PythonLexer.IMPORT:
+				this.imports++;
+				break;
+			case PythonLexer.OPEN_PAREN:
+			case PythonLexer.OPEN_BRACK:
+			case PythonLexer.OPEN_BRACE:
+				this.depth++;
+				break;
+			case PythonLexer.CLOSE_PAREN:
+			case PythonLexer.CLOSE_BRACK:
+			case PythonLexer.CLOSE_BRACE:
+				this.unbalanced |= --this.depth < 0;
+				break;
+			default:
+				break;
+		}
+		if (previous != null && previous.getStopIndex() + 1 == token.getStartIndex()) {
+			int previousType = previous.getType();
+			this.unsupported |= (previousType == PythonLexer.NAME && (type == PythonLexer.STRING_LITERAL || type == PythonLexer.BYTES_LITERAL))
+					|| (previousType == PythonLexer.COLON && type == PythonLexer.ASSIGN)
+					|| (previousType == PythonLexer.OPEN_BRACE && type == PythonLexer.POWER);
+		}
+	}
+
+	/**
+	 * Marks the line of the token and, for tokens spanning lines, each following line that isn't blank.
+	 */
+	private void markLines(Token token) {
+		int line = token.getLine();
+		this.lines.set(line);
+		String text = token.getText();
+		int start = text.indexOf('\n');
+		while (start >= 0) {
+			line++;
+			int end = text.indexOf('\n', start + 1);
+			if (!text.substring(start + 1, end < 0 ? text.length() : end).trim().isEmpty()) {
+				this.lines.set(line);
+			}
+			start = end;
+		}
+	}
+
+	public int getLoc() {
+		return this.lines.cardinality();
+	}
+
+	public int getClasses() {
+		return this.classes;
+	}
+
+	public int getFunctions() {
+		return this.functions;
+	}
+
+	public int getImports() {
+		return this.imports;
+	}
+
+	public boolean probablyParses() {
+		return this.lexerErrors == 0 && !this.unbalanced && this.depth == 0 && !this.unsupported;
+	}
+}
@@ -0,0 +1,135 @@
+package process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import ast.AstBuilder;
+import ast.LocCounter;
+import ast.Module;
+import ast.statement.Statement;
+import util.SourceFile;
+
+/**
+ * Builds the AST of a module that does not parse as a whole from the top level statements that do parse.
+ *
+ * The module is split into its top level statements (see {@link ModuleSplitter}), which are parsed one by one. The
+ * parse resynchronises at the start of every top level statement, so a syntax error only costs the statement it is
+ * in. A compound statement that fails is resynchronised at the level of its bodies: the statements of its bodies
+ * are parsed one by one (recursively for those that fail), and the statement is parsed again with the broken ones
+ * replaced by pass. So a broken method only costs the method, not its class. Only when that parse fails as well
+ * the whole top level statement is dropped. Every dropped statement is reported as an error of the module, with its
+ * lines and the offending token. Parsing the statements one by one turned out cheaper than bisecting the module,
+ * because the parses of ranges that fail need the expensive LL prediction.
+ *
+ * All parses of a module share one "parsing.timeout".
+ */
+public class ModuleRecovery {
+
+	private final SourceFile source;
+	private final List<int[]> statements;
+	private final LocCounter locCounter;
+	private final long deadline;
+	private final List<Statement> body = new ArrayList<>();
+	private final List<String> errors = new ArrayList<>();
+
+	private ModuleRecovery(SourceFile source) {
+		this.source = source;
+		this.statements = ModuleSplitter.split(source, 1);
+		this.locCounter = new LocCounter(source);
+		this.deadline = TimedTokenStream.deadline(ParserSettings.getInstance().getTimeout());
+	}
+
+	/**
+	 * @param source a module whose parse as a whole failed
+	 * @return the module with the statements that parse, and an error per broken statement
+	 * @throws Exception when a statement cannot be turned into an AST
+	 * @throws TimedTokenStream.ParseTimeoutException when parsing the statements takes too long
+	 */
+	public static Module recover(SourceFile source) throws Exception {
+		ModuleRecovery recovery = new ModuleRecovery(source);
+		for (int[] statement : recovery.statements) {
+			recovery.parse(statement[0], statement[1]);
+		}
+		ParseStats.getInstance().fileRecovered(recovery.errors.size());
+		return new Module(source.getPath(), recovery.locCounter.getCodeLines(), recovery.body, recovery.errors);
+	}
+
+	private void parse(int fromLine, int toLine) throws Exception {
+		try {
+			this.build(this.source, fromLine, toLine);
+		}
+		catch (ParseCancellationException ex) {
+			if (!this.resync(fromLine, toLine)) {
+				this.errors.add(this.describe(fromLine, toLine, ex));
+			}
+		}
+	}
+
+	private void build(SourceFile source, int fromLine, int toLine) throws Exception {
+		ParserRuleContext context = ParserPool.parseChunk(source, fromLine, toLine, this.deadline);
+		this.body.addAll(new AstBuilder(context, source, this.locCounter).build().getBody());
+	}
+
+	/**
+	 * Parses the top level statement again with the broken statements of its bodies replaced by pass.
+	 * @return whether that parse succeeded
+	 */
+	private boolean resync(int fromLine, int toLine) throws Exception {
+		List<String> errors = new ArrayList<>();
+		SourceFile stubbed = this.stubBroken(this.source, fromLine, toLine, errors);
+		if (errors.isEmpty()) {
+			return false;
+		}
+		try {
+			this.build(stubbed, fromLine, toLine);
+		}
+		catch (ParseCancellationException ex) {
+			return false;
+		}
+		this.errors.addAll(errors);
+		return true;
+	}
+
+	/**
+	 * @param stubbed the source with the broken statements found so far replaced
+	 * @param errors receives an error per broken statement
+	 * @return the source with the broken statements of the bodies of the statement replaced as well
+	 */
+	private SourceFile stubBroken(SourceFile stubbed, int fromLine, int toLine, List<String> errors) throws Exception {
+		for (int[] statement : ModuleSplitter.splitBody(this.source, fromLine, toLine)) {
+			try {
+				ParserPool.parseSuite(this.source, statement[0], statement[1], this.deadline);
+			}
+			catch (ParseCancellationException ex) {
+				int found = errors.size();
+				stubbed = this.stubBroken(stubbed, statement[0], statement[1], errors);
+				if (errors.size() == found) {
+					//the statements of its bodies parse, so the error is in the statement itself
+					errors.add(this.describe(statement[0], statement[1], ex));
+					stubbed = stubbed.stub(statement[0], statement[1]);
+				}
+			}
+		}
+		return stubbed;
+	}
+
+	private String describe(int fromLine, int toLine, ParseCancellationException ex) {
+		return "Syntax error in " + this.source.getPath() + ", lines " + (fromLine + 1) + "-" + toLine + ": "
+				+ ModuleRecovery.describe(ex);
+	}
+
+	private static String describe(ParseCancellationException ex) {
+		if (ex.getCause() instanceof RecognitionException) {
+			Token token = ((RecognitionException) ex.getCause()).getOffendingToken();
+			if (token != null) {
+				return "unexpected '" + token.getText() + "' at " + token.getLine() + ":" + token.getCharPositionInLine();
+			}
+		}
+		return String.valueOf(ex.getMessage());
+	}
+}
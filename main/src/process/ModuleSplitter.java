@@ -0,0 +1,216 @@
+package process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import util.SourceFile;
+
+/**
+ * Splits a python module into chunks of top level statements, so the chunks of a large module can be parsed
+ * independently of each other.
+ *
+ * The scan only tracks what is needed to find the lines where a new top level statement starts: brackets, string
+ * literals (triple quoted ones can span lines), comments and explicit line continuations. A line at column 0 that
+ * starts a statement is a boundary, unless it continues the previous statement (else, elif, except, finally) or
+ * follows a decorator. A split in the wrong place only makes a chunk fail to parse, after which the module is parsed
+ * as a whole.
+ */
+public class ModuleSplitter {
+
+	private static final String[] CONTINUATION_KEYWORDS = { "else", "elif", "except", "finally" };
+
+	private final SourceFile source;
+
+	private int depth;
+	private char quote;
+	private boolean tripleQuoted;
+	private boolean continued;
+
+	private ModuleSplitter(SourceFile source) {
+		this.source = source;
+	}
+
+	/**
+	 * @param source the module
+	 * @param chunkLines minimum amount of lines of a chunk
+	 * @return zero based [start, end) line ranges of the chunks, covering all lines of the module
+	 */
+	public static List<int[]> split(SourceFile source, int chunkLines) {
+		return new ModuleSplitter(source).split(chunkLines);
+	}
+
+	private List<int[]> split(int chunkLines) {
+		List<int[]> chunks = new ArrayList<>();
+		int lineCount = this.source.getLineCount();
+		int chunkStart = 0;
+		boolean afterDecorator = false;
+		for (int i = 0; i < lineCount; i++) {
+			CharSequence line = this.source.getLine(i);
+			boolean atTopLevel = this.depth == 0 && this.quote == 0 && !this.continued;
+			if (atTopLevel && ModuleSplitter.startsStatement(line)) {
+				if (!afterDecorator && !ModuleSplitter.isContinuation(line) && i - chunkStart >= chunkLines) {
+					chunks.add(new int[] { chunkStart, i });
+					chunkStart = i;
+				}
+				afterDecorator = line.charAt(0) == '@';
+			}
+			this.scan(line);
+		}
+		if (chunkStart < lineCount) {
+			chunks.add(new int[] { chunkStart, lineCount });
+		}
+		return chunks;
+	}
+
+	/**
+	 * Splits the indented bodies of a compound statement into their statements, e.g. a class into its methods, or an if
+	 * statement into the statements of its branches.
+	 * @param source the module
+	 * @param fromLine zero based index of the first line of the compound statement
+	 * @param toLine zero based index of the line after its last line
+	 * @return zero based [start, end) line ranges of the statements, empty when the statement has no indented body
+	 */
+	public static List<int[]> splitBody(SourceFile source, int fromLine, int toLine) {
+		return new ModuleSplitter(source).splitBody(fromLine, toLine);
+	}
+
+	private List<int[]> splitBody(int fromLine, int toLine) {
+		List<int[]> statements = new ArrayList<>();
+		int headerIndent = -1;
+		int bodyIndent = -1;
+		int start = -1;
+		boolean afterDecorator = false;
+		for (int i = fromLine; i < toLine; i++) {
+			CharSequence line = this.source.getLine(i);
+			boolean atTopLevel = this.depth == 0 && this.quote == 0 && !this.continued;
+			int indent = ModuleSplitter.indentation(line);
+			if (atTopLevel && indent >= 0 && headerIndent < 0) {
+				headerIndent = indent;
+			}
+			else if (atTopLevel && indent >= 0) {
+				CharSequence code = line.subSequence(ModuleSplitter.codeStart(line), line.length());
+				if (indent <= headerIndent) {
+					//a clause of the compound statement, e.g. else, ends the body
+					ModuleSplitter.addStatement(statements, start, i);
+					start = -1;
+					bodyIndent = -1;
+					afterDecorator = false;
+				}
+				else {
+					if (bodyIndent < 0) {
+						bodyIndent = indent;
+					}
+					if (indent == bodyIndent) {
+						if (!afterDecorator && !ModuleSplitter.isContinuation(code)) {
+							ModuleSplitter.addStatement(statements, start, i);
+							start = i;
+						}
+						afterDecorator = code.charAt(0) == '@';
+					}
+				}
+			}
+			this.scan(line);
+		}
+		ModuleSplitter.addStatement(statements, start, toLine);
+		return statements;
+	}
+
+	private static void addStatement(List<int[]> statements, int start, int end) {
+		if (start >= 0) {
+			statements.add(new int[] { start, end });
+		}
+	}
+
+	/**
+	 * @return index of the first character that is not indentation, -1 for a blank or comment line
+	 */
+	private static int codeStart(CharSequence line) {
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c != ' ' && c != '\t') {
+				return c == '#' ? -1 : i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the indentation of the line with tabs up to the next multiple of 8 (like the lexer), -1 for a blank or
+	 * comment line
+	 */
+	private static int indentation(CharSequence line) {
+		int codeStart = ModuleSplitter.codeStart(line);
+		int indent = 0;
+		for (int i = 0; i < codeStart; i++) {
+			indent = line.charAt(i) == '\t' ? indent + 8 - indent % 8 : indent + 1;
+		}
+		return codeStart < 0 ? -1 : indent;
+	}
+
+	/**
+	 * Updates the bracket depth, string and continuation state with the contents of the line.
+	 */
+	private void scan(CharSequence line) {
+		this.continued = false;
+		int length = line.length();
+		for (int i = 0; i < length; i++) {
+			char c = line.charAt(i);
+			if (this.quote != 0) {
+				if (c == '\\') {
+					i++;
+					if (i == length) {
+						this.continued = true;
+					}
+				}
+				else if (c == this.quote && (!this.tripleQuoted || ModuleSplitter.isTripleQuote(line, i, c))) {
+					i += this.tripleQuoted ? 2 : 0;
+					this.quote = 0;
+				}
+			}
+			else if (c == '#') {
+				break;
+			}
+			else if (c == '"' || c == '\'') {
+				this.quote = c;
+				this.tripleQuoted = ModuleSplitter.isTripleQuote(line, i, c);
+				i += this.tripleQuoted ? 2 : 0;
+			}
+			else if (c == '(' || c == '[' || c == '{') {
+				this.depth++;
+			}
+			else if ((c == ')' || c == ']' || c == '}') && this.depth > 0) {
+				this.depth--;
+			}
+			else if (c == '\\' && i == length - 1) {
+				this.continued = true;
+			}
+		}
+		//a single quoted string ends at the end of the line, unless the newline is escaped
+		if (this.quote != 0 && !this.tripleQuoted && !this.continued) {
+			this.quote = 0;
+		}
+	}
+
+	private static boolean isTripleQuote(CharSequence line, int index, char quote) {
+		return index + 2 < line.length() && line.charAt(index + 1) == quote && line.charAt(index + 2) == quote;
+	}
+
+	private static boolean startsStatement(CharSequence line) {
+		if (line.length() == 0) {
+			return false;
+		}
+		char first = line.charAt(0);
+		return first != ' ' && first != '\t' && first != '#';
+	}
+
+	private static boolean isContinuation(CharSequence line) {
+		for (String keyword : CONTINUATION_KEYWORDS) {
+			int length = keyword.length();
+			if (line.length() >= length && line.subSequence(0, length).toString().equals(keyword)
+					&& (line.length() == length || !Character.isJavaIdentifierPart(line.charAt(length)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
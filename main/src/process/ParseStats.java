@@ -0,0 +1,229 @@
+package process;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counters for the parsing stage of a run. Safe to update from the parser worker threads.
+ */
+public class ParseStats {
+
+	private static final ParseStats instance = new ParseStats();
+
+	private final AtomicInteger files = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final AtomicInteger timeouts = new AtomicInteger();
+	private final AtomicInteger llFallbacks = new AtomicInteger();
+	private final AtomicInteger cacheHits = new AtomicInteger();
+	private final AtomicInteger chunkedFiles = new AtomicInteger();
+	private final AtomicInteger chunks = new AtomicInteger();
+	private final AtomicInteger recoveredFiles = new AtomicInteger();
+	private final AtomicInteger brokenRegions = new AtomicInteger();
+	private final AtomicInteger python2 = new AtomicInteger();
+	private final AtomicInteger python3 = new AtomicInteger();
+	private final AtomicInteger unknownDialect = new AtomicInteger();
+	private final AtomicInteger keywordsRenamed = new AtomicInteger();
+	private final AtomicInteger dialectFallbacks = new AtomicInteger();
+	private final AtomicInteger pipelinedFiles = new AtomicInteger();
+	private final AtomicInteger ioStalls = new AtomicInteger();
+
+	public static ParseStats getInstance() {
+		return instance;
+	}
+
+	public void fileParsed() {
+		this.files.incrementAndGet();
+	}
+
+	public void fileFailed() {
+		this.failed.incrementAndGet();
+	}
+
+	/**
+	 * Registers a file whose parse was cancelled because it exceeded the time budget. Counts as failed file.
+	 */
+	public void fileTimedOut() {
+		this.failed.incrementAndGet();
+		this.timeouts.incrementAndGet();
+	}
+
+	/**
+	 * Registers a file that could not be parsed in SLL mode and had to be re-parsed with full LL prediction.
+	 */
+	public void llFallback() {
+		this.llFallbacks.incrementAndGet();
+	}
+
+	/**
+	 * Registers a module that was taken from the AST cache instead of being parsed.
+	 */
+	public void cacheHit() {
+		this.cacheHits.incrementAndGet();
+	}
+
+	/**
+	 * Registers a file that is split into chunks of top level statements. It is counted as parsed file once all
+	 * chunks are parsed, or by the parse of the whole file when a chunk fails.
+	 */
+	public void fileChunked() {
+		this.chunkedFiles.incrementAndGet();
+	}
+
+	public void chunkParsed() {
+		this.chunks.incrementAndGet();
+	}
+
+	/**
+	 * Registers a failed file of which the statements that parse were kept (see {@link ModuleRecovery}).
+	 * @param regions amount of broken statements in the file
+	 */
+	public void fileRecovered(int regions) {
+		this.recoveredFiles.incrementAndGet();
+		this.brokenRegions.addAndGet(regions);
+	}
+
+	/**
+	 * Registers the dialect of a parsed input (a file or a chunk of a file).
+	 */
+	public void dialectSniffed(DialectSniffer.Dialect dialect) {
+		switch (dialect) {
+			case PYTHON2:
+				this.python2.incrementAndGet();
+				break;
+			case PYTHON3:
+				this.python3.incrementAndGet();
+				break;
+			default:
+				this.unknownDialect.incrementAndGet();
+				break;
+		}
+	}
+
+	/**
+	 * Registers an input that is parsed with print and/or exec as names, because it has no such statements.
+	 */
+	public void keywordsRenamed() {
+		this.keywordsRenamed.incrementAndGet();
+	}
+
+	/**
+	 * Registers an input that failed to parse with renamed keywords and was parsed again with the original tokens.
+	 */
+	public void dialectFallback() {
+		this.dialectFallbacks.incrementAndGet();
+	}
+
+	/**
+	 * Registers a file (or chunk) that is lexed on a lexer thread while it is parsed.
+	 */
+	public void filePipelined() {
+		this.pipelinedFiles.incrementAndGet();
+	}
+
+	/**
+	 * Registers a parser thread that has to wait for a prefetched file (see {@link FilePrefetcher}).
+	 */
+	public void ioStall() {
+		this.ioStalls.incrementAndGet();
+	}
+
+	public int getFiles() {
+		return this.files.get();
+	}
+
+	public int getFailed() {
+		return this.failed.get();
+	}
+
+	public int getTimeouts() {
+		return this.timeouts.get();
+	}
+
+	public int getLlFallbacks() {
+		return this.llFallbacks.get();
+	}
+
+	public int getCacheHits() {
+		return this.cacheHits.get();
+	}
+
+	public int getChunkedFiles() {
+		return this.chunkedFiles.get();
+	}
+
+	public int getChunks() {
+		return this.chunks.get();
+	}
+
+	public int getRecoveredFiles() {
+		return this.recoveredFiles.get();
+	}
+
+	public int getBrokenRegions() {
+		return this.brokenRegions.get();
+	}
+
+	public int getPython2() {
+		return this.python2.get();
+	}
+
+	public int getPython3() {
+		return this.python3.get();
+	}
+
+	public int getUnknownDialect() {
+		return this.unknownDialect.get();
+	}
+
+	public int getKeywordsRenamed() {
+		return this.keywordsRenamed.get();
+	}
+
+	public int getDialectFallbacks() {
+		return this.dialectFallbacks.get();
+	}
+
+	public int getPipelinedFiles() {
+		return this.pipelinedFiles.get();
+	}
+
+	public int getIoStalls() {
+		return this.ioStalls.get();
+	}
+
+	public void reset() {
+		this.files.set(0);
+		this.failed.set(0);
+		this.timeouts.set(0);
+		this.llFallbacks.set(0);
+		this.cacheHits.set(0);
+		this.chunkedFiles.set(0);
+		this.chunks.set(0);
+		this.recoveredFiles.set(0);
+		this.brokenRegions.set(0);
+		this.python2.set(0);
+		this.python3.set(0);
+		this.unknownDialect.set(0);
+		this.keywordsRenamed.set(0);
+		this.dialectFallbacks.set(0);
+		this.pipelinedFiles.set(0);
+		this.ioStalls.set(0);
+	}
+
+	/**
+	 * @return one line summary of the counters, for the run log
+	 */
+	public String summary() {
+		return "Parsed " + this.getFiles() + " files, " + this.getFailed() + " failed (" + this.getTimeouts() + " timed out), "
+				+ this.getLlFallbacks() + " needed the LL fallback, " + this.getCacheHits() + " taken from the AST cache, "
+				+ this.getChunkedFiles() + " split into " + this.getChunks() + " chunks, "
+				+ this.getRecoveredFiles() + " partially recovered (" + this.getBrokenRegions() + " broken statements), "
+				+ this.getPipelinedFiles() + " lexed on a pipeline thread, " + this.getIoStalls() + " waited for I/O"
+				+ (this.getPython2() + this.getPython3() + this.getUnknownDialect() == 0 ? "" : this.dialectSummary());
+	}
+
+	private String dialectSummary() {
+		return "; dialects: " + this.getPython2() + " Python 2, " + this.getPython3() + " Python 3, "
+				+ this.getUnknownDialect() + " unknown, " + this.getKeywordsRenamed() + " parsed with print/exec as names ("
+				+ this.getDialectFallbacks() + " fell back)";
+	}
+}
@@ -0,0 +1,269 @@
+package process;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+import util.SourceFile;
+
+/**
+ * Parsing service that keeps one PythonLexer/PythonParser pair per thread. Instead of building a new lexer, token
+ * stream and parser for every file, the pair of the calling thread is pointed at the new input, which saves the
+ * setup cost and allocations for the many small files in a project.
+ */
+public class ParserPool {
+
+	/**
+	 * Inputs with less characters are lexed on the parser thread, for them the hand over costs more than it saves
+	 */
+	private static final int PIPELINE_MIN_CHARS = 32 * 1024;
+
+	private static final ThreadLocal<ParserPool> pools = ThreadLocal.withInitial(ParserPool::new);
+
+	private final PythonLexer lexer;
+	private final TimedTokenStream tokens;
+	private final PythonParser parser;
+
+	private ParserPool() {
+		this.lexer = new PythonLexer(CharStreams.fromString(""));
+		this.tokens = new TimedTokenStream(this.lexer);
+		this.parser = new PythonParser(this.tokens);
+		this.parser.setErrorHandler(new BailErrorStrategy());
+	}
+
+	/**
+	 * Parses a file with the lexer and parser of the calling thread.
+	 * @param fileName path to the python file
+	 * @return the parse tree
+	 * @throws Exception when the file cannot be read or parsed
+	 */
+	public static ParserRuleContext parse(String fileName) throws Exception {
+		return ParserPool.parse(SourceFile.read(fileName));
+	}
+
+	/**
+	 * Parses a source file with the lexer and parser of the calling thread.
+	 * @param source the source
+	 * @return the parse tree
+	 * @throws Exception when the source cannot be parsed
+	 * @throws TimedTokenStream.ParseTimeoutException when parsing takes longer than "parsing.timeout"
+	 */
+	public static ParserRuleContext parse(SourceFile source) throws Exception {
+		return ParserPool.parse(source, null);
+	}
+
+	/**
+	 * Parses a source file with the lexer and parser of the calling thread, notifying the listener of every rule
+	 * while parsing (see {@link ast.AstBuilder#getParseListener()}).
+	 * @param source the source
+	 * @param listener parse listener, null for none
+	 * @return the parse tree
+	 * @throws Exception when the source cannot be parsed
+	 * @throws TimedTokenStream.ParseTimeoutException when parsing takes longer than "parsing.timeout"
+	 */
+	public static ParserRuleContext parse(SourceFile source, ParseTreeListener listener) throws Exception {
+		ParseStats.getInstance().fileParsed();
+		try {
+			return pools.get().parseInput(source.getCharStream(), 1, listener, ParserPool.deadline(), false);
+		}
+		catch (TimedTokenStream.ParseTimeoutException ex) {
+			ParseStats.getInstance().fileTimedOut();
+			throw ex;
+		}
+		catch (Exception ex) {
+			ParseStats.getInstance().fileFailed();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Parses a range of lines of a source file, which has to consist of complete top level statements (see
+	 * {@link ModuleSplitter}). The tokens get the line numbers of the whole file.
+	 * @param source the source
+	 * @param fromLine zero based index of the first line
+	 * @param toLine zero based index of the line after the last line
+	 * @return the parse tree of the chunk
+	 * @throws Exception when the chunk cannot be parsed
+	 * @throws TimedTokenStream.ParseTimeoutException when parsing takes longer than "parsing.timeout"
+	 */
+	public static ParserRuleContext parseChunk(SourceFile source, int fromLine, int toLine) throws Exception {
+		return ParserPool.parseChunk(source, fromLine, toLine, ParserPool.deadline());
+	}
+
+	/**
+	 * Parses a range of lines of a source file like {@link #parseChunk(SourceFile, int, int)}, but with a deadline
+	 * that can be shared with other parses.
+	 * @param deadline see {@link TimedTokenStream#deadline(long)}
+	 */
+	public static ParserRuleContext parseChunk(SourceFile source, int fromLine, int toLine, long deadline) throws Exception {
+		return pools.get().parseInput(source.getCharStream(fromLine, toLine), fromLine + 1, null, deadline, false);
+	}
+
+	/**
+	 * Parses a range of lines of a source file that has to consist of complete statements at the same indentation,
+	 * e.g. the statements of a function body (see {@link ModuleSplitter#splitBody(SourceFile, int, int)}). Only the
+	 * LL prediction is used, which finds the actual syntax errors.
+	 * @param source the source
+	 * @param fromLine zero based index of the first line
+	 * @param toLine zero based index of the line after the last line
+	 * @param deadline see {@link TimedTokenStream#deadline(long)}
+	 * @return the parse tree of the statements
+	 * @throws Exception when the statements cannot be parsed
+	 * @throws TimedTokenStream.ParseTimeoutException when the deadline has passed
+	 */
+	public static ParserRuleContext parseSuite(SourceFile source, int fromLine, int toLine, long deadline) throws Exception {
+		return pools.get().parseInput(source.getCharStream(fromLine, toLine), fromLine + 1, null, deadline, true);
+	}
+
+	private static long deadline() {
+		return TimedTokenStream.deadline(ParserSettings.getInstance().getTimeout());
+	}
+
+	private ParserRuleContext parseInput(CharStream input, int firstLine, ParseTreeListener listener, long deadline, boolean suite) throws Exception {
+		boolean warmDfa = ParserSettings.getInstance().isWarmDfa();
+		if (warmDfa) {
+			DfaCache.getInstance().attach(this.lexer, this.parser);
+		}
+
+		PipelinedTokenSource pipeline = null;
+		if (ParserSettings.getInstance().getLexerThreads() > 0 && input.size() >= PIPELINE_MIN_CHARS) {
+			pipeline = PipelinedTokenSource.start(input, firstLine, ParserSettings.getInstance().getPipelineTokens(),
+					warmDfa ? DfaCache.getInstance().getLexerContexts() : null);
+		}
+		if (pipeline != null) {
+			ParseStats.getInstance().filePipelined();
+			this.tokens.setTokenSource(pipeline);
+		}
+		else {
+			this.lexer.setInputStream(input);
+			//the line is kept by the simulator, which the new input resets
+			this.lexer.setLine(firstLine);
+			this.tokens.setTokenSource(this.lexer);
+		}
+		this.tokens.startBudget(ParserSettings.getInstance().getTimeout(), deadline);
+		this.parser.setTokenStream(this.tokens);
+		DecisionProfiler profiler = DecisionProfiler.getInstance();
+		if (profiler != null) {
+			this.parser.setProfile(true);
+		}
+		if (listener != null) {
+			this.parser.addParseListener(listener);
+		}
+		try {
+			if (suite) {
+				return this.parseSuite();
+			}
+			if (ParserSettings.getInstance().isDialectSniffing()) {
+				return this.parseDialect();
+			}
+			return this.parseFileInput();
+		}
+		finally {
+			if (pipeline != null) {
+				pipeline.close();
+			}
+			if (listener != null) {
+				this.parser.removeParseListener(listener);
+			}
+			if (profiler != null) {
+				profiler.add(this.parser.getParseInfo().getDecisionInfo());
+				this.parser.setProfile(false);
+			}
+			if (warmDfa) {
+				DfaCache.getInstance().detach(this.lexer, this.parser);
+			}
+			else {
+				this.unlink();
+			}
+		}
+	}
+
+	/**
+	 * Lexes the whole input first to sniff its dialect. Inputs without print or exec statements are parsed with
+	 * those keywords as names, which spares the prediction between statement and call. Should that parse fail, the
+	 * input is parsed again with the original tokens, so the outcome never depends on the sniffing. With two stage
+	 * parsing, the renamed tokens only get the SLL parse and the original tokens only the LL parse, so a file with a
+	 * syntax error is parsed twice at most, as without sniffing.
+	 */
+	private ParserRuleContext parseDialect() {
+		this.tokens.fill();
+		DialectSniffer sniffer = DialectSniffer.sniff(this.tokens.getTokens());
+		ParseStats.getInstance().dialectSniffed(sniffer.getDialect());
+		DialectSniffer.RenamedKeywords renamed = sniffer.renameKeywords();
+		if (renamed.isEmpty()) {
+			return this.parseFileInput();
+		}
+
+		ParseStats.getInstance().keywordsRenamed();
+		boolean twoStage = ParserSettings.getInstance().isTwoStage();
+		try {
+			return this.parseFileInput(twoStage ? PredictionMode.SLL : PredictionMode.LL);
+		}
+		catch (ParseCancellationException ex) {
+			ParseStats.getInstance().dialectFallback();
+			if (twoStage) {
+				ParseStats.getInstance().llFallback();
+			}
+			renamed.restore();
+			this.tokens.seek(0);
+			this.parser.reset();
+			return this.parseFileInput(PredictionMode.LL);
+		}
+	}
+
+	/**
+	 * Parses in SLL prediction mode first, which is a lot cheaper and succeeds for most files. Only when SLL
+	 * bails out the file is re-parsed with full LL prediction, which also reports the actual syntax errors.
+	 */
+	private ParserRuleContext parseFileInput() {
+		if (!ParserSettings.getInstance().isTwoStage()) {
+			return this.parseFileInput(PredictionMode.LL);
+		}
+
+		try {
+			return this.parseFileInput(PredictionMode.SLL);
+		}
+		catch (ParseCancellationException ex) {
+			ParseStats.getInstance().llFallback();
+			this.tokens.seek(0);
+			this.parser.reset();
+			return this.parseFileInput(PredictionMode.LL);
+		}
+	}
+
+	private ParserRuleContext parseFileInput(PredictionMode mode) {
+		this.parser.getInterpreter().setPredictionMode(mode);
+		return this.parser.file_input();
+	}
+
+	/**
+	 * The indentation at the start of the input makes the lexer open the block (see the lexer members in the grammar),
+	 * which the suite rule expects.
+	 */
+	private ParserRuleContext parseSuite() {
+		this.parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+		ParserRuleContext suite = this.parser.suite();
+		if (this.tokens.LA(1) != Token.EOF) {
+			throw new ParseCancellationException("Unexpected '" + this.tokens.LT(1).getText() + "' after the statements");
+		}
+		return suite;
+	}
+
+	private void unlink() {
+		ATNSimulator simulator = this.parser.getInterpreter();
+		simulator.clearDFA();
+		this.lexer.setInterpreter(new LexerATNSimulator(this.lexer, this.lexer.getATN(), this.lexer.getInterpreter().decisionToDFA, new PredictionContextCache()));
+		this.parser.setInterpreter(new ParserATNSimulator(this.parser, this.parser.getATN(), this.parser.getInterpreter().decisionToDFA, new PredictionContextCache()));
+	}
+}
@@ -0,0 +1,211 @@
+package process;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import util.Settings;
+
+/**
+ * Holds the "parsing.*" settings of the active config file. When no config file can be loaded (as is the case
+ * for the tests) the defaults are used, which correspond to the original single threaded behaviour.
+ */
+public class ParserSettings {
+
+	private static ParserSettings instance;
+
+	private final int threads;
+	private final boolean twoStage;
+	private final boolean warmDfa;
+	private final int dfaCacheLimit;
+	private final File astCacheDirectory;
+	private final File dfaSnapshotFile;
+	private final int chunkLines;
+	private final long timeout;
+	private final boolean dialectSniffing;
+	private final boolean recovery;
+	private final boolean streaming;
+	private final int pipelineTokens;
+	private final int prefetch;
+	private final boolean flat;
+
+	public static synchronized ParserSettings getInstance() {
+		if (instance == null) {
+			instance = new ParserSettings(ParserSettings.loadConfig());
+		}
+		return instance;
+	}
+
+	private ParserSettings(Properties config) {
+		int configuredThreads = ParserSettings.intProperty(config, "parsing.threads", 1);
+		this.threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+		this.twoStage = ParserSettings.booleanProperty(config, "parsing.sll", true);
+		this.warmDfa = ParserSettings.booleanProperty(config, "parsing.dfa.warm", false);
+		this.dfaCacheLimit = ParserSettings.intProperty(config, "parsing.dfa.cachelimit", 200000);
+		String output = config.getProperty("locations.data.output");
+		this.astCacheDirectory = ParserSettings.booleanProperty(config, "parsing.cache", false) && output != null
+				? new File(output, "astcache") : null;
+		this.dfaSnapshotFile = this.warmDfa && ParserSettings.booleanProperty(config, "parsing.dfa.snapshot", false) && output != null
+				? new File(output, "dfa.snapshot") : null;
+		this.chunkLines = ParserSettings.intProperty(config, "parsing.chunk.lines", 0);
+		this.timeout = ParserSettings.intProperty(config, "parsing.timeout", 0);
+		this.dialectSniffing = ParserSettings.booleanProperty(config, "parsing.dialect", false);
+		this.recovery = ParserSettings.booleanProperty(config, "parsing.recovery", false);
+		this.streaming = ParserSettings.booleanProperty(config, "parsing.streaming", false);
+		this.pipelineTokens = ParserSettings.intProperty(config, "parsing.pipeline.tokens", 0);
+		this.prefetch = ParserSettings.intProperty(config, "parsing.prefetch", 0);
+		this.flat = ParserSettings.booleanProperty(config, "parsing.flat", false);
+	}
+
+	/**
+	 * @return amount of worker threads used for parsing the files of a project. 1 means sequential parsing.
+	 */
+	public int getThreads() {
+		return this.threads;
+	}
+
+	/**
+	 * @return amount of the threads that parse, i.e. "parsing.threads" without the lexer threads
+	 */
+	public int getParserThreads() {
+		return this.threads - this.getLexerThreads();
+	}
+
+	/**
+	 * @return amount of the threads that lex large files for the parser threads (see {@link PipelinedTokenSource}),
+	 * a quarter of "parsing.threads". 0 when the lexers aren't pipelined, which needs at least two threads and isn't
+	 * done when the dialect is sniffed, because the sniffer needs all tokens before the parse starts.
+	 */
+	public int getLexerThreads() {
+		if (this.pipelineTokens <= 0 || this.dialectSniffing || this.threads < 2) {
+			return 0;
+		}
+		return Math.max(1, this.threads / 4);
+	}
+
+	/**
+	 * @return whether files are parsed in SLL prediction mode first, falling back to LL only when SLL fails
+	 */
+	public boolean isTwoStage() {
+		return this.twoStage;
+	}
+
+	/**
+	 * @return whether the DFA cache is kept warm across files instead of being cleared after every file
+	 */
+	public boolean isWarmDfa() {
+		return this.warmDfa;
+	}
+
+	/**
+	 * @return amount of DFA states and cached prediction contexts after which the warm DFA cache is reset
+	 */
+	public int getDfaCacheLimit() {
+		return this.dfaCacheLimit;
+	}
+
+	/**
+	 * @return directory of the persistent AST cache, or null when the cache is disabled
+	 */
+	public File getAstCacheDirectory() {
+		return this.astCacheDirectory;
+	}
+
+	/**
+	 * @return file the warm DFA is loaded from at the start and saved to at the end of a run, or null when disabled
+	 */
+	public File getDfaSnapshotFile() {
+		return this.dfaSnapshotFile;
+	}
+
+	/**
+	 * @return minimum amount of lines of the chunks a large module is split into, 0 when modules are not split.
+	 * Modules with less than twice this amount of lines are parsed as a whole.
+	 */
+	public int getChunkLines() {
+		return this.chunkLines;
+	}
+
+	/**
+	 * @return wall clock time in milliseconds the parse of a file (or chunk) may take, 0 for no limit
+	 */
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * @return whether the Python 2/3 dialect of a file is sniffed from its tokens to simplify the parse
+	 */
+	public boolean isDialectSniffing() {
+		return this.dialectSniffing;
+	}
+
+	/**
+	 * @return whether the statements that parse are kept when a module does not parse as a whole
+	 */
+	public boolean isRecovery() {
+		return this.recovery;
+	}
+
+	/**
+	 * @return whether the statements of a module are built while it is parsed, so the parse tree of the whole
+	 * module never has to be kept in memory
+	 */
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+
+	/**
+	 * @return amount of tokens the lexer of a large file may run ahead of its parser on a lexer thread, 0 when
+	 * files are lexed on the parser thread (see {@link PipelinedTokenSource} and {@link #getLexerThreads()})
+	 */
+	public int getPipelineTokens() {
+		return this.pipelineTokens;
+	}
+
+	/**
+	 * @return maximum amount of files that are read ahead of the parser threads, 0 when every parser thread reads
+	 * its own files (see {@link FilePrefetcher})
+	 */
+	public int getPrefetch() {
+		return this.prefetch;
+	}
+
+	/**
+	 * @return whether the ASTs that are kept until the whole project is parsed are stored in the compact encoding of
+	 * {@link ast.FlatModule}, which inflates a module every time it is visited
+	 */
+	public boolean isFlat() {
+		return this.flat;
+	}
+
+	private static Properties loadConfig() {
+		try {
+			return Settings.getConfig();
+		}
+		catch (IOException e) {
+			System.out.println("No config file found for parser settings, using defaults.");
+			return new Properties();
+		}
+	}
+
+	static int intProperty(Properties config, String key, int defaultValue) {
+		if (!config.containsKey(key)) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(config.getProperty(key).trim());
+		}
+		catch (NumberFormatException e) {
+			System.err.println("Invalid value for " + key + ": " + config.getProperty(key) + ", using " + defaultValue);
+			return defaultValue;
+		}
+	}
+
+	static boolean booleanProperty(Properties config, String key, boolean defaultValue) {
+		if (!config.containsKey(key)) {
+			return defaultValue;
+		}
+		return config.getProperty(key).trim().equalsIgnoreCase("true");
+	}
+}
@@ -0,0 +1,231 @@
+package process;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+
+import gen.PythonLexer;
+
+/**
+ * Token source that lexes its input on a lexer thread, so the parser can already work on the first tokens while the
+ * rest of the input is lexed. The tokens are handed over in batches through a bounded buffer, the lexer waits when
+ * the parser falls behind. The lexer threads are part of "parsing.threads" (see
+ * {@link ParserSettings#getLexerThreads()}) and shared by all parser threads. A parser that finds them all busy lexes
+ * its input itself.
+ *
+ * The lexer uses the warm DFA of its parser when "parsing.dfa.warm" is set, otherwise a prediction context cache of
+ * its own per input, like the lexer of a {@link ParserPool}.
+ */
+public class PipelinedTokenSource implements TokenSource {
+
+	private static final int BATCH_SIZE = 256;
+	private static final long OFFER_MILLIS = 10;
+	/**
+	 * Marks the end of the batches when the lexer failed
+	 */
+	private static final List<Token> FAILED = Collections.emptyList();
+
+	private static final ThreadLocal<PythonLexer> lexers = ThreadLocal.withInitial(() -> new PythonLexer(CharStreams.fromString("")));
+	private static ExecutorService pool;
+	private static Semaphore idleLexers;
+
+	private final CharStream input;
+	private final BlockingQueue<List<Token>> batches;
+	private final CountDownLatch finished;
+	private volatile boolean closed;
+	private volatile RuntimeException failure;
+
+	private List<Token> batch = Collections.emptyList();
+	private int position;
+	private Token last;
+	private TokenFactory<?> factory = CommonTokenFactory.DEFAULT;
+
+	private PipelinedTokenSource(CharStream input, int bufferTokens) {
+		this.input = input;
+		this.batches = new ArrayBlockingQueue<>(Math.max(1, bufferTokens / BATCH_SIZE));
+		this.finished = new CountDownLatch(1);
+	}
+
+	/**
+	 * Starts lexing the input on a lexer thread, if one is idle.
+	 * @param input the input
+	 * @param firstLine line number of the first line of the input
+	 * @param bufferTokens amount of lexed tokens the parser may fall behind
+	 * @param contexts prediction context cache of the attached parser (see {@link DfaCache#getLexerContexts()}), null
+	 * when the DFA isn't kept warm
+	 * @return the token source, to be closed once the parse is over, null when all lexer threads are busy
+	 */
+	public static PipelinedTokenSource start(CharStream input, int firstLine, int bufferTokens, PredictionContextCache contexts) {
+		if (!PipelinedTokenSource.getIdleLexers().tryAcquire()) {
+			return null;
+		}
+		PipelinedTokenSource source = new PipelinedTokenSource(input, bufferTokens);
+		PipelinedTokenSource.getPool().execute(() -> source.lex(firstLine, contexts));
+		return source;
+	}
+
+	/**
+	 * Stops the lexer when the parse ends before the input is lexed, e.g. because it failed or timed out, and waits
+	 * until the lexer thread is done with the input.
+	 */
+	public void close() {
+		this.closed = true;
+		this.batches.clear();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				this.finished.await();
+				break;
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public Token nextToken() {
+		while (this.position == this.batch.size()) {
+			if (this.last != null && this.last.getType() == Token.EOF) {
+				return this.last;
+			}
+			this.batch = this.takeBatch();
+			this.position = 0;
+		}
+		this.last = this.batch.get(this.position++);
+		return this.last;
+	}
+
+	private List<Token> takeBatch() {
+		List<Token> next;
+		try {
+			next = this.batches.take();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the lexer of " + this.getSourceName(), e);
+		}
+		if (next == FAILED) {
+			throw this.failure;
+		}
+		return next;
+	}
+
+	private void lex(int firstLine, PredictionContextCache contexts) {
+		PythonLexer lexer = lexers.get();
+		try {
+			lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA,
+					contexts != null ? contexts : new PredictionContextCache()));
+			lexer.setInputStream(this.input);
+			lexer.setLine(firstLine);
+			List<Token> tokens = new ArrayList<>(BATCH_SIZE);
+			while (!this.closed) {
+				Token token = lexer.nextToken();
+				tokens.add(token);
+				if (token.getType() == Token.EOF || tokens.size() == BATCH_SIZE) {
+					if (!this.offer(tokens) || token.getType() == Token.EOF) {
+						return;
+					}
+					tokens = new ArrayList<>(BATCH_SIZE);
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			this.failure = e;
+			this.offer(FAILED);
+		}
+		finally {
+			//don't keep the input alive
+			lexer.setInputStream(CharStreams.fromString(""));
+			this.finished.countDown();
+			idleLexers.release();
+		}
+	}
+
+	/**
+	 * @return whether the batch was added, false when the source was closed while waiting for space
+	 */
+	private boolean offer(List<Token> tokens) {
+		try {
+			while (!this.batches.offer(tokens, OFFER_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (this.closed) {
+					return false;
+				}
+			}
+			return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	@Override
+	public int getLine() {
+		return this.last == null ? 1 : this.last.getLine();
+	}
+
+	@Override
+	public int getCharPositionInLine() {
+		return this.last == null ? 0 : this.last.getCharPositionInLine();
+	}
+
+	@Override
+	public CharStream getInputStream() {
+		return this.input;
+	}
+
+	@Override
+	public String getSourceName() {
+		return this.input.getSourceName();
+	}
+
+	@Override
+	public void setTokenFactory(TokenFactory<?> factory) {
+		this.factory = factory;
+	}
+
+	@Override
+	public TokenFactory<?> getTokenFactory() {
+		return this.factory;
+	}
+
+	private static synchronized ExecutorService getPool() {
+		if (pool == null) {
+			AtomicInteger counter = new AtomicInteger();
+			pool = Executors.newFixedThreadPool(Math.max(1, ParserSettings.getInstance().getLexerThreads()), r -> {
+				Thread t = new Thread(r, "lexer-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return pool;
+	}
+
+	private static synchronized Semaphore getIdleLexers() {
+		if (idleLexers == null) {
+			idleLexers = new Semaphore(Math.max(1, ParserSettings.getInstance().getLexerThreads()));
+		}
+		return idleLexers;
+	}
+}
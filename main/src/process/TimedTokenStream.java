@@ -0,0 +1,72 @@
+package process;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.TokenSource;
+
+/**
+ * Token stream that cancels the parse once a deadline has passed. Both matching and prediction (including the
+ * lexing, which happens on demand) look at the input through {@link #LA(int)}, so checking the clock there stops
+ * a parse that is stuck in prediction. The clock is only read every {@value #CHECK_INTERVAL} calls.
+ */
+public class TimedTokenStream extends CommonTokenStream {
+
+	private static final int CHECK_INTERVAL = 1024;
+
+	private long deadline;
+	private long budgetMillis;
+	private int calls;
+
+	public TimedTokenStream(TokenSource tokenSource) {
+		super(tokenSource);
+	}
+
+	/**
+	 * @param budgetMillis time the parse of the current input may take, 0 for no limit
+	 */
+	public void startBudget(long budgetMillis) {
+		this.startBudget(budgetMillis, TimedTokenStream.deadline(budgetMillis));
+	}
+
+	/**
+	 * Starts the parse of the current input with a deadline that can be shared with other parses, e.g. those of the
+	 * statements of one module. The clock is read on the first call, so a parse starting after the deadline is
+	 * cancelled right away.
+	 * @param budgetMillis the time the deadline was computed from, for the message
+	 * @param deadline value of {@link System#nanoTime()} after which the parse is cancelled, 0 for no limit
+	 */
+	public void startBudget(long budgetMillis, long deadline) {
+		this.budgetMillis = budgetMillis;
+		this.deadline = deadline;
+		this.calls = CHECK_INTERVAL - 1;
+	}
+
+	/**
+	 * @param budgetMillis time parsing may take from now on, 0 for no limit
+	 * @return the deadline for {@link #startBudget(long, long)}
+	 */
+	public static long deadline(long budgetMillis) {
+		return budgetMillis > 0 ? System.nanoTime() + budgetMillis * 1000000 : 0;
+	}
+
+	@Override
+	public int LA(int i) {
+		if (this.deadline != 0 && ++this.calls % CHECK_INTERVAL == 0 && System.nanoTime() > this.deadline) {
+			String source = this.getSourceName();
+			this.deadline = 0;
+			throw new ParseTimeoutException("Parsing " + source + " took longer than " + this.budgetMillis + " ms");
+		}
+		return super.LA(i);
+	}
+
+	/**
+	 * Thrown when the parse exceeds its budget. Not a ParseCancellationException, so it isn't taken for a failed
+	 * SLL parse.
+	 */
+	public static class ParseTimeoutException extends RuntimeException {
+		private static final long serialVersionUID = -2051706945484976094L;
+
+		public ParseTimeoutException(String message) {
+			super(message);
+		}
+	}
+}
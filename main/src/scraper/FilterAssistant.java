@@ -14,7 +14,7 @@ import util.Settings;
 import util.StringHelper;
 
 /**
- * This small program takes input from StatsCSVCreator and runs all the programs through a filter to check if they are within filter parameters. 
+ * This small program takes input from StatsCSVCreator (or the estimates of TriageCsvCreator) and runs all the programs through a filter to check if they are within filter parameters. 
  * The output can be used directly by enabling filtering in the config file.
  * 
  * @author felix
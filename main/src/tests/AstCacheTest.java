@@ -0,0 +1,92 @@
+package tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ast.Module;
+import process.AstCache;
+import util.FileHelper;
+import util.SourceFile;
+
+public class AstCacheTest {
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		this.directory = Files.createTempDirectory("astcache").toFile();
+	}
+
+	@After
+	public void deleteDirectory() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Test
+	public void cachedModulesEqualParsedOnes() throws Exception {
+		AstCache cache = new AstCache(this.directory);
+		int cachedCount = 0;
+		for (String file : FileHelper.getPythonFilePaths(new File("main/src/tests/samples"))) {
+			SourceFile source = SourceFile.read(file);
+			String key = cache.key(source);
+			Module module = TestHelper.getAst(file);
+			if (!module.getErrors().isEmpty()) {
+				continue;
+			}
+
+			cache.put(key, module);
+			Module cached = cache.get(key, file);
+			assert (cached != null);
+			assert (TestHelper.sameTree(cached, module));
+			cachedCount++;
+		}
+		assert (cachedCount > 0);
+	}
+
+	@Test
+	public void corruptEntriesAreMisses() throws Exception {
+		AstCache cache = new AstCache(this.directory);
+		String file = "main/src/tests/samples/parents/derived.py";
+		String key = cache.key(SourceFile.read(file));
+		cache.put(key, TestHelper.getAst(file));
+
+		List<Path> entries = this.entries();
+		assert (entries.size() == 1);
+		Files.write(entries.get(0), "not an entry".getBytes(StandardCharsets.UTF_8));
+		assert (cache.get(key, file) == null);
+		assert (this.entries().isEmpty());
+	}
+
+	@Test
+	public void modulesWithErrorsAreNotCached() throws Exception {
+		AstCache cache = new AstCache(this.directory);
+		String file = "main/src/tests/samples/parents/derived.py";
+		String key = cache.key(SourceFile.read(file));
+		Module module = TestHelper.getAst(file);
+		cache.put(key, new Module(file, module.getCodeLines(), module.getBody(), new ArrayList<>(Arrays.asList("Syntax error"))));
+
+		assert (cache.get(key, file) == null);
+		assert (this.entries().isEmpty());
+	}
+
+	private List<Path> entries() throws IOException {
+		try (Stream<Path> paths = Files.walk(this.directory.toPath())) {
+			return paths.filter(p -> p.toString().endsWith(".ast")).collect(Collectors.toList());
+		}
+	}
+}
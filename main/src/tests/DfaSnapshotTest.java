@@ -0,0 +1,120 @@
+package tests;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import org.junit.Test;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+import process.DfaSnapshot;
+import util.FileHelper;
+import util.SourceFile;
+
+public class DfaSnapshotTest {
+
+	private static final List<String> RULE_NAMES = Arrays.asList(PythonParser.ruleNames);
+
+	@Test
+	public void warmParseTreesMatchColdOnes() throws Exception {
+		List<String> files = FileHelper.getPythonFilePaths(new File("main/src/tests/samples"));
+		DfaSnapshotTest.clearDfas();
+		List<String> cold = DfaSnapshotTest.parseTrees(files);
+
+		File snapshot = DfaSnapshotTest.tempFile();
+		int saved = DfaSnapshot.save(snapshot);
+		assert (saved > 0);
+
+		DfaSnapshotTest.clearDfas();
+		int loaded = DfaSnapshot.load(snapshot);
+		assert (loaded == saved);
+		List<String> warm = DfaSnapshotTest.parseTrees(files);
+		assert (warm.equals(cold));
+
+		//the DFAs are warm already
+		int reloaded = DfaSnapshot.load(snapshot);
+		assert (reloaded == -1);
+	}
+
+	@Test
+	public void snapshotOfAnotherGrammarIsIgnored() throws Exception {
+		DfaSnapshotTest.clearDfas();
+		DfaSnapshotTest.parseTrees(FileHelper.getPythonFilePaths(new File("main/src/tests/samples/parents")));
+		File snapshot = DfaSnapshotTest.tempFile();
+		int saved = DfaSnapshot.save(snapshot);
+		assert (saved > 0);
+
+		File other = DfaSnapshotTest.tempFile();
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(snapshot.toPath()))));
+				DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(other.toPath()))))) {
+			out.writeUTF(in.readUTF());
+			out.writeInt(in.readInt());
+			//a lexer ATN hash of the same length that doesn't match
+			out.writeUTF(in.readUTF().replaceAll(".", "0"));
+			out.writeUTF(in.readUTF());
+			out.write(DfaSnapshotTest.readRest(in));
+		}
+
+		DfaSnapshotTest.clearDfas();
+		int rejected = DfaSnapshot.load(other);
+		assert (rejected == -1);
+		assert (DfaSnapshotTest.isEmpty(new PythonLexer(CharStreams.fromString("")).getInterpreter().decisionToDFA));
+		assert (DfaSnapshotTest.isEmpty(new PythonParser(null).getInterpreter().decisionToDFA));
+		int loaded = DfaSnapshot.load(snapshot);
+		assert (loaded > 0);
+	}
+
+	private static List<String> parseTrees(List<String> files) throws Exception {
+		List<String> trees = new ArrayList<>();
+		for (String file : files) {
+			PythonParser parser = new PythonParser(new CommonTokenStream(new PythonLexer(SourceFile.read(file).getCharStream())));
+			trees.add(parser.file_input().toStringTree(RULE_NAMES));
+		}
+		return trees;
+	}
+
+	private static void clearDfas() {
+		new PythonLexer(CharStreams.fromString("")).getInterpreter().clearDFA();
+		new PythonParser(null).getInterpreter().clearDFA();
+	}
+
+	private static boolean isEmpty(DFA[] dfas) {
+		for (DFA dfa : dfas) {
+			if (dfa.s0 != null || !dfa.states.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static File tempFile() throws IOException {
+		File file = File.createTempFile("dfa", ".snapshot");
+		file.deleteOnExit();
+		return file;
+	}
+
+	private static byte[] readRest(DataInputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) > 0) {
+			bytes.write(buffer, 0, read);
+		}
+		return bytes.toByteArray();
+	}
+}
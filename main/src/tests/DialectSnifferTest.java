@@ -0,0 +1,114 @@
+package tests;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Test;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+import process.DialectSniffer;
+import process.DialectSniffer.Dialect;
+
+public class DialectSnifferTest {
+
+	@Test
+	public void detectsPython2() {
+		assert (DialectSnifferTest.sniff("print 'x'\n").getDialect() == Dialect.PYTHON2);
+		assert (DialectSnifferTest.sniff("print >>sys.stderr, 'x'\n").hasPrintStatement());
+		assert (DialectSnifferTest.sniff("exec code in ns\n").hasExecStatement());
+		assert (DialectSnifferTest.sniff("try:\n    pass\nexcept ValueError, e:\n    pass\n").getDialect() == Dialect.PYTHON2);
+		assert (DialectSnifferTest.sniff("x = 1L\n").getDialect() == Dialect.PYTHON2);
+	}
+
+	@Test
+	public void detectsPython3() {
+		assert (DialectSnifferTest.sniff("def f() -> int:\n    return 1\n").getDialect() == Dialect.PYTHON3);
+		assert (DialectSnifferTest.sniff("def f():\n    yield from g()\n").getDialect() == Dialect.PYTHON3);
+		assert (DialectSnifferTest.sniff("s = f'{x}'\n").getDialect() == Dialect.PYTHON3);
+		//a name followed by a string after a space is no f-string
+		assert (DialectSnifferTest.sniff("print(f 'x')\n").getDialect() == Dialect.UNKNOWN);
+	}
+
+	@Test
+	public void unknownWithoutOrWithBothMarkers() {
+		assert (DialectSnifferTest.sniff("x = 1\n").getDialect() == Dialect.UNKNOWN);
+		assert (DialectSnifferTest.sniff("print 'x'\ndef f() -> int:\n    return 1\n").getDialect() == Dialect.UNKNOWN);
+	}
+
+	@Test
+	public void printCallIsNoStatement() {
+		DialectSniffer sniffer = DialectSnifferTest.sniff("print('x')\nprint\nx = print\n");
+		assert (!sniffer.hasPrintStatement());
+		assert (sniffer.getDialect() == Dialect.UNKNOWN);
+	}
+
+	@Test
+	public void renamesKeywordsOnlyWithoutStatements() {
+		List<Token> tokens = DialectSnifferTest.tokens("print('x')\nexec 'y'\n");
+		DialectSniffer.RenamedKeywords renamed = DialectSniffer.sniff(tokens).renameKeywords();
+		assert (!renamed.isEmpty());
+		assert (DialectSnifferTest.typeOf(tokens, "print") == PythonLexer.NAME);
+		assert (DialectSnifferTest.typeOf(tokens, "exec") == PythonLexer.EXEC);
+
+		renamed.restore();
+		assert (DialectSnifferTest.typeOf(tokens, "print") == PythonLexer.PRINT);
+
+		assert (DialectSniffer.sniff(DialectSnifferTest.tokens("print 'x'\n")).renameKeywords().isEmpty());
+	}
+
+	@Test
+	public void renamedTokensParse() {
+		CommonTokenStream stream = DialectSnifferTest.stream("def log(msg):\n    print(msg, file=sys.stderr)\n");
+		DialectSniffer.sniff(stream.getTokens()).renameKeywords();
+		PythonParser parser = new PythonParser(stream);
+		parser.setErrorHandler(new BailErrorStrategy());
+		parser.file_input();
+	}
+
+	@Test
+	public void fallsBackToOriginalTokens() {
+		//a syntax error elsewhere fails the renamed parse, the original tokens have to be restored for the next one
+		CommonTokenStream stream = DialectSnifferTest.stream("print('x')\nx = = 1\n");
+		DialectSniffer.RenamedKeywords renamed = DialectSniffer.sniff(stream.getTokens()).renameKeywords();
+		PythonParser parser = new PythonParser(stream);
+		parser.setErrorHandler(new BailErrorStrategy());
+		try {
+			parser.file_input();
+			assert (false);
+		}
+		catch (ParseCancellationException e) {
+			renamed.restore();
+		}
+		assert (DialectSnifferTest.typeOf(stream.getTokens(), "print") == PythonLexer.PRINT);
+	}
+
+	private static DialectSniffer sniff(String code) {
+		return DialectSniffer.sniff(DialectSnifferTest.tokens(code));
+	}
+
+	private static List<Token> tokens(String code) {
+		return DialectSnifferTest.stream(code).getTokens();
+	}
+
+	private static CommonTokenStream stream(String code) {
+		CommonTokenStream stream = new CommonTokenStream(new PythonLexer(CharStreams.fromString(code)));
+		stream.fill();
+		return stream;
+	}
+
+	/**
+	 * @return the type of the tokens with the text, which all have to have the same type
+	 */
+	private static int typeOf(List<Token> tokens, String text) {
+		List<Integer> types = tokens.stream().filter(t -> t.getText().equals(text)).map(Token::getType).distinct()
+				.collect(Collectors.toList());
+		assert (types.size() == 1);
+		return types.get(0);
+	}
+}
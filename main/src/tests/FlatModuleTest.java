@@ -0,0 +1,81 @@
+package tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ast.DefaultVisitor;
+import ast.FlatModule;
+import ast.LineSpan;
+import ast.Module;
+import ast.statement.Statement;
+import ast.statement.simple.Pass;
+import util.FileHelper;
+
+public class FlatModuleTest {
+
+	@Test
+	public void inflatesToSameTree() {
+		//the flat_module samples contain most node kinds of both dialects
+		for (String file : FileHelper.getPythonFilePaths(new File("main/src/tests/samples"))) {
+			Module module = TestHelper.getAst(file);
+			FlatModule flat = FlatModule.encode(module);
+
+			assert (flat.getNodeCount() > 0 || module.getBody().isEmpty());
+			assert (TestHelper.sameTree(flat.inflate(), module));
+			assert (flat.getFilePath().equals(module.getFilePath()));
+			assert (Arrays.equals(flat.getCodeLines(), module.getCodeLines()));
+		}
+	}
+
+	@Test
+	public void visitSeesOneInflatedModule() {
+		FlatModule flat = FlatModule.encode(TestHelper.getAst("main/src/tests/samples/flat_module/python3.py"));
+
+		Boolean stable = flat.accept(new DefaultVisitor<Boolean>() {
+			@Override
+			public Boolean visit(Module n) {
+				return !(n instanceof FlatModule) && n.getBody() == n.getBody();
+			}
+		});
+		assert (stable);
+	}
+
+	@Test
+	public void keepsSharedNodes() {
+		Pass pass = new Pass(new LineSpan(1, 1));
+		Module module = new Module("shared.py", new int[] { 0, 1 }, Arrays.<Statement>asList(pass, pass));
+
+		Module inflated = FlatModule.encode(module).inflate();
+		assert (inflated.getBody().get(0) == inflated.getBody().get(1));
+	}
+
+	@Test
+	public void readsWhatItWrites() throws IOException {
+		Module module = TestHelper.getAst("main/src/tests/samples/flat_module/python2.py");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FlatModule.encode(module).write(new DataOutputStream(bytes));
+
+		FlatModule read = FlatModule.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), module.getFilePath());
+		assert (TestHelper.sameTree(read.inflate(), module));
+	}
+
+	@Test
+	public void rejectsOtherFormatVersion() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			new DataOutputStream(bytes).writeInt(FlatModule.FORMAT_VERSION + 1);
+			FlatModule.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "other.py");
+			assert (false);
+		}
+		catch (IOException e) {
+			assert (e.getMessage().contains("version"));
+		}
+	}
+}
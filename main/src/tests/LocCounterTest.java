@@ -1,10 +1,13 @@
 package tests;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import org.junit.Test;
 
 import ast.LocCounter;
+import util.SourceFile;
 
 /**
  * Created by Nik on 27-07-2015
@@ -22,4 +25,40 @@ public class LocCounterTest {
 		assert (c.count(16, 23) == 5);
 		assert (c.count(25, 26) == 1);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void countsPrefixSums() {
+		LocCounter c = new LocCounter(LocCounterTest.source(
+				"def f():",
+				"    \"\"\"Usage:",
+				"    # not a comment inside the docstring",
+				"",
+				"    \"\"\"",
+				"    # comment",
+				"    return 1",
+				"x = 'a#b'",
+				"# comment after a string with a hash",
+				"s = 'a\\",
+				"# still in the string'"));
+
+		assert (Arrays.equals(c.getCodeLines(), new int[] { 0, 1, 2, 3, 3, 4, 4, 5, 6, 6, 7, 8 }));
+		assert (c.count() == 8);
+		assert (c.count(1, 7) == 5);
+		assert (c.count(2, 5) == 3);
+		assert (c.count(6, 6) == 0);
+		//the range is clipped to the lines of the module
+		assert (c.count(10, 20) == 2);
+	}
+
+	@Test
+	public void countsEmptyModule() {
+		LocCounter c = new LocCounter(LocCounterTest.source(""));
+
+		assert (c.count() == 0);
+		assert (c.count(1, 1) == 0);
+	}
+
+	private static SourceFile source(String... lines) {
+		return SourceFile.decode("loc.py", String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+	}
+}
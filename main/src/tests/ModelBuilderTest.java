@@ -1,7 +1,11 @@
 package tests;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -9,10 +13,15 @@ import java.util.stream.Collectors;
 import org.junit.Test;
 
 import model.Class;
+import model.ContentContainer;
+import model.ModelBuilder;
+import model.Project;
 import model.Subroutine;
 import model.VarDefinitions;
 import model.Variable;
+import process.File2Tree;
 import util.DebuggingLogger;
+import util.FileHelper;
 
 /**
  * Created by Nik on 08-07-2015
@@ -214,6 +223,70 @@ public class ModelBuilderTest {
 	}
 	
 
+	@Test
+	public void sameModelSequentialAndParallel() {
+		File folder = new File("main/src/tests/samples");
+		List<String> files = FileHelper.getPythonFilePaths(folder);
+
+		String sequential = this.describe(new ModelBuilder(folder, File2Tree.getAsts(files, 1).values()).getProject());
+		String parallel = this.describe(new ModelBuilder(folder, File2Tree.getAsts(files, 4).values()).getProject());
+		assert (!sequential.isEmpty());
+		assert (parallel.equals(sequential));
+	}
+
+	@Test
+	public void sameModelFromParseTrees() {
+		File folder = new File("main/src/tests/samples");
+		List<String> files = FileHelper.getPythonFilePaths(folder);
+
+		String fromAsts = this.describe(new ModelBuilder(folder, File2Tree.streamAsts(files)).getProject());
+		Project project = new Project(folder);
+		String fromParseTrees = this.describe(new ModelBuilder(project, File2Tree.streamModels(project, files)).getProject());
+		assert (!fromAsts.isEmpty());
+		assert (fromParseTrees.equals(fromAsts));
+	}
+
+	private String describe(Project project) {
+		List<String> lines = new ArrayList<>();
+		project.getModules().forEach(m -> this.describe(m, m.getFilePath(), lines));
+		Collections.sort(lines);
+		return String.join("\n", lines);
+	}
+
+	private void describe(ContentContainer container, String parent, List<String> lines) {
+		String path = parent + "/" + container.getName();
+		StringBuilder line = new StringBuilder(path).append(" loc=").append(container.getLoc());
+		if (container instanceof Subroutine) {
+			Subroutine subroutine = (Subroutine) container;
+			line.append(" cc=").append(subroutine.getCC())
+					.append(" type=").append(subroutine.getSubroutineType())
+					.append(" accessor=").append(subroutine.isAccessor())
+					.append(" params=").append(subroutine.paramCount());
+		}
+		if (container instanceof Class) {
+			line.append(" supers=").append(((Class) container).getSuperclassNames());
+		}
+		line.append(" vars=").append(this.sorted(container.getDefinedVariablesSet().stream().map(v -> v.getName() + ":" + v.getVarType()).collect(Collectors.toList())))
+				.append(" refs=").append(this.sorted(container.getReferencedVarNamesList()))
+				.append(" calls=").append(this.sorted(container.getCalledSubroutineNamesList()))
+				.append(" assigns=").append(container.getAssignList().stream().map(a -> a.getName() + "=" + a.getValue() + ":" + a.getType()).collect(Collectors.toList()));
+		lines.add(this.mask(line.toString()));
+		container.getChildren().forEach(c -> this.describe(c, path, lines));
+	}
+
+	private List<String> sorted(List<String> names) {
+		List<String> sorted = names.stream().map(this::mask).collect(Collectors.toList());
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Names of calls on call results contain the identity hash code of the call node.
+	 */
+	private String mask(String name) {
+		return name.replaceAll("@[0-9a-f]+", "@");
+	}
+
 	private Map<String, Variable> sortVarsByName(Set<Variable> vars) {
 		Map<String, Variable> sorted = new HashMap<>();
 		for (Variable var : vars) {
@@ -0,0 +1,93 @@
+package tests;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.Module;
+import ast.statement.Statement;
+import ast.statement.compound.ClassDef;
+import ast.statement.compound.Function;
+import ast.statement.simple.ImportPaths;
+import ast.statement.simple.Pass;
+import process.ModuleRecovery;
+import util.SourceFile;
+
+public class ModuleRecoveryTest {
+
+	private static final String BROKEN = String.join("\n",
+			"import os",
+			"",
+			"class A(object):",
+			"    \"\"\"doc\"\"\"",
+			"",
+			"    def good(self):",
+			"        return 1",
+			"",
+			"    def bad(self):",
+			"        x = (1,",
+			"        return )",
+			"",
+			"    @property",
+			"    def other(self):",
+			"        if self.x:",
+			"            y = 1 +",
+			"        else:",
+			"            y = 2",
+			"        return y",
+			"",
+			"def f():",
+			"    pass",
+			"",
+			"def g(:",
+			"    pass",
+			"");
+
+	@Test
+	public void dropsOnlyBrokenStatements() throws Exception {
+		Module module = ModuleRecovery.recover(ModuleRecoveryTest.source(BROKEN));
+		List<Statement> body = module.getBody();
+
+		//g is broken at the top level
+		assert (body.size() == 3);
+		assert (body.get(0) instanceof ImportPaths);
+		assert (body.get(1) instanceof ClassDef);
+		assert (((Function) body.get(2)).getNameString().equals("f"));
+
+		List<String> errors = module.getErrors();
+		assert (errors.size() == 3);
+		assert (errors.get(0).contains("lines 10-12"));
+		assert (errors.get(1).contains("lines 16-16"));
+		assert (errors.get(2).contains("lines 24-25") && errors.get(2).contains("unexpected ':' at 24:6"));
+	}
+
+	@Test
+	public void keepsClassWithBrokenMethods() throws Exception {
+		Module module = ModuleRecovery.recover(ModuleRecoveryTest.source(BROKEN));
+		List<Statement> members = ((ClassDef) module.getBody().get(1)).getBody().getStatements();
+
+		assert (members.size() == 4);
+		Function bad = (Function) members.get(2);
+		assert (bad.getNameString().equals("bad"));
+		//the broken statement is replaced by pass
+		assert (bad.getBody().getStatements().size() == 1);
+		assert (bad.getBody().getStatements().get(0) instanceof Pass);
+
+		Function other = (Function) members.get(3);
+		assert (other.getNameString().equals("other"));
+		assert (other.getStartLine() == 14 && other.getEndLine() == 19);
+	}
+
+	@Test
+	public void validModuleHasNoErrors() throws Exception {
+		Module module = ModuleRecovery.recover(ModuleRecoveryTest.source("import os\n\ndef f():\n    return os.sep\n"));
+
+		assert (module.getErrors().isEmpty());
+		assert (module.getBody().size() == 2);
+	}
+
+	private static SourceFile source(String code) {
+		return SourceFile.decode("broken.py", code.getBytes(StandardCharsets.UTF_8));
+	}
+}
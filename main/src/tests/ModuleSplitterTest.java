@@ -0,0 +1,94 @@
+package tests;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import process.ModuleSplitter;
+import util.SourceFile;
+
+public class ModuleSplitterTest {
+
+	private static final SourceFile SOURCE = ModuleSplitterTest.source(
+			"import os",
+			"x = \"\"\"",
+			"def not_a_statement():",
+			"\"\"\"",
+			"y = (1,",
+			"2)",
+			"z = 1 + \\",
+			"2",
+			"s = 'it''s'  # it's",
+			"if x:",
+			"    pass",
+			"else:",
+			"    pass",
+			"@decorator",
+			"",
+			"def f():",
+			"    return '''",
+			"class Quoted:",
+			"'''",
+			"class C:",
+			"    \"\"\"Doc",
+			"    def not_a_method(self):",
+			"    \"\"\"",
+			"    @property",
+			"    def a(self):",
+			"        if self.x:",
+			"            return 1",
+			"        else:",
+			"            return 2",
+			"",
+			"    # comment",
+			"    def b(self, x=(1,",
+			"2)):",
+			"        pass");
+
+	@Test
+	public void splitsAtTopLevelStatements() {
+		List<String> chunks = ModuleSplitterTest.ranges(ModuleSplitter.split(SOURCE, 1));
+
+		//strings, brackets and continuations span lines, else continues the if and the decorator belongs to f
+		assert (chunks.equals(Arrays.asList("0-1", "1-4", "4-6", "6-8", "8-9", "9-13", "13-19", "19-34")));
+	}
+
+	@Test
+	public void keepsMinimumChunkSize() {
+		List<String> chunks = ModuleSplitterTest.ranges(ModuleSplitter.split(SOURCE, 10));
+
+		assert (chunks.equals(Arrays.asList("0-13", "13-34")));
+	}
+
+	@Test
+	public void splitsClassBodyIntoMethods() {
+		List<String> statements = ModuleSplitterTest.ranges(ModuleSplitter.splitBody(SOURCE, 19, 34));
+
+		assert (statements.equals(Arrays.asList("20-23", "23-31", "31-34")));
+	}
+
+	@Test
+	public void splitsBranchesOfIf() {
+		assert (ModuleSplitterTest.ranges(ModuleSplitter.splitBody(SOURCE, 9, 13)).equals(Arrays.asList("10-11", "12-13")));
+		//the else branch is part of the if statement in the method body
+		assert (ModuleSplitterTest.ranges(ModuleSplitter.splitBody(SOURCE, 24, 29)).equals(Arrays.asList("25-29")));
+	}
+
+	@Test
+	public void simpleStatementHasNoBody() {
+		assert (ModuleSplitter.splitBody(SOURCE, 4, 6).isEmpty());
+	}
+
+	private static SourceFile source(String... lines) {
+		return SourceFile.decode("split.py", String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<String> ranges(List<int[]> ranges) {
+		List<String> result = new ArrayList<>();
+		ranges.forEach(r -> result.add(r[0] + "-" + r[1]));
+		return result;
+	}
+}
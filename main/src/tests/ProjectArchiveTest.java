@@ -0,0 +1,135 @@
+package tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import util.FileHelper;
+import util.ProjectArchive;
+import util.SourceFile;
+
+public class ProjectArchiveTest {
+
+	private static final Map<String, String> FILES = new LinkedHashMap<>();
+	static {
+		FILES.put("project/setup.py", "from setuptools import setup\n");
+		FILES.put("project/README.md", "# not python\n");
+		FILES.put("project/pkg/__init__.py", "");
+		FILES.put("project/pkg/mod.py", "def f():\n    return 1\n");
+	}
+
+	@Test
+	public void readsEntriesOfZip() throws Exception {
+		File archive = ProjectArchiveTest.tempFile(".zip");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+			for (Map.Entry<String, String> file : FILES.entrySet()) {
+				out.putNextEntry(new ZipEntry(file.getKey()));
+				out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+		ProjectArchiveTest.assertEntries(archive);
+	}
+
+	@Test
+	public void readsEntriesOfTarGz() throws Exception {
+		File archive = ProjectArchiveTest.tempFile(".tar.gz");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive.toPath()))) {
+			for (Map.Entry<String, String> file : FILES.entrySet()) {
+				ProjectArchiveTest.writeTarEntry(out, file.getKey(), file.getValue().getBytes(StandardCharsets.UTF_8));
+			}
+			out.write(new byte[1024]);
+		}
+		ProjectArchiveTest.assertEntries(archive);
+	}
+
+	@Test
+	public void pathOutsideArchiveIsNoEntry() throws Exception {
+		assert (ProjectArchive.readEntry("main/src/tests/samples/parents/derived.py") == null);
+	}
+
+	private static void assertEntries(File archive) throws Exception {
+		List<String> paths = FileHelper.getPythonFilePaths(archive);
+		String root = archive.getAbsolutePath() + File.separator;
+		assert (paths.equals(Arrays.asList(root + "project" + File.separator + "setup.py",
+				root + "project" + File.separator + "pkg" + File.separator + "__init__.py",
+				root + "project" + File.separator + "pkg" + File.separator + "mod.py")));
+
+		Map<String, byte[]> streamed = new LinkedHashMap<>();
+		ProjectArchive.readPythonFiles(archive, streamed::put);
+		assert (new ArrayList<>(streamed.keySet()).equals(paths));
+
+		//read in reverse order, twice, like parser threads that don't take the files in archive order
+		for (int round = 0; round < 2; round++) {
+			for (int i = paths.size() - 1; i >= 0; i--) {
+				String path = paths.get(i);
+				byte[] entry = ProjectArchive.readEntry(path);
+				assert (Arrays.equals(entry, streamed.get(path)));
+				String name = path.substring(root.length()).replace(File.separatorChar, '/');
+				assert (new String(entry, StandardCharsets.UTF_8).equals(FILES.get(name)));
+			}
+		}
+		assert (SourceFile.read(paths.get(2)).getLineCount() == 2);
+
+		try {
+			ProjectArchive.readEntry(root + "project" + File.separator + "missing.py");
+			assert (false);
+		}
+		catch (IOException e) {
+			assert (e.getMessage().contains("missing.py"));
+		}
+	}
+
+	/**
+	 * Writes a ustar header and the padded contents.
+	 */
+	private static void writeTarEntry(OutputStream out, String name, byte[] contents) throws IOException {
+		byte[] header = new byte[512];
+		ProjectArchiveTest.put(header, 0, name);
+		ProjectArchiveTest.put(header, 100, "0000644");
+		ProjectArchiveTest.put(header, 108, "0000000");
+		ProjectArchiveTest.put(header, 116, "0000000");
+		ProjectArchiveTest.put(header, 124, String.format("%011o", contents.length));
+		ProjectArchiveTest.put(header, 136, "00000000000");
+		header[156] = '0';
+		ProjectArchiveTest.put(header, 257, "ustar");
+		ProjectArchiveTest.put(header, 263, "00");
+		Arrays.fill(header, 148, 156, (byte) ' ');
+		int checksum = 0;
+		for (byte b : header) {
+			checksum += b & 0xff;
+		}
+		ProjectArchiveTest.put(header, 148, String.format("%06o", checksum));
+		header[154] = 0;
+
+		ByteArrayOutputStream entry = new ByteArrayOutputStream();
+		entry.write(header);
+		entry.write(contents);
+		entry.write(new byte[(512 - contents.length % 512) % 512]);
+		entry.writeTo(out);
+	}
+
+	private static void put(byte[] header, int offset, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(bytes, 0, header, offset, bytes.length);
+	}
+
+	private static File tempFile(String extension) throws IOException {
+		File file = File.createTempFile("project", extension);
+		file.deleteOnExit();
+		return file;
+	}
+}
@@ -0,0 +1,77 @@
+package tests;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Test;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+
+public class PythonLexerTest {
+
+	@Test
+	public void cachesStartState() {
+		PythonLexer lexer = new PythonLexer(CharStreams.fromString(""));
+		lexer.getInterpreter().clearDFA();
+		lexer.setInputStream(CharStreams.fromString("def f(x):\n    return x\n"));
+		lexer.getAllTokens();
+
+		//a semantic predicate reachable from the start of a token keeps the lexer from caching its start state
+		assert (lexer.getInterpreter().getDFA(Lexer.DEFAULT_MODE).s0 != null);
+	}
+
+	@Test
+	public void indentsStartOfInput() {
+		List<Integer> types = PythonLexerTest.types("  x = 1\n");
+		assert (types.get(0) == PythonLexer.NEWLINE);
+		assert (types.get(1) == PythonParser.INDENT);
+		assert (types.get(2) == PythonLexer.NAME);
+
+		//like Python, a file may not start with indentation
+		assert (!PythonLexerTest.parses("  x = 1\n"));
+		assert (!PythonLexerTest.parses("\tx = 1\n"));
+	}
+
+	@Test
+	public void skipsBlankStartOfInput() {
+		assert (!PythonLexerTest.types("  # comment\nx = 1\n").contains(PythonParser.INDENT));
+		assert (PythonLexerTest.parses("  # comment\nx = 1\n"));
+		assert (PythonLexerTest.parses("  \nx = 1\n"));
+		assert (PythonLexerTest.parses("\n  \n\nx = 1\n"));
+	}
+
+	@Test
+	public void resetStartsNewInput() {
+		PythonLexer lexer = new PythonLexer(CharStreams.fromString("if x:\n    y = 1\n"));
+		lexer.nextToken();
+		lexer.setInputStream(CharStreams.fromString("  x = 1\n"));
+		List<Integer> reused = lexer.getAllTokens().stream().map(Token::getType).collect(Collectors.toList());
+
+		assert (reused.equals(PythonLexerTest.types("  x = 1\n")));
+	}
+
+	private static List<Integer> types(String code) {
+		return new PythonLexer(CharStreams.fromString(code)).getAllTokens().stream().map(Token::getType)
+				.collect(Collectors.toList());
+	}
+
+	private static boolean parses(String code) {
+		PythonParser parser = new PythonParser(new CommonTokenStream(new PythonLexer(CharStreams.fromString(code))));
+		parser.removeErrorListeners();
+		parser.setErrorHandler(new BailErrorStrategy());
+		try {
+			parser.file_input();
+			return true;
+		}
+		catch (ParseCancellationException e) {
+			return false;
+		}
+	}
+}
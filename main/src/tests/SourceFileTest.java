@@ -0,0 +1,59 @@
+package tests;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import util.SourceFile;
+
+public class SourceFileTest {
+
+	@Test
+	public void skipsUtf8Bom() {
+		byte[] bytes = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'x', ' ', '=', ' ', '1', '\n' };
+		SourceFile source = SourceFile.decode("bom.py", bytes);
+
+		assert (source.getCharset() == StandardCharsets.UTF_8);
+		assert (source.getLineCount() == 1);
+		assert (source.getLine(0).toString().equals("x = 1"));
+	}
+
+	@Test
+	public void decodesWithCodingCookie() {
+		String text = "#!/usr/bin/env python\n# -*- coding: latin-1 -*-\ns = '\u00e9'\n";
+		SourceFile source = SourceFile.decode("latin.py", text.getBytes(StandardCharsets.ISO_8859_1));
+
+		assert (source.getCharset() == StandardCharsets.ISO_8859_1);
+		assert (source.getLine(2).toString().equals("s = '\u00e9'"));
+	}
+
+	@Test
+	public void ignoresCodingCookieAfterSecondLine() {
+		String text = "\n\n# coding: latin-1\ns = '\u00e9'\n";
+		SourceFile source = SourceFile.decode("late.py", text.getBytes(StandardCharsets.UTF_8));
+
+		assert (source.getCharset() == StandardCharsets.UTF_8);
+		assert (source.getLine(3).toString().equals("s = '\u00e9'"));
+	}
+
+	@Test
+	public void treatsCarriageReturnsAsLineEnds() {
+		SourceFile source = SourceFile.decode("cr.py", "a = 1\rb = 2\r\nc = 3".getBytes(StandardCharsets.UTF_8));
+
+		assert (source.getLineCount() == 3);
+		assert (source.getLine(0).toString().equals("a = 1"));
+		assert (source.getLine(1).toString().equals("b = 2"));
+		//a final newline is added
+		assert (source.getLine(2).toString().equals("c = 3"));
+		assert (source.toString().endsWith("c = 3\n"));
+	}
+
+	@Test
+	public void blanksWhitespaceOnlyLines() {
+		SourceFile source = SourceFile.decode("blank.py", "if x:\n \f \n\tpass\n".getBytes(StandardCharsets.UTF_8));
+
+		assert (source.getLineCount() == 3);
+		assert (source.getLine(1).toString().equals("   "));
+		assert (source.getLine(2).toString().equals("\tpass"));
+	}
+}
@@ -1,11 +1,16 @@
 package tests;
 
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ast.AstNode;
+import ast.FlatModule;
 import model.Class;
 import model.ModelBuilder;
 import model.Project;
@@ -81,5 +86,61 @@ public class TestHelper {
 		ModelBuilder modelBuilder = new ModelBuilder(new File(parent), trees.values());
 		return modelBuilder;
 	}
-	
+
+	/**
+	 * @return the AST of the file as built by a sequential parse, inflated when kept flat
+	 */
+	public static ast.Module getAst(String fileName) {
+		ast.Module module = File2Tree.getAsts(Arrays.asList(fileName), 1).get(fileName);
+		return module instanceof FlatModule ? ((FlatModule) module).inflate() : module;
+	}
+
+	/**
+	 * Compares two ASTs field by field, so the comparison doesn't depend on any encoding of the trees. Lists are
+	 * compared by their elements, whatever their implementation.
+	 */
+	public static boolean sameTree(Object a, Object b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		if (a instanceof List && b instanceof List) {
+			List<?> as = (List<?>) a;
+			List<?> bs = (List<?>) b;
+			if (as.size() != bs.size()) {
+				return false;
+			}
+			for (int i = 0; i < as.size(); i++) {
+				if (!TestHelper.sameTree(as.get(i), bs.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (a.getClass() != b.getClass()) {
+			return false;
+		}
+		if (a instanceof int[]) {
+			return Arrays.equals((int[]) a, (int[]) b);
+		}
+		if (!(a instanceof AstNode)) {
+			return a.equals(b);
+		}
+		for (java.lang.Class<?> c = a.getClass(); c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				field.setAccessible(true);
+				try {
+					if (!TestHelper.sameTree(field.get(a), field.get(b))) {
+						return false;
+					}
+				}
+				catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+		return true;
+	}
 }
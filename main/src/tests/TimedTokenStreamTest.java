@@ -0,0 +1,60 @@
+package tests;
+
+import java.nio.charset.StandardCharsets;
+
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+
+import gen.PythonLexer;
+import gen.PythonParser;
+import process.ParserPool;
+import process.TimedTokenStream;
+import util.SourceFile;
+
+public class TimedTokenStreamTest {
+
+	private static final SourceFile SOURCE = SourceFile.decode("timed.py",
+			"def f(x):\n    return x + 1\n\nprint(f(1))\n".getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	public void cancelsAfterDeadline() {
+		TimedTokenStream tokens = new TimedTokenStream(new PythonLexer(SOURCE.getCharStream()));
+		tokens.startBudget(1, System.nanoTime() - 1);
+		try {
+			tokens.LA(1);
+			assert (false);
+		}
+		catch (TimedTokenStream.ParseTimeoutException e) {
+			assert (e.getMessage().contains("timed.py"));
+		}
+	}
+
+	@Test
+	public void parsesWithinBudget() {
+		TimedTokenStream tokens = new TimedTokenStream(new PythonLexer(SOURCE.getCharStream()));
+		tokens.startBudget(60000);
+		new PythonParser(tokens).file_input();
+		assert (tokens.LA(1) == Token.EOF);
+	}
+
+	@Test
+	public void noBudgetNeverCancels() {
+		TimedTokenStream tokens = new TimedTokenStream(new PythonLexer(SOURCE.getCharStream()));
+		tokens.startBudget(0);
+		assert (TimedTokenStream.deadline(0) == 0);
+		new PythonParser(tokens).file_input();
+		assert (tokens.LA(1) == Token.EOF);
+	}
+
+	@Test
+	public void chunkParseSharesDeadline() throws Exception {
+		ParserPool.parseChunk(SOURCE, 0, 2, TimedTokenStream.deadline(60000));
+		try {
+			ParserPool.parseChunk(SOURCE, 0, 2, System.nanoTime() - 1);
+			assert (false);
+		}
+		catch (TimedTokenStream.ParseTimeoutException e) {
+			//expected, the deadline has passed before the parse started
+		}
+	}
+}
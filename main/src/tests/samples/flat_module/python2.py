@@ -0,0 +1,13 @@
+print >>sys.stderr, "x", y,
+print
+exec code in ns
+x = `y`
+z = 10L
+if x <> y:
+    raise ValueError, "msg"
+try:
+    pass
+except ValueError, e:
+    pass
+def f((a, b), c=1):
+    print "x" % (a,)
@@ -0,0 +1,79 @@
+from __future__ import print_function
+from . import sibling
+from ..pkg.mod import name as alias, other
+import os.path as osp, sys
+__all__ = ['f']
+x, *rest = 1, 2, 3
+y = -x + ~x ** 2 // 3 % 4 << 1 >> 2 & 3 | 4 ^ 5
+z = 1 if x and not y or x < y <= 3 != 4 in [] is not None else 2.5
+w = 3j + 0x1F + 0o7 + 0b1 + 10000000000000000000000
+s = 'a' "b" r'c' b'd'
+d = {'k': v for v in range(3) if v}
+st = {a for a in rest}
+l = [i * j for i in range(2) for j in range(2) if i if j]
+g = (i for i in l)
+e = {'x': 1, 'y': 2}
+t = l[1:2:3], l[::], l[...], l[1, 2:3]
+lam = lambda a, b=1, *c, d, **e: a
+del t
+assert x, 'msg'
+global_var = None
+
+@decorator(1, key=2)
+@other.decorator
+def f(a: int, b=2, *args, c: str = 'x', **kwargs) -> None:
+    global global_var
+    def inner():
+        nonlocal a
+        a += 1
+        yield a
+        yield from range(3)
+        return
+    for i, j in enumerate(args):
+        if i:
+            continue
+        elif j:
+            break
+        else:
+            pass
+    else:
+        pass
+    while a:
+        a -= 1
+    else:
+        pass
+    try:
+        raise ValueError('x') from None
+    except (ValueError, TypeError) as ex:
+        raise
+    except Exception:
+        pass
+    else:
+        pass
+    finally:
+        pass
+    with open('f') as fh, open('g'):
+        print(fh.read().strip()[0], sep='', *args, **kwargs)
+    return super().f(a)
+
+
+class C(Base, metaclass=Meta):
+    attr = 1
+
+    def __init__(self):
+        super(C, self).__init__()
+        self.x = self.y.z(1)(2)[3].w
+        self.l = [*a, *b]
+
+    @staticmethod
+    async def run():
+        await thing()
+        async with lock:
+            pass
+        async for q in aiter():
+            pass
+b = True, False, None, ...
+lc = [q for q in l if lambda: q]
+call(q for q in l)
+call(*args, **kwargs)
+call(key=lambda k: k)
@@ -0,0 +1,95 @@
+package util;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Lexer input over a range of a character array, which is not copied. Like the UTF-16 based input streams of ANTLR,
+ * a supplementary character is seen as two characters.
+ */
+public class CharArrayCharStream implements CharStream {
+
+	private final char[] data;
+	private final int start;
+	private final int size;
+	private final String name;
+	private int position;
+
+	/**
+	 * @param data the characters, not to be changed while the stream is in use
+	 * @param start index of the first character of the input
+	 * @param end index after the last character of the input
+	 * @param name name of the source, e.g. the path of the file
+	 */
+	public CharArrayCharStream(char[] data, int start, int end, String name) {
+		this.data = data;
+		this.start = start;
+		this.size = end - start;
+		this.name = name;
+	}
+
+	@Override
+	public void consume() {
+		if (this.position >= this.size) {
+			throw new IllegalStateException("cannot consume EOF");
+		}
+		this.position++;
+	}
+
+	@Override
+	public int LA(int i) {
+		if (i == 0) {
+			return 0;
+		}
+		int index = i < 0 ? this.position + i : this.position + i - 1;
+		if (index < 0 || index >= this.size) {
+			return IntStream.EOF;
+		}
+		return this.data[this.start + index];
+	}
+
+	@Override
+	public int mark() {
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return this.position;
+	}
+
+	@Override
+	public void seek(int index) {
+		this.position = Math.min(index, this.size);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public String getSourceName() {
+		return this.name == null || this.name.isEmpty() ? IntStream.UNKNOWN_SOURCE_NAME : this.name;
+	}
+
+	@Override
+	public String getText(Interval interval) {
+		int from = interval.a;
+		int to = Math.min(interval.b, this.size - 1);
+		if (from >= this.size || to < from) {
+			return "";
+		}
+		return new String(this.data, this.start + from, to - from + 1);
+	}
+
+	@Override
+	public String toString() {
+		return new String(this.data, this.start, this.size);
+	}
+}
@@ -137,7 +137,14 @@ public class FileHelper {
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * @param folder a project folder, or a .zip or .tar.gz archive of a project (see {@link ProjectArchive})
+	 * @return paths of all python files in the project
+	 */
 	public static List<String> getPythonFilePaths(File folder) {
+		if (ProjectArchive.isArchive(folder)) {
+			return ProjectArchive.getPythonFilePaths(folder);
+		}
 		return FileHelper.getFilePaths(folder)
 				.stream()
 				.filter(FileHelper::isPythonFile)
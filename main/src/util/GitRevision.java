@@ -0,0 +1,254 @@
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the python files of a revision of a local git repository without checking it out. The files are listed
+ * with "git ls-tree" and their blobs are read through a single "git cat-file --batch" process, which stays open
+ * until the revision is closed.
+ *
+ * The paths of the files are relative to the repository (with the separator of the platform), the model of such a
+ * project is built with {@link model.ModelBuilder#ModelBuilder(File, String, Iterable)}.
+ */
+public class GitRevision implements AutoCloseable {
+
+	private static final String GIT = "git";
+	private static final String SYMLINK_MODE = "120000";
+
+	private final File repository;
+	private final String revision;
+	private final String commit;
+	private final Map<String, String> blobs;
+
+	private Process catFile;
+	private OutputStream requests;
+	private InputStream responses;
+
+	/**
+	 * Lists the python files of the revision.
+	 * @param repository folder of the repository (work tree or bare)
+	 * @param revision any revision git understands, e.g. a commit hash, branch or tag
+	 * @throws IOException when git fails, e.g. because the revision does not exist
+	 */
+	public GitRevision(File repository, String revision) throws IOException {
+		this.repository = repository;
+		this.revision = revision;
+		this.commit = this.resolveCommit();
+		this.blobs = this.listPythonBlobs();
+	}
+
+	/**
+	 * @return whether the folder is the work tree of a git repository
+	 */
+	public static boolean isRepository(File folder) {
+		return new File(folder, ".git").exists();
+	}
+
+	public File getRepository() {
+		return this.repository;
+	}
+
+	public String getRevision() {
+		return this.revision;
+	}
+
+	/**
+	 * @return repository relative paths of the python files of the revision
+	 */
+	public List<String> getPythonFilePaths() {
+		return new ArrayList<>(this.blobs.keySet());
+	}
+
+	/**
+	 * Streams the python files of the revision to the consumer, in the order of the tree.
+	 * @param consumer receives the path and contents of every python file
+	 * @throws IOException when a blob cannot be read
+	 */
+	public void readPythonFiles(ProjectArchive.EntryConsumer consumer) throws IOException {
+		for (Map.Entry<String, String> blob : this.blobs.entrySet()) {
+			consumer.accept(blob.getKey(), this.readBlob(blob.getValue()));
+		}
+	}
+
+	/**
+	 * @param path repository relative path of a python file of the revision
+	 * @return the contents of the file
+	 * @throws IOException when the file is not part of the revision or cannot be read
+	 */
+	public byte[] read(String path) throws IOException {
+		String blob = this.blobs.get(path);
+		if (blob == null) {
+			throw new IOException("No file " + path + " in " + this.revision + " of " + this.repository);
+		}
+		return this.readBlob(blob);
+	}
+
+	/**
+	 * Stops the cat-file process.
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.catFile != null) {
+			try {
+				this.requests.close();
+				this.catFile.waitFor();
+			}
+			catch (IOException e) {
+				this.catFile.destroy();
+			}
+			catch (InterruptedException e) {
+				this.catFile.destroy();
+				Thread.currentThread().interrupt();
+			}
+			this.catFile = null;
+		}
+	}
+
+	/**
+	 * Resolves the revision to the id of its commit, so that git never reads it as an option.
+	 * @return the commit id
+	 */
+	private String resolveCommit() throws IOException {
+		if (this.revision.startsWith("-")) {
+			throw new IOException("Invalid revision " + this.revision);
+		}
+		Process process = this.git("rev-parse", "--verify", "--quiet", "--end-of-options", this.revision + "^{commit}");
+		byte[] output;
+		try (InputStream in = process.getInputStream()) {
+			output = GitRevision.readAll(in);
+		}
+		GitRevision.waitFor(process, "rev-parse " + this.revision);
+
+		String commit = new String(output, StandardCharsets.US_ASCII).trim();
+		if (!GitRevision.isObjectId(commit)) {
+			throw new IOException("Unexpected response of git rev-parse for " + this.revision + ": " + commit);
+		}
+		return commit;
+	}
+
+	/**
+	 * @return blob id by path, for all .py blobs of the revision
+	 */
+	private Map<String, String> listPythonBlobs() throws IOException {
+		Process process = this.git("ls-tree", "-r", "-z", "--full-tree", "--end-of-options", this.commit);
+		byte[] output;
+		try (InputStream in = process.getInputStream()) {
+			output = GitRevision.readAll(in);
+		}
+		GitRevision.waitFor(process, "ls-tree " + this.revision);
+
+		//<mode> SP <type> SP <object> TAB <file> NUL
+		Map<String, String> blobs = new LinkedHashMap<>();
+		int start = 0;
+		for (int i = 0; i < output.length; i++) {
+			if (output[i] != 0) {
+				continue;
+			}
+			String line = new String(output, start, i - start, StandardCharsets.UTF_8);
+			start = i + 1;
+			int tab = line.indexOf('\t');
+			String[] meta = line.substring(0, tab).split(" ");
+			String path = line.substring(tab + 1);
+			//symbolic links are blobs too, their contents are the link target
+			if (meta[1].equals("blob") && !meta[0].equals(SYMLINK_MODE) && path.endsWith(FileHelper.PYTHON_EXTENSION)) {
+				//the id is sent to cat-file as a request line
+				if (!GitRevision.isObjectId(meta[2])) {
+					throw new IOException("Unexpected object id " + meta[2] + " of " + path + " in " + this.revision);
+				}
+				blobs.put(path.replace('/', File.separatorChar), meta[2]);
+			}
+		}
+		return blobs;
+	}
+
+	/**
+	 * Asks the cat-file process for the blob and reads the response "<object> SP <type> SP <size> LF <contents> LF".
+	 */
+	private synchronized byte[] readBlob(String blob) throws IOException {
+		if (this.catFile == null) {
+			this.catFile = this.git("cat-file", "--batch");
+			this.requests = new BufferedOutputStream(this.catFile.getOutputStream());
+			this.responses = new BufferedInputStream(this.catFile.getInputStream());
+		}
+		this.requests.write((blob + "\n").getBytes(StandardCharsets.US_ASCII));
+		this.requests.flush();
+
+		String header = this.readLine();
+		String[] parts = header.split(" ");
+		if (parts.length != 3) {
+			throw new IOException("Unexpected response of git cat-file for " + blob + ": " + header);
+		}
+		byte[] contents = new byte[Integer.parseInt(parts[2])];
+		int read = 0;
+		while (read < contents.length) {
+			int n = this.responses.read(contents, read, contents.length - read);
+			if (n < 0) {
+				throw new EOFException("git cat-file ended while reading " + blob);
+			}
+			read += n;
+		}
+		//trailing LF
+		this.responses.read();
+		return contents;
+	}
+
+	private String readLine() throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		for (int b = this.responses.read(); b != '\n'; b = this.responses.read()) {
+			if (b < 0) {
+				throw new EOFException("git cat-file ended unexpectedly");
+			}
+			line.write(b);
+		}
+		return new String(line.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private Process git(String... arguments) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(GIT);
+		command.add("-C");
+		command.add(this.repository.getAbsolutePath());
+		for (String argument : arguments) {
+			command.add(argument);
+		}
+		return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+	}
+
+	private static void waitFor(Process process, String description) throws IOException {
+		try {
+			int exitCode = process.waitFor();
+			if (exitCode != 0) {
+				throw new IOException("git " + description + " failed with exit code " + exitCode);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for git " + description, e);
+		}
+	}
+
+	private static boolean isObjectId(String id) {
+		return !id.isEmpty() && id.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,375 @@
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the python files of a project that is stored as .zip or .tar.gz archive, without extracting it.
+ *
+ * The files get virtual paths below the path of the archive, e.g. "/data/project.zip/project-master/pkg/mod.py",
+ * so the archive takes the place of the project folder and the import resolution of the Linker works unchanged.
+ */
+public class ProjectArchive {
+
+	private static final String[] ZIP_EXTENSIONS = { ".zip" };
+	private static final String[] TAR_GZ_EXTENSIONS = { ".tar.gz", ".tgz" };
+
+	private static final int TAR_BLOCK = 512;
+
+	private static EntryIndex index;
+
+	/**
+	 * Receives the python files of an archive.
+	 */
+	public interface EntryConsumer {
+		/**
+		 * @param path virtual path of the file
+		 * @param contents contents of the file, null when only the paths are listed
+		 */
+		void accept(String path, byte[] contents) throws IOException;
+	}
+
+	public static boolean isArchive(File file) {
+		return file.isFile() && (ProjectArchive.isZip(file) || ProjectArchive.isTarGz(file));
+	}
+
+	/**
+	 * @param archive the archive of a project
+	 * @return virtual paths of the python files in the archive, empty when it cannot be read
+	 */
+	public static List<String> getPythonFilePaths(File archive) {
+		List<String> paths = new ArrayList<>();
+		try {
+			ProjectArchive.scan(archive, false, (path, contents) -> paths.add(path));
+		}
+		catch (IOException e) {
+			System.err.println("Could not read archive " + archive + ": " + e.getMessage());
+		}
+		return paths;
+	}
+
+	/**
+	 * Streams the python files of the archive to the consumer, in the order in which they are stored.
+	 * @param archive the archive of a project
+	 * @param consumer receives the path and contents of every python file
+	 * @throws IOException when the archive cannot be read
+	 */
+	public static void readPythonFiles(File archive, EntryConsumer consumer) throws IOException {
+		ProjectArchive.scan(archive, true, consumer);
+	}
+
+	/**
+	 * Reads a single file by its virtual path. The entries of the archive that was read last are indexed once: zip
+	 * archives stay open and are read directly at the entry, the python files of a tar.gz archive are decompressed in
+	 * a single pass and kept in memory until another archive is read. Use {@link #readPythonFiles} to read all files
+	 * of an archive without keeping them.
+	 * @param path virtual path of a file in an archive
+	 * @return the contents, null when the path does not point into an archive
+	 * @throws IOException when the archive or entry cannot be read
+	 */
+	public static byte[] readEntry(String path) throws IOException {
+		File archive = new File(path).getParentFile();
+		while (archive != null && !ProjectArchive.isArchive(archive)) {
+			archive = archive.getParentFile();
+		}
+		if (archive == null) {
+			return null;
+		}
+		String entryName = path.substring(archive.getPath().length() + 1).replace(File.separatorChar, '/');
+		synchronized (ProjectArchive.class) {
+			return ProjectArchive.index(archive).read(entryName);
+		}
+	}
+
+	/**
+	 * @return the index of the archive, which replaces the index of the archive read before
+	 */
+	private static EntryIndex index(File archive) throws IOException {
+		if (index == null || !index.isOf(archive)) {
+			if (index != null) {
+				index.close();
+				index = null;
+			}
+			index = new EntryIndex(archive);
+		}
+		return index;
+	}
+
+	private static void scan(File archive, boolean contents, EntryConsumer consumer) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(archive.toPath()))) {
+			if (ProjectArchive.isZip(archive)) {
+				ProjectArchive.scanZip(archive, new ZipInputStream(in), contents, consumer);
+			}
+			else {
+				ProjectArchive.scanTar(archive, new GZIPInputStream(in), contents, consumer);
+			}
+		}
+	}
+
+	private static void scanZip(File archive, ZipInputStream in, boolean contents, EntryConsumer consumer) throws IOException {
+		for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+			if (!entry.isDirectory() && ProjectArchive.isPythonEntry(entry.getName())) {
+				consumer.accept(ProjectArchive.virtualPath(archive, entry.getName()),
+						contents ? ProjectArchive.readBytes(in, entry.getSize()) : null);
+			}
+		}
+	}
+
+	/**
+	 * Reads the ustar format, including the GNU ('L') and pax ('x') extensions for long names.
+	 */
+	private static void scanTar(File archive, InputStream in, boolean contents, EntryConsumer consumer) throws IOException {
+		byte[] header = new byte[TAR_BLOCK];
+		String longName = null;
+		while (ProjectArchive.readBlock(in, header)) {
+			if (header[0] == 0) {
+				//end of archive
+				return;
+			}
+			long size = ProjectArchive.parseOctal(header, 124, 12);
+			long padding = (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK;
+			char type = (char) header[156];
+
+			if (type == 'L' || type == 'x') {
+				byte[] value = ProjectArchive.readBytes(in, size);
+				ProjectArchive.skip(in, padding);
+				longName = type == 'L' ? ProjectArchive.trimNul(new String(value, StandardCharsets.UTF_8)) : ProjectArchive.paxPath(value, longName);
+				continue;
+			}
+
+			String name = longName != null ? longName : ProjectArchive.headerName(header);
+			longName = null;
+			if ((type == '0' || type == 0) && ProjectArchive.isPythonEntry(name)) {
+				consumer.accept(ProjectArchive.virtualPath(archive, name), contents ? ProjectArchive.readBytes(in, size) : null);
+				if (!contents) {
+					ProjectArchive.skip(in, size);
+				}
+				ProjectArchive.skip(in, padding);
+			}
+			else {
+				ProjectArchive.skip(in, size + padding);
+			}
+		}
+	}
+
+	private static String headerName(byte[] header) {
+		String name = ProjectArchive.field(header, 0, 100);
+		if (ProjectArchive.field(header, 257, 5).equals("ustar")) {
+			String prefix = ProjectArchive.field(header, 345, 155);
+			if (!prefix.isEmpty()) {
+				name = prefix + "/" + name;
+			}
+		}
+		return name;
+	}
+
+	/**
+	 * @return the "path" record of pax extended header records ("length key=value\n", the length in bytes), or the
+	 * given default
+	 */
+	private static String paxPath(byte[] records, String defaultPath) {
+		int position = 0;
+		while (position < records.length) {
+			int space = position;
+			while (space < records.length && records[space] != ' ') {
+				space++;
+			}
+			int length;
+			try {
+				length = Integer.parseInt(new String(records, position, space - position, StandardCharsets.US_ASCII));
+			}
+			catch (NumberFormatException e) {
+				break;
+			}
+			int end = Math.min(records.length, position + length - 1);
+			if (length <= 0 || end <= space) {
+				break;
+			}
+			String record = new String(records, space + 1, end - space - 1, StandardCharsets.UTF_8);
+			if (record.startsWith("path=")) {
+				return record.substring("path=".length());
+			}
+			position += length;
+		}
+		return defaultPath;
+	}
+
+	private static String field(byte[] header, int offset, int length) {
+		return ProjectArchive.trimNul(new String(header, offset, length, StandardCharsets.UTF_8));
+	}
+
+	private static String trimNul(String value) {
+		int end = value.indexOf(0);
+		return end < 0 ? value : value.substring(0, end);
+	}
+
+	private static long parseOctal(byte[] header, int offset, int length) {
+		long value = 0;
+		for (int i = offset; i < offset + length; i++) {
+			byte b = header[i];
+			if (b >= '0' && b <= '7') {
+				value = value * 8 + (b - '0');
+			}
+			else if (b == 0 || value != 0) {
+				//terminated by NUL or space, leading spaces are skipped
+				break;
+			}
+		}
+		return value;
+	}
+
+	private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+		int read = 0;
+		while (read < block.length) {
+			int n = in.read(block, read, block.length - read);
+			if (n < 0) {
+				if (read == 0) {
+					return false;
+				}
+				throw new EOFException("Truncated tar header");
+			}
+			read += n;
+		}
+		return true;
+	}
+
+	private static byte[] readBytes(InputStream in, long size) throws IOException {
+		if (size < 0) {
+			//zip entries without size in the local header
+			return ProjectArchive.readAll(in);
+		}
+		byte[] bytes = new byte[(int) size];
+		int read = 0;
+		while (read < bytes.length) {
+			int n = in.read(bytes, read, bytes.length - read);
+			if (n < 0) {
+				throw new EOFException("Truncated archive entry");
+			}
+			read += n;
+		}
+		return bytes;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	private static void skip(InputStream in, long count) throws IOException {
+		long remaining = count;
+		while (remaining > 0) {
+			long skipped = in.skip(remaining);
+			if (skipped <= 0) {
+				if (in.read() < 0) {
+					throw new EOFException("Truncated archive entry");
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
+	private static String virtualPath(File archive, String entryName) {
+		return archive.getAbsolutePath() + File.separator + entryName.replace('/', File.separatorChar);
+	}
+
+	/**
+	 * Entries that would escape the archive (absolute or containing "..") are left out.
+	 */
+	private static boolean isPythonEntry(String name) {
+		return name.endsWith(FileHelper.PYTHON_EXTENSION) && !name.startsWith("/") && !name.equals("..")
+				&& !name.startsWith("../") && !name.contains("/../");
+	}
+
+	private static boolean isZip(File file) {
+		return ProjectArchive.endsWith(file, ZIP_EXTENSIONS);
+	}
+
+	private static boolean isTarGz(File file) {
+		return ProjectArchive.endsWith(file, TAR_GZ_EXTENSIONS);
+	}
+
+	private static boolean endsWith(File file, String[] extensions) {
+		String name = file.getName().toLowerCase();
+		for (String extension : extensions) {
+			if (name.endsWith(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The entries of one archive, see {@link ProjectArchive#readEntry(String)}.
+	 */
+	private static class EntryIndex implements Closeable {
+
+		private final File archive;
+		private final long lastModified;
+		private final ZipFile zip;
+		private final Map<String, byte[]> tarEntries;
+
+		EntryIndex(File archive) throws IOException {
+			this.archive = archive.getAbsoluteFile();
+			this.lastModified = archive.lastModified();
+			if (ProjectArchive.isZip(archive)) {
+				this.zip = new ZipFile(archive);
+				this.tarEntries = null;
+			}
+			else {
+				this.zip = null;
+				this.tarEntries = new HashMap<>();
+				int prefix = ProjectArchive.virtualPath(archive, "").length();
+				ProjectArchive.scan(archive, true, (path, contents) ->
+						this.tarEntries.put(path.substring(prefix).replace(File.separatorChar, '/'), contents));
+			}
+		}
+
+		boolean isOf(File archive) {
+			return this.archive.equals(archive.getAbsoluteFile()) && this.lastModified == archive.lastModified();
+		}
+
+		byte[] read(String entryName) throws IOException {
+			if (this.zip == null) {
+				byte[] contents = this.tarEntries.get(entryName);
+				if (contents == null) {
+					throw new IOException("No entry " + entryName + " in " + this.archive);
+				}
+				return contents;
+			}
+			ZipEntry entry = this.zip.getEntry(entryName);
+			if (entry == null) {
+				throw new IOException("No entry " + entryName + " in " + this.archive);
+			}
+			try (InputStream in = this.zip.getInputStream(entry)) {
+				return ProjectArchive.readBytes(in, entry.getSize());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.zip != null) {
+				this.zip.close();
+			}
+		}
+	}
+}
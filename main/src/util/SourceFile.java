@@ -0,0 +1,318 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.antlr.v4.runtime.CharStream;
+
+/**
+ * The contents of a python source file, read from disk exactly once. The bytes are decoded according to the
+ * BOM or PEP 263 coding cookie (UTF-8 by default) into a single character buffer which is shared by the lexer
+ * (see {@link #getCharStream()}) and the LOC counting (see {@link #getLine(int)}).
+ *
+ * Bare carriage returns are turned into newlines, whitespace only lines are blanked and a final newline is added
+ * when missing, so the lexer sees the same line structure as the line index.
+ */
+public class SourceFile {
+
+	public static final int SIZE_LIMIT_BYTES = 5*1024*1024;
+	private static final int LINE_LIMIT = 100000;
+
+	private static final Pattern CODING_COOKIE = Pattern.compile("^[ \t\f]*#.*?coding[:=][ \t]*([-_.a-zA-Z0-9]+)");
+
+	private final String path;
+	private final Charset charset;
+	private final char[] chars;
+	private final int length;
+	private final int[] lineStarts;
+	private final int[] lineEnds;
+	private final int lineCount;
+
+	private SourceFile(String path, Charset charset, char[] chars, int length) {
+		this.path = path;
+		this.charset = charset;
+		this.chars = chars;
+
+		int lines = 0;
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == '\r' && (i + 1 == length || chars[i + 1] != '\n')) {
+				chars[i] = '\n';
+			}
+			if (chars[i] == '\n') {
+				lines++;
+			}
+		}
+		if (length > 0 && chars[length - 1] != '\n') {
+			chars[length++] = '\n';
+			lines++;
+		}
+
+		this.length = length;
+		this.lineCount = lines;
+		this.lineStarts = new int[lines];
+		this.lineEnds = new int[lines];
+		int line = 0;
+		int start = 0;
+		boolean blank = true;
+		for (int i = 0; i < length; i++) {
+			if (chars[i] == '\n') {
+				this.lineStarts[line] = start;
+				this.lineEnds[line] = i > start && chars[i - 1] == '\r' ? i - 1 : i;
+				if (blank) {
+					SourceFile.blankLine(chars, start, this.lineEnds[line]);
+				}
+				line++;
+				start = i + 1;
+				blank = true;
+			}
+			else if (chars[i] > ' ') {
+				blank = false;
+			}
+		}
+	}
+
+	/**
+	 * Turns a line that only consists of whitespace and control characters (e.g. form feeds) into spaces, which the
+	 * lexer skips like an empty line.
+	 */
+	private static void blankLine(char[] chars, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (chars[i] != '\t') {
+				chars[i] = ' ';
+			}
+		}
+	}
+
+	/**
+	 * Reads and decodes the file.
+	 * @param path path to the python file
+	 * @return the source file
+	 * @throws IOException when the file cannot be read
+	 * @throws FileSizeLimitExceededException when the file exceeds the size or line limit
+	 */
+	public static SourceFile read(String path) throws IOException, FileSizeLimitExceededException {
+		return SourceFile.read(path, true);
+	}
+
+	/**
+	 * Reads and decodes the file.
+	 * @param path path to the python file
+	 * @param limited whether to enforce the size and line limit, which protect the parser against huge files
+	 * @return the source file
+	 * @throws IOException when the file cannot be read
+	 * @throws FileSizeLimitExceededException when the file exceeds the size or line limit
+	 */
+	public static SourceFile read(String path, boolean limited) throws IOException, FileSizeLimitExceededException {
+		if (!Files.isRegularFile(Paths.get(path))) {
+			byte[] entry = ProjectArchive.readEntry(path);
+			if (entry != null) {
+				return SourceFile.read(path, entry, limited);
+			}
+		}
+		long size = Files.size(Paths.get(path));
+		if (limited && size > SIZE_LIMIT_BYTES) {
+			throw new FileSizeLimitExceededException("File \"" + path + "\" too large (" + size + " bytes)");
+		}
+		return SourceFile.read(path, Files.readAllBytes(Paths.get(path)), limited);
+	}
+
+	/**
+	 * Decodes source code that has already been loaded into memory, e.g. from an archive (see {@link ProjectArchive}).
+	 * @param path path used to identify the source
+	 * @param bytes raw contents
+	 * @param limited whether to enforce the size and line limit
+	 * @return the source file
+	 * @throws FileSizeLimitExceededException when the source exceeds the size or line limit
+	 */
+	public static SourceFile read(String path, byte[] bytes, boolean limited) throws FileSizeLimitExceededException {
+		if (limited && bytes.length > SIZE_LIMIT_BYTES) {
+			throw new FileSizeLimitExceededException("File \"" + path + "\" too large (" + bytes.length + " bytes)");
+		}
+		SourceFile source = SourceFile.decode(path, bytes);
+		if (limited) {
+			source.checkLineLimit();
+		}
+		return source;
+	}
+
+	/**
+	 * Decodes source code that has already been loaded into memory. No limits are enforced.
+	 * @param path path used to identify the source
+	 * @param bytes raw contents
+	 * @return the source file
+	 */
+	public static SourceFile decode(String path, byte[] bytes) {
+		int offset = 0;
+		Charset charset;
+		if (bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
+			offset = 3;
+			charset = StandardCharsets.UTF_8;
+		}
+		else {
+			charset = SourceFile.detectCharset(bytes);
+		}
+
+		CharsetDecoder decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		int capacity = (int) Math.ceil((bytes.length - offset) * (double) decoder.maxCharsPerByte());
+		//one extra char for a missing final newline
+		char[] chars = new char[capacity + 1];
+		CharBuffer out = CharBuffer.wrap(chars, 0, capacity);
+		decoder.decode(ByteBuffer.wrap(bytes, offset, bytes.length - offset), out, true);
+		decoder.flush(out);
+		return new SourceFile(path, charset, chars, out.position());
+	}
+
+	/**
+	 * @throws FileSizeLimitExceededException when the source has more lines than a single parse can handle
+	 */
+	public void checkLineLimit() throws FileSizeLimitExceededException {
+		if (this.lineCount > LINE_LIMIT) {
+			throw new FileSizeLimitExceededException("File \"" + this.path + "\" too large (" + this.lineCount + " lines)");
+		}
+	}
+
+	public String getPath() {
+		return this.path;
+	}
+
+	public Charset getCharset() {
+		return this.charset;
+	}
+
+	public int getLineCount() {
+		return this.lineCount;
+	}
+
+	/**
+	 * @param index zero based line index
+	 * @return the line without its terminator, backed by the shared buffer
+	 */
+	public CharSequence getLine(int index) {
+		return CharBuffer.wrap(this.chars, this.lineStarts[index], this.lineEnds[index] - this.lineStarts[index]);
+	}
+
+	/**
+	 * @param digest the digest to update with the (decoded) contents
+	 * @return the digest, for chaining
+	 */
+	public MessageDigest digest(MessageDigest digest) {
+		byte[] buffer = new byte[8192];
+		int pos = 0;
+		for (int i = 0; i < this.length; i++) {
+			buffer[pos++] = (byte) (this.chars[i] >> 8);
+			buffer[pos++] = (byte) this.chars[i];
+			if (pos == buffer.length) {
+				digest.update(buffer, 0, pos);
+				pos = 0;
+			}
+		}
+		digest.update(buffer, 0, pos);
+		return digest;
+	}
+
+	/**
+	 * @return a new lexer input over the shared buffer, the characters are not copied
+	 */
+	public CharStream getCharStream() {
+		return new CharArrayCharStream(this.chars, 0, this.length, this.path);
+	}
+
+	/**
+	 * @param fromLine zero based index of the first line
+	 * @param toLine zero based index of the line after the last line
+	 * @return a new lexer input over the lines in the shared buffer, token lines still have to be offset by fromLine
+	 */
+	public CharStream getCharStream(int fromLine, int toLine) {
+		int start = this.lineStarts[fromLine];
+		int end = toLine < this.lineCount ? this.lineStarts[toLine] : this.length;
+		return new CharArrayCharStream(this.chars, start, end, this.path);
+	}
+
+	/**
+	 * @param fromLine zero based index of the first line of a statement
+	 * @param toLine zero based index of the line after its last line
+	 * @return a copy of the source in which the statement is replaced by a pass statement at its indentation,
+	 * followed by empty lines so the other statements keep their line numbers
+	 */
+	public SourceFile stub(int fromLine, int toLine) {
+		int start = this.lineStarts[fromLine];
+		int end = toLine < this.lineCount ? this.lineStarts[toLine] : this.length;
+		int indentEnd = start;
+		while (indentEnd < this.lineEnds[fromLine] && (this.chars[indentEnd] == ' ' || this.chars[indentEnd] == '\t')) {
+			indentEnd++;
+		}
+		StringBuilder stub = new StringBuilder().append(this.chars, start, indentEnd - start).append("pass");
+		for (int i = fromLine; i < toLine; i++) {
+			stub.append('\n');
+		}
+		int length = this.length - (end - start) + stub.length();
+		char[] chars = new char[length + 1];
+		System.arraycopy(this.chars, 0, chars, 0, start);
+		stub.getChars(0, stub.length(), chars, start);
+		System.arraycopy(this.chars, end, chars, start + stub.length(), this.length - end);
+		return new SourceFile(this.path, this.charset, chars, length);
+	}
+
+	@Override
+	public String toString() {
+		return new String(this.chars, 0, this.length);
+	}
+
+	/**
+	 * Looks for a PEP 263 coding cookie in the first two lines.
+	 */
+	private static Charset detectCharset(byte[] bytes) {
+		int lineStart = 0;
+		for (int line = 0; line < 2 && lineStart < bytes.length; line++) {
+			int lineEnd = lineStart;
+			while (lineEnd < bytes.length && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r') {
+				lineEnd++;
+			}
+			Matcher matcher = CODING_COOKIE.matcher(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.ISO_8859_1));
+			if (matcher.find()) {
+				return SourceFile.toCharset(matcher.group(1));
+			}
+			lineStart = lineEnd + 1;
+			if (lineEnd + 1 < bytes.length && bytes[lineEnd] == '\r' && bytes[lineEnd + 1] == '\n') {
+				lineStart++;
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	private static Charset toCharset(String pythonName) {
+		String name = pythonName.toLowerCase().replace('_', '-');
+		if (name.equals("utf-8") || name.startsWith("utf-8-")) {
+			return StandardCharsets.UTF_8;
+		}
+		if (name.matches("(latin-1|iso-8859-1|iso-latin-1)(-.*)?")) {
+			return StandardCharsets.ISO_8859_1;
+		}
+		try {
+			return Charset.forName(name);
+		}
+		catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+			return StandardCharsets.UTF_8;
+		}
+	}
+
+	public static class FileSizeLimitExceededException extends Exception {
+		public FileSizeLimitExceededException(String message) {
+			super(message);
+		}
+	}
+}